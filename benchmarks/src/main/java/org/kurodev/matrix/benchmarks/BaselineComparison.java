@@ -0,0 +1,100 @@
+package org.kurodev.matrix.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a JMH json result ({@code -rf json}) against a stored baseline.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar org.kurodev.matrix.benchmarks.BaselineComparison <baseline> <result> [tolerance]}
+ * <p>
+ * Prints the relative change of every benchmark present in both files and exits with status 1
+ * if any score got slower by more than the tolerance (default {@code 0.10}, i.e. 10%).
+ * Allocation rates are reported as well if both runs used {@code -prof gc}, but do not fail the comparison.
+ */
+public class BaselineComparison {
+    private static final String ALLOCATION_RATE = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <result.json> [tolerance]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        Map<String, JsonObject> baseline = load(Path.of(args[0]));
+        Map<String, JsonObject> result = load(Path.of(args[1]));
+        int regressions = 0;
+        for (Map.Entry<String, JsonObject> entry : result.entrySet()) {
+            JsonObject old = baseline.get(entry.getKey());
+            if (old == null) {
+                System.out.printf("%-70s new%n", entry.getKey());
+                continue;
+            }
+            double before = score(old);
+            double after = score(entry.getValue());
+            double change = (after - before) / before;
+            boolean regression = change > tolerance;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-70s %12.3f -> %12.3f %s %+7.1f%%%s%n", entry.getKey(), before, after,
+                    unit(entry.getValue()), change * 100, regression ? "  REGRESSION" : "");
+            Double allocationBefore = allocation(old);
+            Double allocationAfter = allocation(entry.getValue());
+            if (allocationBefore != null && allocationAfter != null) {
+                System.out.printf("%-70s %12.0f -> %12.0f B/op%n", "  allocated", allocationBefore, allocationAfter);
+            }
+        }
+        System.out.println(regressions + " regression(s) above " + Math.round(tolerance * 100) + "%");
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    /**
+     * @return the benchmark results keyed by benchmark name and parameters
+     */
+    private static Map<String, JsonObject> load(Path file) throws IOException {
+        Map<String, JsonObject> out = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            JsonArray results = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : results) {
+                JsonObject result = element.getAsJsonObject();
+                StringBuilder key = new StringBuilder(result.get("benchmark").getAsString());
+                if (result.has("params")) {
+                    result.getAsJsonObject("params").entrySet()
+                            .forEach(param -> key.append(' ').append(param.getKey()).append('=')
+                                    .append(param.getValue().getAsString()));
+                }
+                out.put(key.toString(), result);
+            }
+        }
+        return out;
+    }
+
+    private static double score(JsonObject result) {
+        return result.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+    }
+
+    private static String unit(JsonObject result) {
+        return result.getAsJsonObject("primaryMetric").get("scoreUnit").getAsString();
+    }
+
+    private static Double allocation(JsonObject result) {
+        if (!result.has("secondaryMetrics")) {
+            return null;
+        }
+        JsonObject secondary = result.getAsJsonObject("secondaryMetrics");
+        if (!secondary.has(ALLOCATION_RATE)) {
+            return null;
+        }
+        return secondary.getAsJsonObject(ALLOCATION_RATE).get("score").getAsDouble();
+    }
+}
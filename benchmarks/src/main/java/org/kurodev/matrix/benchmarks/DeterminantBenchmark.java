@@ -0,0 +1,46 @@
+package org.kurodev.matrix.benchmarks;
+
+import org.kurodev.matrix.Matrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Determinant and inverse cache their factorization on the matrix,
+ * so every invocation works on a fresh copy created outside of the measurement.
+ * For the smallest sizes the per-invocation setup adds noticeable noise.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeterminantBenchmark {
+    @Param({"4", "16", "64", "256", "1024", "2048"})
+    public int size;
+
+    private Matrix original;
+    private Matrix matrix;
+
+    @Setup(Level.Trial)
+    public void createMatrix() {
+        original = Matrix.of(size, new Random(123456789));
+    }
+
+    @Setup(Level.Invocation)
+    public void copyMatrix() {
+        matrix = original.copy(true);
+    }
+
+    @Benchmark
+    public double getDeterminant() {
+        return matrix.getDeterminant();
+    }
+
+    @Benchmark
+    public Matrix inverse() {
+        return matrix.inverse();
+    }
+}
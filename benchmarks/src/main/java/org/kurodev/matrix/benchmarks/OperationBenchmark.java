@@ -0,0 +1,52 @@
+package org.kurodev.matrix.benchmarks;
+
+import org.kurodev.matrix.ExecutionStrategy;
+import org.kurodev.matrix.Matrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix operations which do not cache any results on the input matrices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationBenchmark {
+    @Param({"4", "16", "64", "256", "1024", "2048"})
+    public int size;
+
+    private Matrix a;
+    private Matrix b;
+
+    @Setup
+    public void setup() {
+        Random rng = new Random(123456789);
+        a = Matrix.of(size, rng);
+        b = Matrix.of(size, rng);
+    }
+
+    @Benchmark
+    public Matrix multiply() {
+        return a.multiply(b);
+    }
+
+    @Benchmark
+    public Matrix multiplySequential() {
+        return a.multiply(b, ExecutionStrategy.sequential());
+    }
+
+    @Benchmark
+    public Matrix add() {
+        return a.add(b);
+    }
+
+    @Benchmark
+    public Matrix transpose() {
+        return a.transpose();
+    }
+}
@@ -0,0 +1,44 @@
+package org.kurodev.matrix.benchmarks;
+
+import org.kurodev.matrix.Matrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"4", "16", "64", "256", "1024", "2048"})
+    public int size;
+
+    private Matrix matrix;
+    private byte[] bytes;
+    private String text;
+
+    @Setup
+    public void setup() {
+        matrix = Matrix.of(size, new Random(123456789));
+        bytes = matrix.toByteArray();
+        text = matrix.toString();
+    }
+
+    @Benchmark
+    public byte[] toByteArray() {
+        return matrix.toByteArray();
+    }
+
+    @Benchmark
+    public Matrix ofBytes() {
+        return Matrix.of(bytes);
+    }
+
+    @Benchmark
+    public Matrix ofString() {
+        return Matrix.of(text);
+    }
+}
@@ -0,0 +1,90 @@
+package org.kurodev.matrix;
+
+/**
+ * The innermost loops of the elementwise operations and the matrix product.
+ * <p>
+ * {@link #INSTANCE} uses the SIMD implementation built by the {@code simd} maven profile
+ * if it is on the classpath and the {@code jdk.incubator.vector} module has been added to the JVM
+ * ({@code --add-modules jdk.incubator.vector}). Otherwise it falls back to plain scalar loops.
+ * Setting the system property {@value #SIMD_PROPERTY} to {@code false} forces the scalar loops.
+ */
+abstract class ArithmeticKernel {
+    static final String SIMD_PROPERTY = "org.kurodev.matrix.simd";
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "org.kurodev.matrix.VectorKernel";
+
+    static final ArithmeticKernel INSTANCE = load();
+
+    private static ArithmeticKernel load() {
+        if (Boolean.parseBoolean(System.getProperty(SIMD_PROPERTY, "true"))
+                && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (ArithmeticKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError ignored) {
+                //not built with the simd profile
+            }
+        }
+        return new ScalarKernel();
+    }
+
+    /**
+     * @return true if this kernel uses SIMD instructions
+     */
+    abstract boolean isVectorized();
+
+    /**
+     * {@code out[i] = a[i] + b[i]}
+     */
+    abstract void add(double[] a, double[] b, double[] out);
+
+    /**
+     * {@code out[i] = a[i] - b[i]}
+     */
+    abstract void subtract(double[] a, double[] b, double[] out);
+
+    /**
+     * {@code out[i] = a[i] * scalar}
+     */
+    abstract void scale(double[] a, double scalar, double[] out);
+
+    /**
+     * {@code y[yOffset + i] += alpha * x[xOffset + i]} for {@code length} values.
+     * The inner loop of {@link MatrixMultiplication} and {@link LUDecomposition}.
+     */
+    abstract void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length);
+
+    static final class ScalarKernel extends ArithmeticKernel {
+        @Override
+        boolean isVectorized() {
+            return false;
+        }
+
+        @Override
+        void add(double[] a, double[] b, double[] out) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = a[i] + b[i];
+            }
+        }
+
+        @Override
+        void subtract(double[] a, double[] b, double[] out) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = a[i] - b[i];
+            }
+        }
+
+        @Override
+        void scale(double[] a, double scalar, double[] out) {
+            for (int i = 0; i < out.length; i++) {
+                out[i] = a[i] * scalar;
+            }
+        }
+
+        @Override
+        void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+            for (int i = 0; i < length; i++) {
+                y[yOffset + i] += alpha * x[xOffset + i];
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.kurodev.matrix;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the payload written by a {@link BlockOutput}, verifying its checksum at the end.
+ */
+final class BlockInput implements AutoCloseable {
+    private static final int INITIAL_VALUES = 8192;
+
+    private final DataInputStream in;
+    /**
+     * One block, plus the few bytes left over from the previous one.
+     */
+    private final ByteBuffer block;
+    private final CRC32 checksum;
+    private final Inflater inflater;
+    private final byte[] compressed;
+
+    /**
+     * @param checksum   the checksum which already covers the header, every uncompressed block is added to it
+     * @param compressed whether the blocks have been compressed with {@link java.util.zip.Deflater}
+     */
+    BlockInput(InputStream in, ByteOrder order, CRC32 checksum, boolean compressed) {
+        this.in = new DataInputStream(in);
+        this.block = ByteBuffer.allocate(BlockOutput.BLOCK_BYTES + Long.BYTES).order(order).limit(0);
+        this.checksum = checksum;
+        this.inflater = compressed ? new Inflater() : null;
+        this.compressed = compressed ? new byte[BlockOutput.BLOCK_BYTES] : null;
+    }
+
+    int getInt() throws IOException {
+        requireRemaining(Integer.BYTES);
+        return block.getInt();
+    }
+
+    void getInts(int[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            requireRemaining(Integer.BYTES);
+            int count = Math.min(length, block.remaining() / Integer.BYTES);
+            block.asIntBuffer().get(values, offset, count);
+            block.position(block.position() + count * Integer.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void getLongs(long[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            requireRemaining(Long.BYTES);
+            int count = Math.min(length, block.remaining() / Long.BYTES);
+            block.asLongBuffer().get(values, offset, count);
+            block.position(block.position() + count * Long.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void getFloats(float[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            requireRemaining(Float.BYTES);
+            int count = Math.min(length, block.remaining() / Float.BYTES);
+            block.asFloatBuffer().get(values, offset, count);
+            block.position(block.position() + count * Float.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void getDoubles(double[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            requireRemaining(Double.BYTES);
+            int count = Math.min(length, block.remaining() / Double.BYTES);
+            block.asDoubleBuffer().get(values, offset, count);
+            block.position(block.position() + count * Double.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /*
+     * The counts of a container come from its unverified header. Arrays for them start small and grow while the
+     * values arrive, so a few bytes claiming a huge matrix fail with an EOFException instead of allocating it.
+     */
+
+    int[] getInts(int count) throws IOException {
+        return get(count, int[]::new, this::getInts);
+    }
+
+    long[] getLongs(int count) throws IOException {
+        return get(count, long[]::new, this::getLongs);
+    }
+
+    float[] getFloats(int count) throws IOException {
+        return get(count, float[]::new, this::getFloats);
+    }
+
+    double[] getDoubles(int count) throws IOException {
+        return get(count, double[]::new, this::getDoubles);
+    }
+
+    private static <A> A get(int count, IntFunction<A> allocate, ValueReader<A> reader) throws IOException {
+        A values = allocate.apply(Math.min(count, INITIAL_VALUES));
+        int read = 0;
+        while (read < count) {
+            int capacity = Array.getLength(values);
+            if (read == capacity) {
+                capacity = (int) Math.min(count, 2L * capacity);
+                A grown = allocate.apply(capacity);
+                System.arraycopy(values, 0, grown, 0, read);
+                values = grown;
+            }
+            reader.read(values, read, capacity - read);
+            read = capacity;
+        }
+        return values;
+    }
+
+    private void requireRemaining(int bytes) throws IOException {
+        if (block.remaining() >= bytes) {
+            return;
+        }
+        block.compact();
+        if (!readBlock()) {
+            throw new EOFException("The payload ended before all values have been read");
+        }
+        block.flip();
+        if (block.remaining() < bytes) {
+            throw new IOException("Block of " + block.remaining() + " bytes is too short for the next value");
+        }
+    }
+
+    /**
+     * Appends the next block at the position of the buffer.
+     *
+     * @return false if the payload has ended
+     */
+    private boolean readBlock() throws IOException {
+        int length = in.readInt();
+        int stored = in.readInt();
+        if (length == 0 && stored == 0) {
+            return false;
+        }
+        if (length < 1 || length > BlockOutput.BLOCK_BYTES || stored < 1 || stored > length) {
+            throw new IOException("Invalid block of " + stored + " bytes with " + length + " bytes uncompressed");
+        }
+        byte[] bytes = block.array();
+        int position = block.position();
+        if (stored == length) {
+            in.readFully(bytes, position, length);
+        } else if (inflater == null) {
+            throw new ZipException("Compressed block in an uncompressed payload");
+        } else {
+            in.readFully(compressed, 0, stored);
+            inflate(stored, bytes, position, length);
+        }
+        checksum.update(bytes, position, length);
+        block.position(position + length);
+        return true;
+    }
+
+    private void inflate(int stored, byte[] out, int offset, int length) throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed, 0, stored);
+        try {
+            int inflated = 0;
+            while (inflated < length && !inflater.finished()) {
+                int count = inflater.inflate(out, offset + inflated, length - inflated);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            if (inflated != length || !inflater.finished()) {
+                throw new ZipException("Block inflated to " + inflated + " bytes instead of " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the end of the payload and verifies the checksum. Does not close the stream.
+     *
+     * @throws IOException if there are values left or the checksum does not match
+     */
+    void finish() throws IOException {
+        if (block.hasRemaining()) {
+            throw new IOException("The payload contains more values than expected");
+        }
+        block.clear();
+        if (readBlock()) {
+            throw new IOException("The payload contains more values than expected");
+        }
+        int expected = in.readInt();
+        if (expected != (int) checksum.getValue()) {
+            throw new IOException("Checksum mismatch, the data is corrupted");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (inflater != null) {
+            inflater.end();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ValueReader<A> {
+        void read(A values, int offset, int length) throws IOException;
+    }
+}
@@ -0,0 +1,161 @@
+package org.kurodev.matrix;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the payload of a {@link MatrixContainer} in blocks of at most {@link #BLOCK_BYTES} uncompressed bytes.
+ * <p>
+ * Every block is stored as its uncompressed length and its stored length as big-endian ints, followed by the
+ * stored bytes. Blocks that do not get smaller by compressing them are stored uncompressed, which the reader
+ * recognizes by both lengths being equal. An empty block ends the payload, followed by the CRC32 of everything
+ * that has been added to the checksum, as a big-endian int.
+ * <p>
+ * Values never span two blocks, so a block may end a few bytes early.
+ *
+ * @see BlockInput
+ */
+final class BlockOutput implements AutoCloseable {
+    static final int BLOCK_BYTES = 1 << 16;
+
+    private final DataOutputStream out;
+    private final ByteBuffer block;
+    private final CRC32 checksum;
+    private final Deflater deflater;
+    private final byte[] compressed;
+
+    /**
+     * @param checksum the checksum which already covers the header, every uncompressed block is added to it
+     * @param compress whether the blocks are compressed with {@link Deflater}
+     */
+    BlockOutput(OutputStream out, ByteOrder order, CRC32 checksum, boolean compress) {
+        this.out = new DataOutputStream(out);
+        this.block = ByteBuffer.allocate(BLOCK_BYTES).order(order);
+        this.checksum = checksum;
+        this.deflater = compress ? new Deflater() : null;
+        this.compressed = compress ? new byte[BLOCK_BYTES] : null;
+    }
+
+    void putInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        block.putInt(value);
+    }
+
+    void putInts(int[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            int count = Math.min(length, block.remaining() / Integer.BYTES);
+            if (count == 0) {
+                writeBlock();
+                continue;
+            }
+            block.asIntBuffer().put(values, offset, count);
+            block.position(block.position() + count * Integer.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void putLongs(long[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            int count = Math.min(length, block.remaining() / Long.BYTES);
+            if (count == 0) {
+                writeBlock();
+                continue;
+            }
+            block.asLongBuffer().put(values, offset, count);
+            block.position(block.position() + count * Long.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void putFloats(float[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            int count = Math.min(length, block.remaining() / Float.BYTES);
+            if (count == 0) {
+                writeBlock();
+                continue;
+            }
+            block.asFloatBuffer().put(values, offset, count);
+            block.position(block.position() + count * Float.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    void putDoubles(double[] values, int offset, int length) throws IOException {
+        while (length > 0) {
+            int count = Math.min(length, block.remaining() / Double.BYTES);
+            if (count == 0) {
+                writeBlock();
+                continue;
+            }
+            block.asDoubleBuffer().put(values, offset, count);
+            block.position(block.position() + count * Double.BYTES);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (block.remaining() < bytes) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        int length = block.position();
+        if (length == 0) {
+            return;
+        }
+        byte[] bytes = block.array();
+        checksum.update(bytes, 0, length);
+        out.writeInt(length);
+        int stored = deflater == null ? length : deflate(bytes, length);
+        if (stored < length) {
+            out.writeInt(stored);
+            out.write(compressed, 0, stored);
+        } else {
+            out.writeInt(length);
+            out.write(bytes, 0, length);
+        }
+        block.clear();
+    }
+
+    /**
+     * @return the compressed length, or {@code length} if compressing does not make the block smaller
+     */
+    private int deflate(byte[] bytes, int length) {
+        deflater.reset();
+        deflater.setInput(bytes, 0, length);
+        deflater.finish();
+        int stored = 0;
+        while (!deflater.finished() && stored < length) {
+            stored += deflater.deflate(compressed, stored, length - stored);
+        }
+        return deflater.finished() ? stored : length;
+    }
+
+    /**
+     * Writes the last block, the end of the payload and the checksum. Does not close the stream.
+     */
+    void finish() throws IOException {
+        writeBlock();
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt((int) checksum.getValue());
+        out.flush();
+    }
+
+    @Override
+    public void close() {
+        if (deflater != null) {
+            deflater.end();
+        }
+    }
+}
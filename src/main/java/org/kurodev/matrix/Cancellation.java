@@ -0,0 +1,86 @@
+package org.kurodev.matrix;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Cooperative cancellation of the computations started by the asynchronous methods of {@link Matrix}.
+ * <p>
+ * The long running loops call {@link #check()} between their steps (a column of the LU decomposition,
+ * a row block of a product, a level of a cofactor expansion). Once the future of the computation is completed
+ * from the outside, for example by {@link CompletableFuture#cancel(boolean)}, the next check aborts
+ * the computation with a {@link CancellationException}.
+ * Fork/join tasks capture the cancellation of the thread creating them, so their checks see it as well.
+ */
+final class Cancellation {
+    private static final ThreadLocal<Cancellation> CURRENT = new ThreadLocal<>();
+
+    private final CompletableFuture<?> future;
+
+    private Cancellation(CompletableFuture<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * @return the cancellation of the computation running on this thread, {@code null} if it can not be cancelled
+     */
+    static Cancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @throws CancellationException if the computation running on this thread has been cancelled
+     */
+    static void check() {
+        Cancellation cancellation = CURRENT.get();
+        if (cancellation != null && cancellation.future.isDone()) {
+            throw new CancellationException("Matrix computation has been cancelled");
+        }
+    }
+
+    /**
+     * Runs the action on this thread as part of the given computation.
+     */
+    static void run(Cancellation cancellation, Runnable action) {
+        Cancellation previous = CURRENT.get();
+        if (previous == cancellation) {
+            action.run();
+            return;
+        }
+        CURRENT.set(cancellation);
+        try {
+            action.run();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Like {@link CompletableFuture#supplyAsync(Supplier, Executor)}, but completing the returned future
+     * from the outside stops the computation at its next {@link #check()}.
+     */
+    static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier, Executor executor) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Cancellation cancellation = new Cancellation(future);
+        Runnable task = () -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                run(cancellation, () -> future.complete(supplier.get()));
+            } catch (CancellationException e) {
+                future.cancel(false);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,148 @@
+package org.kurodev.matrix;
+
+/**
+ * Exact cofactor expansion with memoized minors.
+ * <p>
+ * The determinant of the first {@code k} rows restricted to a set of {@code k} columns is stored at the index
+ * given by the bitmask of those columns, the determinants of the last {@code k} rows likewise in a second table.
+ * Every entry is expanded from the entries one row smaller, so each column set is computed once:
+ * O(n * 2^n) instead of the O(n!) of expanding every minor recursively.
+ * The generalized Laplace expansion combines both tables into the determinant or into all cofactors at once.
+ * <p>
+ * The results are still sums of products of the original values, which keeps them exact for small integer matrices.
+ */
+final class CofactorExpansion {
+    /**
+     * Largest supported size, the two tables take {@code 2^n} values each.
+     */
+    static final int MAX_SIZE = 24;
+
+    private CofactorExpansion() {
+    }
+
+    /**
+     * @param values row-major values of a {@code size x size} matrix
+     * @throws IllegalArgumentException if the matrix is larger than {@link #MAX_SIZE}
+     */
+    static double determinant(double[] values, int size, ExecutionStrategy strategy) {
+        checkSize(size);
+        //splitting the rows in half only needs the small column sets of both tables
+        int half = size / 2;
+        double[][] tables = tables(values, size, half, size - half, strategy);
+        double[] top = tables[0];
+        double[] bottom = tables[1];
+        int all = (1 << size) - 1;
+        int rowSign = half * (half - 1) / 2;
+        double result = 0;
+        for (int columns = 0; columns <= all; columns++) {
+            if (Integer.bitCount(columns) == half) {
+                double term = top[columns] * bottom[all ^ columns];
+                result += ((rowSign + indexSum(columns)) & 1) == 0 ? term : -term;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param values row-major values of a {@code size x size} matrix
+     * @return the signed cofactors, the one of row {@code y} and column {@code x} at {@code y * size + x}
+     * @throws IllegalArgumentException if the matrix is larger than {@link #MAX_SIZE}
+     */
+    static double[] cofactors(double[] values, int size, ExecutionStrategy strategy) {
+        checkSize(size);
+        double[][] tables = tables(values, size, size - 1, size - 1, strategy);
+        double[] out = new double[size * size];
+        Runnable[] tasks = new Runnable[size];
+        for (int x = 0; x < size; x++) {
+            int column = x;
+            tasks[x] = () -> cofactorColumn(tables[0], tables[1], size, column, out);
+        }
+        run(tasks, (long) size << (size - 1), strategy);
+        return out;
+    }
+
+    private static void checkSize(int size) {
+        if (size > MAX_SIZE) {
+            throw new IllegalArgumentException("The cofactor expansion supports at most " + MAX_SIZE + "x"
+                    + MAX_SIZE + " matrices but got " + size + "x" + size);
+        }
+    }
+
+    /**
+     * Writes the cofactors of every row in the given column. Removing row {@code k} and the column leaves
+     * the first {@code k} rows on top of the last {@code size - 1 - k} rows, so every subset {@code p} of the
+     * remaining columns contributes {@code top[p] * bottom[rest - p]} to the cofactor of row {@code bitCount(p)}.
+     */
+    private static void cofactorColumn(double[] top, double[] bottom, int size, int column, double[] out) {
+        Cancellation.check();
+        int rest = ((1 << size) - 1) & ~(1 << column);
+        for (int columns = rest; ; columns = (columns - 1) & rest) {
+            int row = Integer.bitCount(columns);
+            //positions within the remaining columns, which are shifted left behind the removed one
+            int positions = indexSum(columns) - Integer.bitCount(columns >>> (column + 1));
+            int sign = row * (row - 1) / 2 + positions + row + column;
+            double term = top[columns] * bottom[rest ^ columns];
+            out[row * size + column] += (sign & 1) == 0 ? term : -term;
+            if (columns == 0) {
+                break;
+            }
+        }
+    }
+
+    private static double[][] tables(double[] values, int size, int topRows, int bottomRows,
+                                     ExecutionStrategy strategy) {
+        double[] top = new double[1 << size];
+        double[] bottom = new double[1 << size];
+        run(new Runnable[]{
+                () -> expand(values, size, topRows, true, top),
+                () -> expand(values, size, bottomRows, false, bottom)
+        }, (long) size << size, strategy);
+        return new double[][]{top, bottom};
+    }
+
+    /**
+     * Fills the table of the first (or last) rows for every column set of at most {@code rows} columns,
+     * expanding each along its last (or first) row.
+     */
+    private static void expand(double[] values, int size, int rows, boolean fromTop, double[] minors) {
+        minors[0] = 1;
+        int sets = 1 << size;
+        for (int columns = 1; columns < sets; columns++) {
+            if ((columns & 0xFFFF) == 0) {
+                Cancellation.check();
+            }
+            int count = Integer.bitCount(columns);
+            if (count > rows) {
+                continue;
+            }
+            int row = (fromTop ? count - 1 : size - count) * size;
+            double sum = 0;
+            int index = 0;
+            for (int remaining = columns; remaining != 0; remaining &= remaining - 1, index++) {
+                int column = Integer.numberOfTrailingZeros(remaining);
+                double term = values[row + column] * minors[columns ^ (1 << column)];
+                sum += (index & 1) == 0 ? term : -term;
+            }
+            //the last row of the top block has index count - 1
+            minors[columns] = fromTop && (count & 1) == 0 ? -sum : sum;
+        }
+    }
+
+    private static int indexSum(int columns) {
+        int sum = 0;
+        for (int remaining = columns; remaining != 0; remaining &= remaining - 1) {
+            sum += Integer.numberOfTrailingZeros(remaining);
+        }
+        return sum;
+    }
+
+    private static void run(Runnable[] tasks, long work, ExecutionStrategy strategy) {
+        if (strategy.isParallel() && work > Matrix.getParallelThreshold()) {
+            strategy.invokeAll(tasks);
+        } else {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.kurodev.matrix;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Enum containing the different algorithms to compute the determinant of a square matrix.
+ * The caller is responsible for making sure the matrix is square.
+ *
+ * @see #LU_DECOMPOSITION
+ * @see #LAPLACE_EXPANSION
+ * @see Matrix#getDeterminant(DeterminantMethod)
+ * @see Matrix#getDeterminant(DeterminantMethod, ExecutionStrategy)
+ */
+public enum DeterminantMethod implements ToDoubleFunction<Matrix> {
+    /**
+     * Gaussian elimination with partial pivoting, runs in O(n³).
+     * Used by default for every matrix larger than {@link Matrix#EXPANSION_LIMIT}.
+     * The factorization is kept by the matrix and reused by {@link Matrix#inverse()}.
+     * Subject to the usual floating point rounding of the elimination steps.
+     */
+    LU_DECOMPOSITION {
+        @Override
+        double apply(Matrix matrix, ExecutionStrategy strategy) {
+            return matrix.decompose().getDeterminant();
+        }
+    },
+
+    /**
+     * Cofactor expansion, runs in O(n * 2^n).
+     * Only sums up products of the original values, which makes the result exact for small integer matrices.
+     * <p>
+     * The determinant of every square part of the matrix is computed once and shared by all larger parts
+     * containing it, instead of expanding the same minors over and over.
+     * Needs {@code 2^(n+4)} bytes of memory, so only use this for small matrices. At most 24x24 are supported.
+     * Matrices whose {@code n * 2^n} exceeds the {@link Matrix#getParallelThreshold() parallel threshold}
+     * are expanded in 2 tasks of the {@link ExecutionStrategy}.
+     */
+    LAPLACE_EXPANSION {
+        @Override
+        double apply(Matrix matrix, ExecutionStrategy strategy) {
+            int size = matrix.getWidth();
+            if (size == 1) {
+                return matrix.get(0, 0);
+            }
+            if (size == 2) {
+                return (matrix.get(0, 0) * matrix.get(1, 1)) - (matrix.get(1, 0) * matrix.get(0, 1));
+            }
+            return CofactorExpansion.determinant(matrix.values(), size, strategy);
+        }
+    };
+
+    /**
+     * Computes the determinant, running parallel parts with the {@link Matrix#getExecutionStrategy() default strategy}.
+     */
+    @Override
+    public double applyAsDouble(Matrix matrix) {
+        return apply(matrix, ExecutionStrategy.getDefault());
+    }
+
+    abstract double apply(Matrix matrix, ExecutionStrategy strategy);
+}
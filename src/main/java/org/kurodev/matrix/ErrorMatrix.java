@@ -1,5 +1,10 @@
 package org.kurodev.matrix;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * A Matrix indicating an invalid or impossible calculation.
  * Will always have an error message in {@link #toString()} and {@link #toString(int)}
@@ -29,6 +34,76 @@ public class ErrorMatrix extends Matrix {
 
     }
 
+    @Override
+    public Matrix multiply(Matrix other, ExecutionStrategy strategy) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public MutableMatrix multiplyInto(Matrix other, MutableMatrix dest) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public MatrixExpression lazy() {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public Matrix transposedView() {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public Matrix rowView(int y) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public Matrix columnView(int x) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public Matrix subMatrixView(int x, int y, int width, int height) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public Matrix minorView(int excludedX, int excludedY) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public CompletableFuture<Double> determinantAsync() {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public CompletableFuture<Double> determinantAsync(Executor executor) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public CompletableFuture<Matrix> inverseAsync() {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public CompletableFuture<Matrix> inverseAsync(Executor executor) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public CompletableFuture<Matrix> multiplyAsync(Matrix other) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public CompletableFuture<Matrix> multiplyAsync(Matrix other, Executor executor) {
+        throw new UnsupportedOperationException(message);
+    }
+
     @Override
     public Matrix copy(boolean includeValues) {
         throw new UnsupportedOperationException(message);
@@ -41,12 +116,27 @@ public class ErrorMatrix extends Matrix {
 
     }
 
+    @Override
+    public MutableMatrix transposeInto(TranspositionType type, MutableMatrix dest) {
+        throw new UnsupportedOperationException(message);
+    }
+
     @Override
     public double getDeterminant() {
         throw new UnsupportedOperationException(message);
 
     }
 
+    @Override
+    public double getDeterminant(DeterminantMethod method) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public double getDeterminant(DeterminantMethod method, ExecutionStrategy strategy) {
+        throw new UnsupportedOperationException(message);
+    }
+
     @Override
     public Matrix getMinor(int excludedX) {
         throw new UnsupportedOperationException(message);
@@ -81,6 +171,11 @@ public class ErrorMatrix extends Matrix {
 
     }
 
+    @Override
+    public Matrix inverse(DeterminantMethod method) {
+        throw new UnsupportedOperationException(message);
+    }
+
     @Override
     public boolean equals(Object o) {
         throw new UnsupportedOperationException(message);
@@ -122,11 +217,36 @@ public class ErrorMatrix extends Matrix {
         throw new UnsupportedOperationException(message);
     }
 
+    @Override
+    public byte[] toByteArray() {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public void writeTo(ByteBuffer buffer) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public void writeTo(Path file) {
+        throw new UnsupportedOperationException(message);
+    }
+
     @Override
     public Matrix subtract(Matrix value) {
         throw new UnsupportedOperationException(message);
     }
 
+    @Override
+    public double getAsDouble(int x, int y) {
+        throw new UnsupportedOperationException(message);
+    }
+
+    @Override
+    public Matrix toMatrix() {
+        throw new UnsupportedOperationException(message);
+    }
+
     /**
      * @return the original matrix that created this instance
      */
@@ -0,0 +1,299 @@
+package org.kurodev.matrix;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Decides where the parallel parts of a calculation run: the products of {@link Matrix#multiply(Matrix)},
+ * the tables of the {@link DeterminantMethod#LAPLACE_EXPANSION cofactor expansion}
+ * and the asynchronous methods like {@link Matrix#determinantAsync()}.
+ * <p>
+ * Work below the {@link Matrix#getParallelThreshold() parallel threshold} always stays on the calling thread.
+ * The strategy used by default is set with {@link Matrix#setExecutionStrategy(ExecutionStrategy)},
+ * single calls can pass their own, for example to {@link Matrix#multiply(Matrix, ExecutionStrategy)}.
+ *
+ * @see #commonPool()
+ * @see #forkJoin(ForkJoinPool)
+ * @see #dedicatedPool(int)
+ * @see #virtualThreads()
+ * @see #threadPerTask(ThreadFactory)
+ * @see #sequential()
+ */
+public abstract class ExecutionStrategy implements AutoCloseable {
+    private static final ExecutionStrategy COMMON_POOL = new ForkJoinStrategy(ForkJoinPool.commonPool(), false);
+    private static final ExecutionStrategy SEQUENTIAL = new SequentialStrategy();
+    /**
+     * Factory of {@code Thread.ofVirtual()}, {@code null} on runtimes without virtual threads.
+     */
+    private static final ThreadFactory VIRTUAL_THREADS = virtualThreadFactory();
+
+    private static volatile ExecutionStrategy defaultStrategy = COMMON_POOL;
+
+    ExecutionStrategy() {
+    }
+
+    /**
+     * Runs the tasks in the {@link ForkJoinPool#commonPool() common pool}. This is the default.
+     */
+    public static ExecutionStrategy commonPool() {
+        return COMMON_POOL;
+    }
+
+    /**
+     * Runs every task on the calling thread, one after another.
+     */
+    public static ExecutionStrategy sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Runs the tasks in the given pool. The pool is not shut down by {@link #close()}.
+     *
+     * @param pool the pool to run the tasks in
+     */
+    public static ExecutionStrategy forkJoin(ForkJoinPool pool) {
+        return new ForkJoinStrategy(Objects.requireNonNull(pool), false);
+    }
+
+    /**
+     * Runs the tasks in a new pool of at most {@code parallelism} daemon threads,
+     * so calculations do not compete with the rest of the application for the common pool.
+     * {@link #close()} shuts the pool down.
+     *
+     * @param parallelism the number of threads of the pool
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public static ExecutionStrategy dedicatedPool(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive but was " + parallelism);
+        }
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setDaemon(true);
+            thread.setName("matrix-worker-" + thread.getPoolIndex());
+            return thread;
+        };
+        return new ForkJoinStrategy(new ForkJoinPool(parallelism, factory, null, false), true);
+    }
+
+    /**
+     * Starts a new virtual thread per task. Waiting for the tasks does not block a platform thread,
+     * so nested calculations can not starve each other.
+     *
+     * @throws UnsupportedOperationException if the runtime does not support virtual threads (before Java 21)
+     * @see #isVirtualThreadsSupported()
+     */
+    public static ExecutionStrategy virtualThreads() {
+        if (VIRTUAL_THREADS == null) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by Java "
+                    + Runtime.version().feature());
+        }
+        return new ThreadPerTaskStrategy(VIRTUAL_THREADS);
+    }
+
+    /**
+     * @return true if {@link #virtualThreads()} can be used on this runtime
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    /**
+     * Starts a new thread of the given factory per task.
+     *
+     * @param factory the factory creating the threads
+     */
+    public static ExecutionStrategy threadPerTask(ThreadFactory factory) {
+        return new ThreadPerTaskStrategy(Objects.requireNonNull(factory));
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //either missing or a preview feature that has not been enabled
+            return null;
+        }
+    }
+
+    static ExecutionStrategy getDefault() {
+        return defaultStrategy;
+    }
+
+    static void setDefault(ExecutionStrategy strategy) {
+        defaultStrategy = Objects.requireNonNull(strategy);
+    }
+
+    /**
+     * @return the executor used by the asynchronous methods of {@link Matrix}
+     */
+    public abstract Executor executor();
+
+    /**
+     * @return false if every task runs on the calling thread anyway, so splitting up the work is pointless
+     */
+    boolean isParallel() {
+        return true;
+    }
+
+    /**
+     * Runs all tasks and waits for them to finish. The tasks are part of the {@link Cancellation}
+     * of the calling thread. The first exception thrown by a task is rethrown.
+     */
+    final void invokeAll(Runnable... tasks) {
+        Cancellation cancellation = Cancellation.current();
+        Runnable[] wrapped = new Runnable[tasks.length];
+        for (int i = 0; i < tasks.length; i++) {
+            Runnable task = tasks[i];
+            wrapped[i] = () -> Cancellation.run(cancellation, task);
+        }
+        run(wrapped);
+    }
+
+    abstract void run(Runnable[] tasks);
+
+    /**
+     * Releases the threads owned by this strategy. Does nothing for strategies that do not own any.
+     */
+    @Override
+    public void close() {
+    }
+
+    private static final class SequentialStrategy extends ExecutionStrategy {
+        @Override
+        public Executor executor() {
+            return Runnable::run;
+        }
+
+        @Override
+        boolean isParallel() {
+            return false;
+        }
+
+        @Override
+        void run(Runnable[] tasks) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "sequential";
+        }
+    }
+
+    private static final class ForkJoinStrategy extends ExecutionStrategy {
+        private final ForkJoinPool pool;
+        private final boolean owned;
+
+        private ForkJoinStrategy(ForkJoinPool pool, boolean owned) {
+            this.pool = pool;
+            this.owned = owned;
+        }
+
+        @Override
+        public Executor executor() {
+            return pool;
+        }
+
+        @Override
+        void run(Runnable[] tasks) {
+            ForkJoinTask<?>[] forks = new ForkJoinTask<?>[tasks.length];
+            for (int i = 0; i < tasks.length; i++) {
+                forks[i] = ForkJoinTask.adapt(tasks[i]);
+            }
+            if (ForkJoinTask.getPool() == pool) {
+                //already a worker of the pool, joining steals work instead of blocking
+                ForkJoinTask.invokeAll(forks);
+            } else {
+                pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(forks)));
+            }
+        }
+
+        @Override
+        public void close() {
+            if (owned) {
+                pool.shutdown();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return pool == ForkJoinPool.commonPool() ? "common pool" : "fork/join " + pool;
+        }
+    }
+
+    private static final class ThreadPerTaskStrategy extends ExecutionStrategy {
+        private final ThreadFactory factory;
+
+        private ThreadPerTaskStrategy(ThreadFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        public Executor executor() {
+            return task -> factory.newThread(task).start();
+        }
+
+        @Override
+        void run(Runnable[] tasks) {
+            if (tasks.length == 0) {
+                return;
+            }
+            Throwable[] failures = new Throwable[tasks.length];
+            Thread[] threads = new Thread[tasks.length];
+            for (int i = 1; i < tasks.length; i++) {
+                int index = i;
+                threads[i] = factory.newThread(() -> {
+                    try {
+                        tasks[index].run();
+                    } catch (Throwable e) {
+                        failures[index] = e;
+                    }
+                });
+                threads[i].start();
+            }
+            //the calling thread would only wait otherwise
+            try {
+                tasks[0].run();
+            } catch (Throwable e) {
+                failures[0] = e;
+            }
+            boolean interrupted = false;
+            for (int i = 1; i < tasks.length; i++) {
+                //the tasks write into shared arrays, so they have to finish before this returns
+                while (true) {
+                    try {
+                        threads[i].join();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            for (Throwable failure : failures) {
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                } else if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "thread per task";
+        }
+    }
+}
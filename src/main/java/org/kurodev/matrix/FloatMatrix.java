@@ -0,0 +1,237 @@
+package org.kurodev.matrix;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An immutable matrix of {@code float} values, for workloads that do not need double precision
+ * and benefit from half the memory and bandwidth of a {@link Matrix}.
+ * <p>
+ * Values are stored in a flat row-major {@code float[]}, every operation works on primitive values only.
+ * Unlike {@link Matrix}, operations on matrices of mismatching dimensions throw an {@link IllegalArgumentException}.
+ *
+ * @see #of(NumericMatrix)
+ * @see #toMatrix()
+ */
+public final class FloatMatrix extends PrimitiveMatrix<FloatMatrix, float[]> {
+
+    FloatMatrix(int width, int height, float[] data) {
+        super(width, height, data);
+    }
+
+    /**
+     * @return a matrix filled with zeros
+     */
+    public static FloatMatrix of(int width, int height) {
+        return new FloatMatrix(width, height, new float[width * height]);
+    }
+
+    /**
+     * @param rows the rows of the matrix, which are copied
+     * @throws IllegalArgumentException if the rows differ in length
+     */
+    public static FloatMatrix of(float[][] rows) {
+        return fromRows(rows, float[]::new, FloatMatrix::new);
+    }
+
+    /**
+     * @param values all values in row-major order, which are copied
+     * @throws IllegalArgumentException if there are not exactly {@code width * height} values
+     */
+    public static FloatMatrix of(int width, int height, float[] values) {
+        checkLength(width, height, values.length);
+        return new FloatMatrix(width, height, values.clone());
+    }
+
+    /**
+     * Converts any other matrix, rounding its values to the nearest float.
+     */
+    public static FloatMatrix of(NumericMatrix<?> matrix) {
+        if (matrix instanceof FloatMatrix) {
+            return (FloatMatrix) matrix;
+        }
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        float[] values = new float[width * height];
+        if (matrix instanceof Matrix) {
+            double[] source = ((Matrix) matrix).values();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (float) source[i];
+            }
+        } else {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    values[y * width + x] = (float) matrix.getAsDouble(x, y);
+                }
+            }
+        }
+        return new FloatMatrix(width, height, values);
+    }
+
+    /**
+     * Deserializes the format of {@link #toByteArray()}.
+     *
+     * @throws IllegalArgumentException if the data is too short
+     */
+    public static FloatMatrix of(byte[] data) {
+        return fromBytes(data, Float.BYTES, (width, height, in) -> {
+            float[] values = new float[width * height];
+            in.asFloatBuffer().get(values);
+            return new FloatMatrix(width, height, values);
+        });
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the position is outside of the matrix
+     */
+    public float get(int x, int y) {
+        return data[index(x, y)];
+    }
+
+    @Override
+    public double getAsDouble(int x, int y) {
+        return get(x, y);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    @Override
+    public FloatMatrix add(FloatMatrix other) {
+        checkDimensions(other);
+        float[] a = data;
+        float[] b = other.data;
+        float[] out = new float[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] + b[i];
+        }
+        return new FloatMatrix(width, height, out);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    @Override
+    public FloatMatrix subtract(FloatMatrix other) {
+        checkDimensions(other);
+        float[] a = data;
+        float[] b = other.data;
+        float[] out = new float[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] - b[i];
+        }
+        return new FloatMatrix(width, height, out);
+    }
+
+    public FloatMatrix multiply(float scalar) {
+        float[] a = data;
+        float[] out = new float[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] * scalar;
+        }
+        return new FloatMatrix(width, height, out);
+    }
+
+    /**
+     * Products larger than the {@link Matrix#getParallelThreshold() parallel threshold} are split into blocks
+     * of rows, run by the {@link Matrix#getExecutionStrategy() execution strategy}.
+     * Sums are accumulated in single precision.
+     *
+     * @throws IllegalArgumentException if {@code this.width != other.height}
+     */
+    @Override
+    public FloatMatrix multiply(FloatMatrix other) {
+        final int inner = width;
+        final int columns = other.width;
+        final float[] a = data;
+        final float[] b = other.data;
+        final float[] c = new float[height * columns];
+        forProductBlocks(other, (fromRow, toRow, fromInner, toInner, fromColumn, toColumn) -> {
+            for (int i = fromRow; i < toRow; i++) {
+                int aRow = i * inner;
+                int cRow = i * columns;
+                for (int k = fromInner; k < toInner; k++) {
+                    float aik = a[aRow + k];
+                    int bRow = k * columns;
+                    for (int j = fromColumn; j < toColumn; j++) {
+                        c[cRow + j] += aik * b[bRow + j];
+                    }
+                }
+            }
+        });
+        return new FloatMatrix(columns, height, c);
+    }
+
+    @Override
+    public FloatMatrix transpose() {
+        final float[] values = data;
+        final float[] out = new float[values.length];
+        forTiles((fromX, toX, fromY, toY) -> {
+            for (int y = fromY; y < toY; y++) {
+                for (int x = fromX; x < toX; x++) {
+                    out[x * height + y] = values[y * width + x];
+                }
+            }
+        });
+        return new FloatMatrix(height, width, out);
+    }
+
+    /**
+     * @return a copy of all values in row-major order
+     */
+    public float[] toArray() {
+        return data.clone();
+    }
+
+    /**
+     * @return the values without copying them, which must not be modified
+     */
+    float[] values() {
+        return data;
+    }
+
+    /**
+     * Serializes the matrix into its width and height as big-endian ints, followed by all values
+     * as big-endian floats in row-major order.
+     *
+     * @see #of(byte[])
+     */
+    @Override
+    public byte[] toByteArray() {
+        ByteBuffer out = header(Float.BYTES);
+        out.asFloatBuffer().put(data);
+        return out.array();
+    }
+
+    @Override
+    public Matrix toMatrix() {
+        float[] source = data;
+        double[] values = new double[source.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = source[i];
+        }
+        return new Matrix(width, height, values);
+    }
+
+    /**
+     * @param delta the allowed difference between two values
+     * @return true if the dimensions match and no values differ by more than the delta
+     */
+    public boolean equals(FloatMatrix other, float delta) {
+        if (width != other.width || height != other.height) {
+            return false;
+        }
+        float[] a = data;
+        float[] b = other.data;
+        for (int i = 0; i < a.length; i++) {
+            if (Float.compare(a[i], b[i]) != 0 && !(Math.abs(a[i] - b[i]) <= delta)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    void appendValue(StringBuilder out, int index) {
+        out.append(data[index]);
+    }
+}
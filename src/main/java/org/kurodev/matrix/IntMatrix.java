@@ -0,0 +1,223 @@
+package org.kurodev.matrix;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An immutable matrix of {@code int} values, for example adjacency or count matrices that should not
+ * round-trip through floating point.
+ * <p>
+ * Values are stored in a flat row-major {@code int[]}, every operation works on primitive values only.
+ * Arithmetic wraps around on overflow like Java's {@code int} arithmetic, use a {@link LongMatrix} for larger values.
+ * Unlike {@link Matrix}, operations on matrices of mismatching dimensions throw an {@link IllegalArgumentException}.
+ *
+ * @see #of(NumericMatrix)
+ * @see #toMatrix()
+ */
+public final class IntMatrix extends PrimitiveMatrix<IntMatrix, int[]> {
+
+    IntMatrix(int width, int height, int[] data) {
+        super(width, height, data);
+    }
+
+    /**
+     * @return a matrix filled with zeros
+     */
+    public static IntMatrix of(int width, int height) {
+        return new IntMatrix(width, height, new int[width * height]);
+    }
+
+    /**
+     * @param rows the rows of the matrix, which are copied
+     * @throws IllegalArgumentException if the rows differ in length
+     */
+    public static IntMatrix of(int[][] rows) {
+        return fromRows(rows, int[]::new, IntMatrix::new);
+    }
+
+    /**
+     * @param values all values in row-major order, which are copied
+     * @throws IllegalArgumentException if there are not exactly {@code width * height} values
+     */
+    public static IntMatrix of(int width, int height, int[] values) {
+        checkLength(width, height, values.length);
+        return new IntMatrix(width, height, values.clone());
+    }
+
+    /**
+     * Converts any other matrix whose values are all whole numbers in the range of an int.
+     *
+     * @throws IllegalArgumentException if a value is not a whole number or out of range
+     */
+    public static IntMatrix of(NumericMatrix<?> matrix) {
+        if (matrix instanceof IntMatrix) {
+            return (IntMatrix) matrix;
+        }
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int[] values = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double value = matrix.getAsDouble(x, y);
+                int converted = (int) value;
+                if (converted != value) {
+                    throw new IllegalArgumentException("Value " + value + " at " + x + "," + y + " is not an int");
+                }
+                values[y * width + x] = converted;
+            }
+        }
+        return new IntMatrix(width, height, values);
+    }
+
+    /**
+     * Deserializes the format of {@link #toByteArray()}.
+     *
+     * @throws IllegalArgumentException if the data is too short
+     */
+    public static IntMatrix of(byte[] data) {
+        return fromBytes(data, Integer.BYTES, (width, height, in) -> {
+            int[] values = new int[width * height];
+            in.asIntBuffer().get(values);
+            return new IntMatrix(width, height, values);
+        });
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the position is outside of the matrix
+     */
+    public int get(int x, int y) {
+        return data[index(x, y)];
+    }
+
+    @Override
+    public double getAsDouble(int x, int y) {
+        return get(x, y);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    @Override
+    public IntMatrix add(IntMatrix other) {
+        checkDimensions(other);
+        int[] a = data;
+        int[] b = other.data;
+        int[] out = new int[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] + b[i];
+        }
+        return new IntMatrix(width, height, out);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    @Override
+    public IntMatrix subtract(IntMatrix other) {
+        checkDimensions(other);
+        int[] a = data;
+        int[] b = other.data;
+        int[] out = new int[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] - b[i];
+        }
+        return new IntMatrix(width, height, out);
+    }
+
+    public IntMatrix multiply(int scalar) {
+        int[] a = data;
+        int[] out = new int[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] * scalar;
+        }
+        return new IntMatrix(width, height, out);
+    }
+
+    /**
+     * Products larger than the {@link Matrix#getParallelThreshold() parallel threshold} are split into blocks
+     * of rows, run by the {@link Matrix#getExecutionStrategy() execution strategy}.
+     * Zeros of this matrix are skipped, which makes sparse adjacency matrices cheap to multiply.
+     *
+     * @throws IllegalArgumentException if {@code this.width != other.height}
+     */
+    @Override
+    public IntMatrix multiply(IntMatrix other) {
+        final int inner = width;
+        final int columns = other.width;
+        final int[] a = data;
+        final int[] b = other.data;
+        final int[] c = new int[height * columns];
+        forProductBlocks(other, (fromRow, toRow, fromInner, toInner, fromColumn, toColumn) -> {
+            for (int i = fromRow; i < toRow; i++) {
+                int aRow = i * inner;
+                int cRow = i * columns;
+                for (int k = fromInner; k < toInner; k++) {
+                    int aik = a[aRow + k];
+                    if (aik == 0) {
+                        continue;
+                    }
+                    int bRow = k * columns;
+                    for (int j = fromColumn; j < toColumn; j++) {
+                        c[cRow + j] += aik * b[bRow + j];
+                    }
+                }
+            }
+        });
+        return new IntMatrix(columns, height, c);
+    }
+
+    @Override
+    public IntMatrix transpose() {
+        final int[] values = data;
+        final int[] out = new int[values.length];
+        forTiles((fromX, toX, fromY, toY) -> {
+            for (int y = fromY; y < toY; y++) {
+                for (int x = fromX; x < toX; x++) {
+                    out[x * height + y] = values[y * width + x];
+                }
+            }
+        });
+        return new IntMatrix(height, width, out);
+    }
+
+    /**
+     * @return a copy of all values in row-major order
+     */
+    public int[] toArray() {
+        return data.clone();
+    }
+
+    /**
+     * @return the values without copying them, which must not be modified
+     */
+    int[] values() {
+        return data;
+    }
+
+    /**
+     * Serializes the matrix into its width and height as big-endian ints, followed by all values
+     * as big-endian ints in row-major order.
+     *
+     * @see #of(byte[])
+     */
+    @Override
+    public byte[] toByteArray() {
+        ByteBuffer out = header(Integer.BYTES);
+        out.asIntBuffer().put(data);
+        return out.array();
+    }
+
+    @Override
+    public Matrix toMatrix() {
+        int[] source = data;
+        double[] values = new double[source.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = source[i];
+        }
+        return new Matrix(width, height, values);
+    }
+
+    @Override
+    void appendValue(StringBuilder out, int index) {
+        out.append(data[index]);
+    }
+}
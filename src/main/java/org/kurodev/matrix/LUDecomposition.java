@@ -0,0 +1,143 @@
+package org.kurodev.matrix;
+
+/**
+ * LU factorization with partial pivoting of a square matrix.
+ * <p>
+ * Decomposes {@code P * A = L * U}, where {@code L} is a unit lower triangular matrix,
+ * {@code U} an upper triangular matrix and {@code P} the row permutation chosen while pivoting.
+ * Both triangles are stored in a single row-major array, the unit diagonal of {@code L} is implicit.
+ * Factorization costs O(n³) as opposed to the O(n * 2^n) of a cofactor expansion.
+ */
+final class LUDecomposition {
+    private final int size;
+    private final double[] lu;
+    private final int[] pivot;
+    private final boolean singular;
+    private final int pivotSign;
+
+    LUDecomposition(Matrix matrix) {
+        if (matrix.getWidth() != matrix.getHeight()) {
+            throw new IllegalArgumentException("Matrix must be square, but is " + matrix.getDimension());
+        }
+        size = matrix.getWidth();
+        lu = matrix.toArray();
+        pivot = new int[size];
+        for (int y = 0; y < size; y++) {
+            pivot[y] = y;
+        }
+        final ArithmeticKernel kernel = ArithmeticKernel.INSTANCE;
+        int sign = 1;
+        boolean isSingular = false;
+        for (int k = 0; k < size; k++) {
+            Cancellation.check();
+            //find the row with the largest absolute value in column k to keep the elimination stable
+            int p = k;
+            double max = Math.abs(lu[k * size + k]);
+            for (int y = k + 1; y < size; y++) {
+                double candidate = Math.abs(lu[y * size + k]);
+                if (candidate > max) {
+                    max = candidate;
+                    p = y;
+                }
+            }
+            if (max == 0) {
+                isSingular = true;
+                continue;
+            }
+            if (p != k) {
+                swapRows(p, k);
+                int tmp = pivot[p];
+                pivot[p] = pivot[k];
+                pivot[k] = tmp;
+                sign = -sign;
+            }
+            final int pivotRow = k * size;
+            final double pivotValue = lu[pivotRow + k];
+            for (int y = k + 1; y < size; y++) {
+                final int row = y * size;
+                final double factor = lu[row + k] / pivotValue;
+                lu[row + k] = factor;
+                if (factor != 0) {
+                    kernel.axpy(-factor, lu, pivotRow + k + 1, lu, row + k + 1, size - k - 1);
+                }
+            }
+        }
+        singular = isSingular;
+        pivotSign = sign;
+    }
+
+    private void swapRows(int a, int b) {
+        int rowA = a * size;
+        int rowB = b * size;
+        for (int x = 0; x < size; x++) {
+            double tmp = lu[rowA + x];
+            lu[rowA + x] = lu[rowB + x];
+            lu[rowB + x] = tmp;
+        }
+    }
+
+    /**
+     * @return true if a zero pivot was encountered, meaning the matrix has no inverse
+     */
+    boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * @return the determinant, computed as the signed product of the diagonal of {@code U}
+     */
+    double getDeterminant() {
+        if (singular) {
+            return 0;
+        }
+        double det = pivotSign;
+        for (int i = 0; i < size; i++) {
+            det *= lu[i * size + i];
+        }
+        return det;
+    }
+
+    /**
+     * Solves {@code A * X = I} by forward and back substitution, processing all columns of {@code X} row by row.
+     *
+     * @return the inverse matrix in row-major order
+     * @throws ArithmeticException if the matrix is singular
+     */
+    double[] inverse() {
+        if (singular) {
+            throw new ArithmeticException("Matrix is singular");
+        }
+        final ArithmeticKernel kernel = ArithmeticKernel.INSTANCE;
+        double[] x = new double[size * size];
+        for (int y = 0; y < size; y++) {
+            x[y * size + pivot[y]] = 1;
+        }
+        //solve L * Y = P
+        for (int k = 0; k < size; k++) {
+            Cancellation.check();
+            int rowK = k * size;
+            for (int y = k + 1; y < size; y++) {
+                double factor = lu[y * size + k];
+                if (factor != 0) {
+                    kernel.axpy(-factor, x, rowK, x, y * size, size);
+                }
+            }
+        }
+        //solve U * X = Y
+        for (int k = size - 1; k >= 0; k--) {
+            Cancellation.check();
+            int rowK = k * size;
+            double diagonal = lu[rowK + k];
+            for (int i = 0; i < size; i++) {
+                x[rowK + i] /= diagonal;
+            }
+            for (int y = 0; y < k; y++) {
+                double factor = lu[y * size + k];
+                if (factor != 0) {
+                    kernel.axpy(-factor, x, rowK, x, y * size, size);
+                }
+            }
+        }
+        return x;
+    }
+}
@@ -0,0 +1,232 @@
+package org.kurodev.matrix;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An immutable matrix of {@code long} values, for integer matrices whose values or products exceed an {@link IntMatrix}.
+ * <p>
+ * Values are stored in a flat row-major {@code long[]}, every operation works on primitive values only.
+ * Arithmetic wraps around on overflow like Java's {@code long} arithmetic.
+ * Unlike {@link Matrix}, operations on matrices of mismatching dimensions throw an {@link IllegalArgumentException}.
+ *
+ * @see #of(NumericMatrix)
+ * @see #toMatrix()
+ */
+public final class LongMatrix extends PrimitiveMatrix<LongMatrix, long[]> {
+
+    LongMatrix(int width, int height, long[] data) {
+        super(width, height, data);
+    }
+
+    /**
+     * @return a matrix filled with zeros
+     */
+    public static LongMatrix of(int width, int height) {
+        return new LongMatrix(width, height, new long[width * height]);
+    }
+
+    /**
+     * @param rows the rows of the matrix, which are copied
+     * @throws IllegalArgumentException if the rows differ in length
+     */
+    public static LongMatrix of(long[][] rows) {
+        return fromRows(rows, long[]::new, LongMatrix::new);
+    }
+
+    /**
+     * @param values all values in row-major order, which are copied
+     * @throws IllegalArgumentException if there are not exactly {@code width * height} values
+     */
+    public static LongMatrix of(int width, int height, long[] values) {
+        checkLength(width, height, values.length);
+        return new LongMatrix(width, height, values.clone());
+    }
+
+    /**
+     * Converts any other matrix whose values are all whole numbers in the range of a long.
+     * Values of an {@link IntMatrix} are widened directly, without going through a double.
+     *
+     * @throws IllegalArgumentException if a value is not a whole number or out of range
+     */
+    public static LongMatrix of(NumericMatrix<?> matrix) {
+        if (matrix instanceof LongMatrix) {
+            return (LongMatrix) matrix;
+        }
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        long[] values = new long[width * height];
+        if (matrix instanceof IntMatrix) {
+            IntMatrix ints = (IntMatrix) matrix;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    values[y * width + x] = ints.get(x, y);
+                }
+            }
+            return new LongMatrix(width, height, values);
+        }
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double value = matrix.getAsDouble(x, y);
+                //2^63 itself would be clamped to Long.MAX_VALUE by the cast
+                if (!(value >= -0x1p63 && value < 0x1p63) || (long) value != value) {
+                    throw new IllegalArgumentException("Value " + value + " at " + x + "," + y + " is not a long");
+                }
+                values[y * width + x] = (long) value;
+            }
+        }
+        return new LongMatrix(width, height, values);
+    }
+
+    /**
+     * Deserializes the format of {@link #toByteArray()}.
+     *
+     * @throws IllegalArgumentException if the data is too short
+     */
+    public static LongMatrix of(byte[] data) {
+        return fromBytes(data, Long.BYTES, (width, height, in) -> {
+            long[] values = new long[width * height];
+            in.asLongBuffer().get(values);
+            return new LongMatrix(width, height, values);
+        });
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the position is outside of the matrix
+     */
+    public long get(int x, int y) {
+        return data[index(x, y)];
+    }
+
+    @Override
+    public double getAsDouble(int x, int y) {
+        return get(x, y);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    @Override
+    public LongMatrix add(LongMatrix other) {
+        checkDimensions(other);
+        long[] a = data;
+        long[] b = other.data;
+        long[] out = new long[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] + b[i];
+        }
+        return new LongMatrix(width, height, out);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    @Override
+    public LongMatrix subtract(LongMatrix other) {
+        checkDimensions(other);
+        long[] a = data;
+        long[] b = other.data;
+        long[] out = new long[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] - b[i];
+        }
+        return new LongMatrix(width, height, out);
+    }
+
+    public LongMatrix multiply(long scalar) {
+        long[] a = data;
+        long[] out = new long[a.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = a[i] * scalar;
+        }
+        return new LongMatrix(width, height, out);
+    }
+
+    /**
+     * Products larger than the {@link Matrix#getParallelThreshold() parallel threshold} are split into blocks
+     * of rows, run by the {@link Matrix#getExecutionStrategy() execution strategy}.
+     * Zeros of this matrix are skipped, which makes sparse adjacency matrices cheap to multiply.
+     *
+     * @throws IllegalArgumentException if {@code this.width != other.height}
+     */
+    @Override
+    public LongMatrix multiply(LongMatrix other) {
+        final int inner = width;
+        final int columns = other.width;
+        final long[] a = data;
+        final long[] b = other.data;
+        final long[] c = new long[height * columns];
+        forProductBlocks(other, (fromRow, toRow, fromInner, toInner, fromColumn, toColumn) -> {
+            for (int i = fromRow; i < toRow; i++) {
+                int aRow = i * inner;
+                int cRow = i * columns;
+                for (int k = fromInner; k < toInner; k++) {
+                    long aik = a[aRow + k];
+                    if (aik == 0) {
+                        continue;
+                    }
+                    int bRow = k * columns;
+                    for (int j = fromColumn; j < toColumn; j++) {
+                        c[cRow + j] += aik * b[bRow + j];
+                    }
+                }
+            }
+        });
+        return new LongMatrix(columns, height, c);
+    }
+
+    @Override
+    public LongMatrix transpose() {
+        final long[] values = data;
+        final long[] out = new long[values.length];
+        forTiles((fromX, toX, fromY, toY) -> {
+            for (int y = fromY; y < toY; y++) {
+                for (int x = fromX; x < toX; x++) {
+                    out[x * height + y] = values[y * width + x];
+                }
+            }
+        });
+        return new LongMatrix(height, width, out);
+    }
+
+    /**
+     * @return a copy of all values in row-major order
+     */
+    public long[] toArray() {
+        return data.clone();
+    }
+
+    /**
+     * @return the values without copying them, which must not be modified
+     */
+    long[] values() {
+        return data;
+    }
+
+    /**
+     * Serializes the matrix into its width and height as big-endian ints, followed by all values
+     * as big-endian longs in row-major order.
+     *
+     * @see #of(byte[])
+     */
+    @Override
+    public byte[] toByteArray() {
+        ByteBuffer out = header(Long.BYTES);
+        out.asLongBuffer().put(data);
+        return out.array();
+    }
+
+    @Override
+    public Matrix toMatrix() {
+        long[] source = data;
+        double[] values = new double[source.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = source[i];
+        }
+        return new Matrix(width, height, values);
+    }
+
+    @Override
+    void appendValue(StringBuilder out, int index) {
+        out.append(data[index]);
+    }
+}
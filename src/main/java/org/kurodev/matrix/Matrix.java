@@ -1,26 +1,76 @@
 package org.kurodev.matrix;
 
+import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.stream.DoubleStream;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
-public class Matrix {
-    private static final Pattern NUMBER_PATTERN = Pattern.compile("(\\d+[.,]\\d+)|\\d+");
+public class Matrix implements NumericMatrix<Matrix> {
+    /**
+     * Largest size for which {@link #getDeterminant()} uses the exact cofactor expansion
+     * instead of the LU decomposition.
+     */
+    public static final int EXPANSION_LIMIT = 3;
+    /**
+     * Size of the width and height header of the binary format.
+     */
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    /**
+     * Number of values transferred per memory mapped region, 1GB each.
+     */
+    private static final int MAX_MAPPED_VALUES = (1 << 30) / Double.BYTES;
+    /**
+     * Largest number of values a single array can hold.
+     */
+    private static final int MAX_VALUES = Integer.MAX_VALUE - 8;
 
     private final int width;
     private final int height;
-    private final double[][] matrix;
-    private Double determinant = null;
+    /**
+     * All values in row-major order, the value at {@code (x, y)} is stored at {@code y * width + x}.
+     * Matrices with a storage that can be replaced, like {@link MutableMatrix}, keep it in a field of their own
+     * and override {@link #values()}.
+     */
+    final double[] data;
+    /**
+     * Only valid while {@link #determinantKnown} is set.
+     */
+    private double determinant;
+    /**
+     * Written after {@link #determinant}, so every thread reading {@code true} also reads the computed value.
+     */
+    private volatile boolean determinantKnown = false;
+    private volatile LUDecomposition decomposition = null;
 
     protected Matrix(int width, int height) {
-        this(width, height, new double[height][width]);
+        this(width, height, new double[width * height]);
     }
 
+    /**
+     * Copies the given rows into the flat storage of this matrix.
+     */
     protected Matrix(int width, int height, double[][] matrix) {
+        this(width, height, new double[width * height]);
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(matrix[y], 0, data, y * width, width);
+        }
+    }
+
+    /**
+     * @param data the values in row-major order. The array is used as is and not copied.
+     */
+    protected Matrix(int width, int height, double[] data) {
         this.width = width;
         this.height = height;
-        this.matrix = matrix;
+        this.data = data;
     }
 
     public static Matrix of(int width, int height) {
@@ -43,11 +93,9 @@ public class Matrix {
      * @return A randomized instance
      */
     public static Matrix of(int width, int height, Random rng) {
-        double[][] dataSet = new double[height][width];
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                dataSet[y][x] = rng.nextDouble();
-            }
+        double[] dataSet = new double[width * height];
+        for (int i = 0; i < dataSet.length; i++) {
+            dataSet[i] = rng.nextDouble();
         }
         return new Matrix(width, height, dataSet);
     }
@@ -79,43 +127,64 @@ public class Matrix {
      *
      * @param matrixData The matrix string representation
      * @return A parsed matrix object
+     * @throws IllegalArgumentException if the rows differ in length or there are no numbers at all
+     * @see #of(Reader)
      */
     public static Matrix of(String matrixData) {
-        List<List<Double>> doubleLines = new ArrayList<>();
-        String[] lines = matrixData.split("[\n]");
-        int height = lines.length;
-        int width = -1;
-        for (String line : lines) {
-            List<Double> lineDataSet = new ArrayList<>();
-            var data = NUMBER_PATTERN.matcher(line);
-            while (data.find()) {
-                String number = data.group();
-                lineDataSet.add(Double.parseDouble(number));
-            }
-            doubleLines.add(lineDataSet);
-            if (width == -1) {
-                width = lineDataSet.size();
-            } else if (width != lineDataSet.size()) {
-                throw new IllegalArgumentException("Matrix has differing line lengths");
-            }
-        }
-        double[][] dataSet = new double[height][width];
-        for (int y = 0; y < doubleLines.size(); y++) {
-            var line = doubleLines.get(y);
-            for (int x = 0; x < line.size(); x++) {
-                dataSet[y][x] = line.get(x);
-            }
+        try {
+            return MatrixParser.parse(new StringReader(matrixData), false);
+        } catch (IOException e) {
+            //a StringReader does not throw
+            throw new UncheckedIOException(e);
         }
-        return of(dataSet);
+    }
+
+    /**
+     * Parses a matrix in the format of {@link #of(String)} without loading the whole text into memory.
+     * Every line is a row, values may be separated by commas or any other characters that are not part of a number.
+     * Numbers may be negative and use exponents like {@code -1.5E-3}, {@code NaN} and {@code -Infinity} are valid too.
+     * Lines without numbers are skipped.
+     *
+     * @param reader The source of the matrix text. Not closed by this method.
+     * @return A parsed matrix object
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if the rows differ in length or there are no numbers at all
+     */
+    public static Matrix of(Reader reader) throws IOException {
+        return MatrixParser.parse(reader, false);
+    }
+
+    /**
+     * Parses a matrix like {@link #of(Reader)}, optionally with decimal commas.
+     * <p>
+     * By default a comma separates values, so {@code 1,5} are the 2 values {@code 1} and {@code 5}.
+     * With decimal commas, a comma between two digits is read as a decimal point instead and {@code 1,5} is
+     * {@code 1.5}. Values then have to be separated by something else, like spaces or semicolons.
+     *
+     * @param reader       The source of the matrix text. Not closed by this method.
+     * @param decimalComma true to read a comma between two digits as a decimal point
+     * @return A parsed matrix object
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if the rows differ in length or there are no numbers at all
+     */
+    public static Matrix of(Reader reader, boolean decimalComma) throws IOException {
+        return MatrixParser.parse(reader, decimalComma);
+    }
+
+    /**
+     * Parses UTF-8 encoded matrix text.
+     *
+     * @param in The source of the matrix text. Not closed by this method.
+     * @see #of(Reader)
+     */
+    public static Matrix of(InputStream in) throws IOException {
+        return of(new InputStreamReader(in, StandardCharsets.UTF_8));
     }
 
     public static Matrix identityMatrix(int size) {
         var out = new Matrix(size, size);
-        for (int y = 0; y < size; y++) {
-            for (int x = 0; x < size; x++) {
-                if (x == y) out.set(1, x, y);
-                else out.set(0, x, y);
-            }
+        for (int i = 0; i < size; i++) {
+            out.set(1, i, i);
         }
         return out;
     }
@@ -129,37 +198,85 @@ public class Matrix {
      * @see #toByteArray()
      */
     public static Matrix of(byte[] data) {
-        byte[] buf = new byte[Double.BYTES];
-        System.arraycopy(data, 0, buf, 0, Integer.BYTES);
-        int width = ByteUtils.toInt(buf);
-        System.arraycopy(data, Integer.BYTES, buf, 0, Integer.BYTES);
-        int height = ByteUtils.toInt(buf);
-        int expectedLength = (width * height * Double.BYTES) + Integer.BYTES * 2;
-        if (expectedLength > data.length) {
-            String msg = "Expected " + expectedLength + "bytes but got " + data.length;
+        return readFrom(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Reads a matrix in the format of {@link #toByteArray()} starting at the position of the buffer.
+     * All values are transferred in one bulk operation.
+     * On success the position of the buffer is moved behind the matrix data.
+     *
+     * @param buffer The buffer to read from. Its byte order is ignored, the data is always read big-endian.
+     * @return a Matrix
+     * @apiNote May return an {@link ErrorMatrix} if the buffer does not contain enough bytes
+     * @see #writeTo(ByteBuffer)
+     */
+    public static Matrix readFrom(ByteBuffer buffer) {
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (in.remaining() < HEADER_BYTES) {
+            return new ErrorMatrix("Expected at least " + HEADER_BYTES + " bytes but got " + in.remaining(), null);
+        }
+        int width = in.getInt();
+        int height = in.getInt();
+        long expectedLength = byteSize(width, height);
+        if (width < 0 || height < 0 || (long) width * height > MAX_VALUES
+                || expectedLength > in.remaining() + HEADER_BYTES) {
+            String msg = "Expected " + expectedLength + "bytes but got " + (in.remaining() + HEADER_BYTES);
             return new ErrorMatrix(msg, null);
         }
-        int pos = (Integer.BYTES * 2);
-        Matrix result = new Matrix(width, height);
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                System.arraycopy(data, pos, buf, 0, Double.BYTES);
-                pos += Double.BYTES;
-                double value = ByteUtils.toDouble(buf);
-                result.set(value, x, y);
+        double[] values = new double[width * height];
+        in.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + (int) expectedLength);
+        return new Matrix(width, height, values);
+    }
+
+    /**
+     * Loads a matrix written by {@link #writeTo(Path)} or {@link #toByteArray()} by memory mapping the file.
+     * The values are transferred straight from the page cache into the matrix, without passing through
+     * intermediate byte arrays. Files larger than 2GB are mapped in several regions.
+     *
+     * @param file The file to read
+     * @return a Matrix
+     * @throws IOException if the file cannot be read
+     * @apiNote May return an {@link ErrorMatrix} if the file is too short
+     */
+    public static Matrix map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                return new ErrorMatrix("Expected at least " + HEADER_BYTES + " bytes but got " + fileSize, null);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            int width = header.getInt();
+            int height = header.getInt();
+            long expectedLength = byteSize(width, height);
+            if (width < 0 || height < 0 || (long) width * height > MAX_VALUES || expectedLength > fileSize) {
+                return new ErrorMatrix("Expected " + expectedLength + "bytes but got " + fileSize, null);
+            }
+            double[] values = new double[width * height];
+            int offset = 0;
+            while (offset < values.length) {
+                int count = Math.min(values.length - offset, MAX_MAPPED_VALUES);
+                long position = HEADER_BYTES + (long) offset * Double.BYTES;
+                channel.map(FileChannel.MapMode.READ_ONLY, position, (long) count * Double.BYTES)
+                        .asDoubleBuffer()
+                        .get(values, offset, count);
+                offset += count;
             }
+            return new Matrix(width, height, values);
         }
-        return result;
     }
 
-    private Matrix error(String msg) {
+    Matrix error(String msg) {
         return new ErrorMatrix(msg, this);
     }
 
+    @Override
     public int getWidth() {
         return width;
     }
 
+    @Override
     public int getHeight() {
         return height;
     }
@@ -179,6 +296,18 @@ public class Matrix {
         return width + "x" + height;
     }
 
+    /**
+     * Starts a lazily evaluated chain of elementwise operations on this matrix.
+     * Use this instead of chaining {@link #add(Matrix)}, {@link #subtract(Matrix)} and {@link #multiply(double)}
+     * to avoid a new intermediate matrix per operation.
+     *
+     * @return an expression consisting of only this matrix
+     * @see MatrixExpression#evaluate()
+     */
+    public MatrixExpression lazy() {
+        return MatrixExpression.of(this);
+    }
+
     /**
      * adds the 2 matrices together.
      * In order for this operation to complete successfully the dimensions of the matrices must match.
@@ -192,21 +321,21 @@ public class Matrix {
      */
     public Matrix add(Matrix other) {
         if (dimensionMatches(other)) {
-            Matrix output = new Matrix(width, height);
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    output.set(get(x, y) + other.get(x, y), x, y);
-                }
+            if (other instanceof SparseMatrix) {
+                return other.add(this);
             }
-            return output;
+            double[] out = new double[width * height];
+            ArithmeticKernel.INSTANCE.add(values(), other.values(), out);
+            return new Matrix(width, height, out);
         }
         return error("Dimensions of the 2 matrices are different."
                 + getDimension() + " != " + other.getDimension());
     }
 
     protected final void set(double val, int x, int y) {
-        determinant = null;
-        matrix[y][x] = val;
+        double[] values = writableValues();
+        Objects.checkIndex(x, width);
+        values[y * width + x] = val;
     }
 
     /**
@@ -216,21 +345,43 @@ public class Matrix {
      * @throws IndexOutOfBoundsException if the given integers are out of bounds of the matrix.
      */
     public double get(int x, int y) {
-        return matrix[y][x];
+        Objects.checkIndex(x, width);
+        return data[y * width + x];
+    }
+
+    /**
+     * Same as {@link #get(int, int)}.
+     */
+    @Override
+    public double getAsDouble(int x, int y) {
+        return get(x, y);
+    }
+
+    /**
+     * @return this matrix
+     */
+    @Override
+    public Matrix toMatrix() {
+        return this;
+    }
+
+    /**
+     * @return all values in row-major order. Dense matrices return their storage, which must not be modified.
+     * Matrices with a different storage layout return a freshly materialized array.
+     */
+    double[] values() {
+        return data;
     }
 
     double[] getRow(int y) {
-        double[] out = new double[width];
-        for (int i = 0; i < out.length; i++) {
-            out[i] = get(i, y);
-        }
-        return out;
+        return Arrays.copyOfRange(values(), y * width, (y + 1) * width);
     }
 
     double[] getColumn(int x) {
+        double[] values = values();
         double[] out = new double[height];
         for (int i = 0; i < out.length; i++) {
-            out[i] = get(x, i);
+            out[i] = values[i * width + x];
         }
         return out;
     }
@@ -246,16 +397,13 @@ public class Matrix {
      * @return A new matrix with the multiplied values
      */
     public Matrix multiply(double scalar) {
-        Matrix out = new Matrix(width, height);
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                out.set(get(x, y) * scalar, x, y);
-            }
-        }
+        double[] values = new double[width * height];
+        ArithmeticKernel.INSTANCE.scale(values(), scalar, values);
+        Matrix out = new Matrix(width, height, values);
         //precompute the determinant to reduce performance impact
         //only precompute IF the determinant for this matrix has been computed before.
         if (hasDeterminant() && height == width) {
-            out.determinant = Math.pow(scalar, width) * determinant;
+            out.setDeterminant(Math.pow(scalar, width) * determinant);
         }
         return out;
     }
@@ -267,38 +415,218 @@ public class Matrix {
      * @param other Matrix to multiply with
      * @return A new matrix with the multiplied values
      * @apiNote May return an {@link ErrorMatrix} if the width and height of the matrices do not fit.
+     * @implNote Products larger than the {@link #getParallelThreshold() threshold} are computed
+     * with the {@link #getExecutionStrategy() default execution strategy}.
+     * Square matrices larger than the {@link #getStrassenCutoff() cutoff} are multiplied with the
+     * Strassen-Winograd algorithm.
      * @see #isError()
+     * @see #multiply(Matrix, ExecutionStrategy)
      */
     public Matrix multiply(Matrix other) {
+        return multiply(other, ExecutionStrategy.getDefault());
+    }
+
+    /**
+     * Multiplies to matrices together, splitting the work into blocks of the result
+     * once it exceeds the {@link #getParallelThreshold() threshold}.
+     *
+     * @param other Matrix to multiply with
+     * @param pool  The pool to run the blocks in. {@code null} to compute the product on the calling thread.
+     * @return A new matrix with the multiplied values
+     * @apiNote May return an {@link ErrorMatrix} if the width and height of the matrices do not fit.
+     * @see #multiply(Matrix)
+     * @deprecated Passing {@code null} is ambiguous with {@link #multiply(Matrix, ExecutionStrategy)}.
+     * Use that method with {@link ExecutionStrategy#forkJoin(ForkJoinPool)} or {@link ExecutionStrategy#sequential()}.
+     */
+    @Deprecated
+    public Matrix multiply(Matrix other, ForkJoinPool pool) {
+        return multiply(other, pool == null ? ExecutionStrategy.sequential() : ExecutionStrategy.forkJoin(pool));
+    }
+
+    /**
+     * Multiplies to matrices together, splitting the work into blocks of the result
+     * once it exceeds the {@link #getParallelThreshold() threshold}.
+     *
+     * @param other    Matrix to multiply with
+     * @param strategy Runs the blocks, instead of the {@link #getExecutionStrategy() default strategy}
+     * @return A new matrix with the multiplied values
+     * @apiNote May return an {@link ErrorMatrix} if the width and height of the matrices do not fit.
+     * @see #multiply(Matrix)
+     */
+    public Matrix multiply(Matrix other, ExecutionStrategy strategy) {
         if (checkForMultiply(other)) {
-            Matrix output = new Matrix(other.width, height);
-            for (int y = 0; y < height; y++) {
-                double[] row = getRow(y);
-                for (int x = 0; x < other.width; x++) {
-                    double[] column = other.getColumn(x);
-                    output.set(multiply(row, column), x, y);
-                }
+            if (other instanceof SparseMatrix) {
+                return ((SparseMatrix) other).multiplyLeft(this);
+            }
+            double[] product;
+            if (other instanceof MatrixView) {
+                //pack the right operand straight from the viewed storage instead of copying it twice
+                product = new double[height * other.width];
+                MatrixMultiplication.multiplyPacked(values(), ((MatrixView) other).pack(), product,
+                        height, width, other.width, strategy);
+            } else if (width == height && other.width == other.height && StrassenMultiplication.appliesTo(width)) {
+                product = StrassenMultiplication.multiply(values(), other.values(), width, strategy);
+            } else {
+                product = MatrixMultiplication.multiply(values(), other.values(), height, width, other.width, strategy);
             }
+            Matrix output = new Matrix(other.width, height, product);
             if (hasDeterminant() && other.hasDeterminant()) {
-                output.determinant = determinant * other.determinant;
+                output.setDeterminant(determinant * other.determinant);
             }
             return output;
         } else if (other.checkForMultiply(this)) {
-            return other.multiply(this);
+            return other.multiply(this, strategy);
         }
         return error("Width and height do not match.");
     }
 
-    private boolean hasDeterminant() {
-        return determinant != null && !determinant.isNaN();
+    /**
+     * @return the number of multiply-add operations above which {@link #multiply(Matrix)}
+     * splits the product into parallel tasks. Default: {@code 2^21}
+     */
+    public static long getParallelThreshold() {
+        return MatrixMultiplication.getParallelThreshold();
+    }
+
+    /**
+     * @param operations the number of multiply-add operations ({@code height * width * other.width})
+     *                   above which {@link #multiply(Matrix)} splits the product into parallel tasks.
+     *                   Also the maximum amount of work per task.
+     *                   The {@link DeterminantMethod#LAPLACE_EXPANSION cofactor expansion} of an {@code n x n} matrix
+     *                   counts as {@code n * 2^n} operations.
+     * @throws IllegalArgumentException if the threshold is not positive
+     */
+    public static void setParallelThreshold(long operations) {
+        MatrixMultiplication.setParallelThreshold(operations);
+    }
+
+    /**
+     * @return the strategy running the parallel parts of calculations that do not get their own.
+     * Default: {@link ExecutionStrategy#commonPool()}
+     */
+    public static ExecutionStrategy getExecutionStrategy() {
+        return ExecutionStrategy.getDefault();
+    }
+
+    /**
+     * @param strategy the strategy running the parallel parts of calculations that do not get their own,
+     *                 for example {@link #multiply(Matrix)} and {@link #determinantAsync()}
+     */
+    public static void setExecutionStrategy(ExecutionStrategy strategy) {
+        ExecutionStrategy.setDefault(strategy);
+    }
+
+    /**
+     * @return the size above which {@link #multiply(Matrix)} multiplies square matrices with the
+     * Strassen-Winograd algorithm. Default: {@code 256}
+     */
+    public static int getStrassenCutoff() {
+        return StrassenMultiplication.getCutoff();
+    }
+
+    /**
+     * @param size the size above which {@link #multiply(Matrix)} multiplies square matrices of equal size
+     *             with the Strassen-Winograd algorithm, which recursively splits them into 7 instead of 8
+     *             half sized products until they are at most this large.
+     *             {@link Integer#MAX_VALUE} always uses the classical product.
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public static void setStrassenCutoff(int size) {
+        StrassenMultiplication.setCutoff(size);
     }
 
-    private double multiply(double[] row, double[] column) {
-        double result = 0;
-        for (int i = 0; i < row.length; i++) {
-            result += row[i] * column[i];
+    /**
+     * Computes {@code this * other} and writes the result into the given matrix instead of allocating a new one.
+     *
+     * @param other Matrix to multiply with
+     * @param dest  the matrix to overwrite, must be {@code other.width x this.height}
+     * @return the given destination
+     * @throws IllegalArgumentException if {@code this.width != other.height}, the destination has the wrong dimensions
+     *                                  or is one of the operands
+     * @see #multiply(Matrix)
+     */
+    public MutableMatrix multiplyInto(Matrix other, MutableMatrix dest) {
+        if (!checkForMultiply(other)) {
+            throw new IllegalArgumentException("Width and height do not match.");
         }
-        return result;
+        if (dest == other) {
+            throw new IllegalArgumentException("The destination must not be an operand of the product");
+        }
+        checkDestination(dest, other.width, height);
+        Matrix target = dest;
+        double[] out = target.writableValues();
+        Arrays.fill(out, 0);
+        MatrixMultiplication.multiply(values(), other.values(), out, height, width, other.width,
+                ExecutionStrategy.getDefault());
+        if (hasDeterminant() && other.hasDeterminant()) {
+            target.setDeterminant(determinant * other.determinant);
+        }
+        return dest;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the destination is this matrix or has different dimensions
+     */
+    private void checkDestination(Matrix dest, int width, int height) {
+        if (dest == this) {
+            throw new IllegalArgumentException("The destination must not be the source matrix");
+        }
+        if (dest.width != width || dest.height != height) {
+            throw new IllegalArgumentException("Destination must be " + width + "x" + height + " but is " + dest.getDimension());
+        }
+    }
+
+    /**
+     * Drops all values computed from the contents of this matrix.
+     * Has to be called before modifying the values, {@link #writableValues()} does so.
+     */
+    final void invalidate() {
+        determinantKnown = false;
+        decomposition = null;
+    }
+
+    /**
+     * Drops all values computed from the contents of this matrix, see {@link #invalidate()}.
+     *
+     * @return the storage to write new values into
+     */
+    double[] writableValues() {
+        invalidate();
+        return data;
+    }
+
+    /**
+     * Scales the determinant cached for the old values by {@code det(α*A) = α^n * det(A)}.
+     * Has to be called before scaling the values.
+     */
+    final void scaleDeterminant(double scalar) {
+        decomposition = null;
+        boolean scalable = hasDeterminant() && height == width;
+        determinantKnown = false;
+        if (scalable) {
+            setDeterminant(Math.pow(scalar, width) * determinant);
+        }
+    }
+
+    /**
+     * @return the values for a view to read from. The storage of a {@code Matrix} never changes and is not copied,
+     * subclasses might change theirs with {@link #set(double, int, int)} and get a copy.
+     */
+    double[] share() {
+        double[] values = values();
+        return values == data && getClass() != Matrix.class ? values.clone() : values;
+    }
+
+    private boolean hasDeterminant() {
+        return determinantKnown && !Double.isNaN(determinant);
+    }
+
+    /**
+     * Publishes the determinant to all threads.
+     */
+    private void setDeterminant(double value) {
+        determinant = value;
+        determinantKnown = true;
     }
 
     private boolean checkForMultiply(Matrix other) {
@@ -311,21 +639,14 @@ public class Matrix {
      * @return a matrix of the same size
      */
     public Matrix copy(boolean includeValues) {
-        Matrix m = new Matrix(width, height);
         if (includeValues) {
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    m.set(this.get(x, y), x, y);
-                }
-            }
+            return new Matrix(width, height, values().clone());
         }
-        return m;
+        return new Matrix(width, height);
     }
 
     /**
      * @return a transposed matrix along the main diagonal
-     * @apiNote May return an {@link ErrorMatrix} if the width and height of the matrix differ
-     * @see #isError()
      * @see TranspositionType#MAIN_DIAGONAL
      */
     public Matrix transpose() {
@@ -334,17 +655,82 @@ public class Matrix {
 
     /**
      * @param type the type of the transposition. See {@link TranspositionType}
-     * @return a transposed matrix
-     * @apiNote May return an {@link ErrorMatrix} if the width and height of the matrix differ
-     * @see #isError()
+     * @return a transposed matrix, the diagonal transpositions of a non-square matrix swap width and height.
      * @see TranspositionType
      */
     public Matrix transpose(TranspositionType type) {
-        if (width == height)
-            return type.apply(this);
-        else {
-            return error("Matrix width and height must be the same");
-        }
+        return type.apply(this);
+    }
+
+    /**
+     * Writes the transposition of this matrix into the given matrix instead of allocating a new one.
+     *
+     * @param type the type of the transposition. See {@link TranspositionType}
+     * @param dest the matrix to overwrite, must have the dimensions of the transposed matrix.
+     * @return the given destination
+     * @throws IllegalArgumentException if the dimensions differ or the destination is this matrix
+     */
+    public MutableMatrix transposeInto(TranspositionType type, MutableMatrix dest) {
+        checkDestination(dest, type.getWidth(this), type.getHeight(this));
+        Matrix target = dest;
+        type.apply(values(), width, height, target.writableValues());
+        return dest;
+    }
+
+    /**
+     * @return a view of the transposition along the main diagonal, which reads the values of this matrix
+     * instead of copying them.
+     * @see #transpose()
+     * @see MatrixView
+     */
+    public Matrix transposedView() {
+        return MatrixView.of(this).transposed();
+    }
+
+    /**
+     * @param y the row to view
+     * @return a {@code width x 1} view of the row, which reads the values of this matrix instead of copying them.
+     * @throws IndexOutOfBoundsException if the row does not exist
+     * @see MatrixView
+     */
+    public Matrix rowView(int y) {
+        return subMatrixView(0, y, width, 1);
+    }
+
+    /**
+     * @param x the column to view
+     * @return a {@code 1 x height} view of the column, which reads the values of this matrix instead of copying them.
+     * @throws IndexOutOfBoundsException if the column does not exist
+     * @see MatrixView
+     */
+    public Matrix columnView(int x) {
+        return subMatrixView(x, 0, 1, height);
+    }
+
+    /**
+     * @param x      the first column of the window
+     * @param y      the first row of the window
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @return a view of the window, which reads the values of this matrix instead of copying them.
+     * @throws IndexOutOfBoundsException if the window is not within this matrix
+     * @see MatrixView
+     */
+    public Matrix subMatrixView(int x, int y, int width, int height) {
+        return MatrixView.of(this).window(x, y, width, height);
+    }
+
+    /**
+     * @param excludedX the column to leave out
+     * @param excludedY the row to leave out
+     * @return a view of this matrix without the given column and row,
+     * which reads the values of this matrix instead of copying them.
+     * Unlike {@link #getMinor(int, int)}, the view is not transposed.
+     * @throws IndexOutOfBoundsException if the column or row does not exist
+     * @see MatrixView
+     */
+    public Matrix minorView(int excludedX, int excludedY) {
+        return MatrixView.of(this).without(excludedX, excludedY);
     }
 
     /**
@@ -364,21 +750,22 @@ public class Matrix {
      *                  Default: {@code 0}
      */
     public Matrix getMinor(int excludedX, int excludedY) {
-        Matrix minor = new Matrix(width - 1, width - 1);
-        int cofactorY = 0;
-        int cofactorX = 0;
+        final int size = width - 1;
+        double[] source = values();
+        double[] values = new double[size * size];
+        int pos = 0;
+        //the minor is built transposed: source column "row" becomes target row "pos / size"
         for (int row = 0; row < width; row++) {
+            if (row == excludedX) {
+                continue;
+            }
             for (int col = 0; col < width; col++) {
-                if (row != excludedX && col != excludedY) {
-                    minor.set(get(row, col), cofactorX++, cofactorY);
-                    if (cofactorX == width - 1) {
-                        cofactorX = 0;
-                        cofactorY++;
-                    }
+                if (col != excludedY) {
+                    values[pos++] = source[col * width + row];
                 }
             }
         }
-        return minor;
+        return new Matrix(size, size, values);
     }
 
     /**
@@ -386,7 +773,7 @@ public class Matrix {
      * @see #isError()
      */
     public double getCofactor(int x, int y) {
-        return getMinor(x, y).getDeterminant();
+        return minorView(x, y).getDeterminant();
     }
 
     /**
@@ -394,22 +781,36 @@ public class Matrix {
      * @see #isError()
      */
     public double getCofactor(int x) {
-        return getMinor(x).getDeterminant();
+        return minorView(x, 0).getDeterminant();
     }
 
     /**
      * @return The inverse of the given matrix.
      * Cannot compute if the determinant computes to 0
      * @apiNote May return an {@link ErrorMatrix} if the given matrix does not have a determinant
+     * @implNote Reuses the LU factorization of {@link #getDeterminant()} if it has been computed before.
      * @see #isError()
      */
     public Matrix inverse() {
+        return inverse(DeterminantMethod.LU_DECOMPOSITION);
+    }
+
+    /**
+     * @param method {@link DeterminantMethod#LU_DECOMPOSITION} solves the factorized system in O(n³),
+     *               {@link DeterminantMethod#LAPLACE_EXPANSION} divides the adjugate matrix by the determinant,
+     *               which is exact for small integer matrices but runs in O(n * 2^n).
+     * @return The inverse of the given matrix.
+     * Cannot compute if the determinant computes to 0
+     * @apiNote May return an {@link ErrorMatrix} if the given matrix does not have a determinant
+     * @see #isError()
+     */
+    public Matrix inverse(DeterminantMethod method) {
         double det = getDeterminant();
         if (det == 0 || Double.isNaN(det)) {
             return error("this matrix does not have an inverse");
         }
-        var result = copy(false);
         if (width == 2 && height == 2) {
+            var result = copy(false);
             double a = get(0, 0);
             result.set(a, 1, 1);
             double d = get(1, 1);
@@ -421,28 +822,50 @@ public class Matrix {
             result.set(c * -1, 0, 1);
             return result.multiply(1 / det);
         }
-        return getAdjoint().multiply(1 / det).transpose();
+        if (method == DeterminantMethod.LAPLACE_EXPANSION) {
+            return getAdjoint().multiply(1 / det).transpose();
+        }
+        LUDecomposition lu = decompose();
+        if (lu.isSingular()) {
+            return error("this matrix does not have an inverse");
+        }
+        Matrix inverse = new Matrix(width, height, lu.inverse());
+        inverse.setDeterminant(1 / det);
+        return inverse;
     }
 
-    private Matrix getAdjoint() {
-        Matrix adjoint = new Matrix(width, height);
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                // sign of adj[y][x] positive if sum of row
-                // and column indexes is even.
-                int sign = (((y + x) & 1) == 0) ? 1 : -1;
-                // Interchanging rows and columns to get the
-                // transpose of the cofactor matrix
-                adjoint.set(sign * getCofactor(x, y), x, y);
+    /**
+     * @return the LU factorization of this matrix, computed once and reused until the matrix is modified
+     */
+    LUDecomposition decompose() {
+        LUDecomposition lu = decomposition;
+        if (lu == null) {
+            synchronized (this) {
+                lu = decomposition;
+                if (lu == null) {
+                    lu = new LUDecomposition(this);
+                    decomposition = lu;
+                }
             }
         }
-        return adjoint;
+        return lu;
     }
 
+    /**
+     * @return the signed cofactors, all computed from one shared table of minors
+     */
+    private Matrix getAdjoint() {
+        return new Matrix(width, height, CofactorExpansion.cofactors(values(), width, ExecutionStrategy.getDefault()));
+    }
+
+    /**
+     * Matrices are equal if their dimensions and values are, no matter how they store them.
+     * A {@link SparseMatrix}, {@link OffHeapMatrix} or view equals a dense matrix with the same values.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass())
+        if (!(o instanceof Matrix) || ((Matrix) o).isError())
             return false;
         Matrix other = (Matrix) o;
         return equals(other, 0.01d);
@@ -456,16 +879,14 @@ public class Matrix {
      */
     public boolean equals(Matrix other, double delta) {
         if (width == other.width && height == other.height) {
-            boolean equal = true;
-            for (int y = 0; y < height; y++)
-                for (int x = 0; x < width; x++) {
-                    if (equal) {
-                        equal = !doubleIsDifferent(get(x, y), other.get(x, y), delta);
-                    } else {
-                        return false;
-                    }
+            double[] values = values();
+            double[] otherValues = other.values();
+            for (int i = 0; i < values.length; i++) {
+                if (doubleIsDifferent(values[i], otherValues[i], delta)) {
+                    return false;
                 }
-            return equal;
+            }
+            return true;
         }
         return false;
     }
@@ -483,13 +904,14 @@ public class Matrix {
      * {@link #width} * {@link #height}
      */
     public double[] toArray() {
-        return Stream.of(matrix).flatMapToDouble(DoubleStream::of).toArray();
+        double[] values = values();
+        return Arrays.copyOf(values, values.length);
     }
 
     @Override
     public int hashCode() {
         int result = Objects.hash(width, height);
-        result = 31 * result + Arrays.deepHashCode(matrix);
+        result = 31 * result + Arrays.hashCode(values());
         return result;
     }
 
@@ -504,38 +926,85 @@ public class Matrix {
      * @implNote This string is parsable using {@link #of(String) Matrix.of(String)} method
      */
     public String toString(int digits) {
-        final String format;
-        if (digits == -1) {
-            format = "%f";
-        } else {
-            format = "%." + digits + "f";
-        }
-        var out = new StringBuilder();
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                String number = String.format(format, get(x, y));
-                out.append(number).append(" ");
-            }
-            out.append("\n");
+        StringWriter out = new StringWriter();
+        try (MatrixWriter writer = MatrixWriter.text(out, width, digits == -1 ? 6 : digits)) {
+            writer.writeRows(this);
+        } catch (IOException e) {
+            //a StringWriter does not throw
+            throw new UncheckedIOException(e);
         }
-        return out.toString().replace(",", ".");
+        return out.toString();
     }
 
     public boolean isError() {
         return this instanceof ErrorMatrix;
     }
 
+    /**
+     * Serializes the matrix into its width and height as big-endian ints, followed by all values
+     * as big-endian doubles in row-major order.
+     *
+     * @see #of(byte[])
+     */
     public byte[] toByteArray() {
-        final byte[] out = new byte[(Integer.BYTES * 2) + (width * height * Double.BYTES)];
-        System.arraycopy(ByteUtils.toByteArray(width), 0, out, 0, Integer.BYTES);
-        System.arraycopy(ByteUtils.toByteArray(height), 0, out, Integer.BYTES, Integer.BYTES);
-        int startPos = (Integer.BYTES * 2);
-        double[] data = toArray();
-        for (int i = 0; i < data.length; i++) {
-            int arrPos = startPos + (i * Double.BYTES);
-            System.arraycopy(ByteUtils.toByteArray(data[i]), 0, out, arrPos, Double.BYTES);
+        ByteBuffer out = ByteBuffer.allocate((int) byteSize(width, height));
+        writeTo(out);
+        return out.array();
+    }
+
+    /**
+     * Writes the matrix in the format of {@link #toByteArray()} at the position of the buffer
+     * and moves the position behind the written data. All values are transferred in one bulk operation.
+     *
+     * @param buffer The buffer to write into. Its byte order is ignored, the data is always written big-endian.
+     * @throws java.nio.BufferOverflowException if the buffer has less than {@link #getByteSize()} bytes remaining
+     * @see #readFrom(ByteBuffer)
+     */
+    public void writeTo(ByteBuffer buffer) {
+        long size = byteSize(width, height);
+        if (buffer.remaining() < size) {
+            throw new BufferOverflowException();
         }
-        return out;
+        ByteBuffer out = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        out.putInt(width).putInt(height);
+        out.asDoubleBuffer().put(values());
+        buffer.position(buffer.position() + (int) size);
+    }
+
+    /**
+     * Writes the matrix in the format of {@link #toByteArray()} into the given file through a memory mapping.
+     * An existing file is overwritten.
+     *
+     * @param file The file to write
+     * @throws IOException if the file cannot be written
+     * @see #map(Path)
+     */
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES).putInt(width).putInt(height);
+            double[] values = values();
+            int offset = 0;
+            while (offset < values.length) {
+                int count = Math.min(values.length - offset, MAX_MAPPED_VALUES);
+                long position = HEADER_BYTES + (long) offset * Double.BYTES;
+                channel.map(FileChannel.MapMode.READ_WRITE, position, (long) count * Double.BYTES)
+                        .asDoubleBuffer()
+                        .put(values, offset, count);
+                offset += count;
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes used by {@link #toByteArray()} and {@link #writeTo(ByteBuffer)}
+     */
+    public long getByteSize() {
+        return byteSize(width, height);
+    }
+
+    private static long byteSize(int width, int height) {
+        return HEADER_BYTES + (long) width * height * Double.BYTES;
     }
 
     /**
@@ -548,13 +1017,12 @@ public class Matrix {
      */
     public Matrix subtract(Matrix value) {
         if (dimensionMatches(value)) {
-            Matrix res = copy(false);
-            for (int y = 0; y < height; y++)
-                for (int x = 0; x < width; x++) {
-                    double result = get(x, y) - value.get(x, y);
-                    res.set(result, x, y);
-                }
-            return res;
+            if (value instanceof SparseMatrix) {
+                return ((SparseMatrix) value).subtractFrom(this);
+            }
+            double[] res = new double[width * height];
+            ArithmeticKernel.INSTANCE.subtract(values(), value.values(), res);
+            return new Matrix(width, height, res);
         }
         return error("Matrices must be of same dimensions");
     }
@@ -566,7 +1034,7 @@ public class Matrix {
      * @implNote will return {@code false} if the matrix is not square.
      */
     public boolean isSymmetric() {
-        return equals(transpose());
+        return width == height && equals(transpose());
     }
 
     /**
@@ -574,17 +1042,12 @@ public class Matrix {
      * A matrix is real only if all the values are positive real numbers.
      */
     public boolean isReal() {
-        boolean isReal = true;
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (isReal) {
-                    isReal = get(x, y) >= 0;
-                } else {
-                    break;
-                }
+        for (double value : values()) {
+            if (value < 0) {
+                return false;
             }
         }
-        return isReal;
+        return true;
     }
 
     /**
@@ -592,33 +1055,118 @@ public class Matrix {
      * A determinant can only be computed if:
      * <p>The width and height of the matrix are equal</p>
      * <p>May return {@link Double#NaN}</p>
+     * @implNote Matrices up to {@link #EXPANSION_LIMIT} use the exact {@link DeterminantMethod#LAPLACE_EXPANSION},
+     * anything larger uses {@link DeterminantMethod#LU_DECOMPOSITION}.
+     * The result is cached. Threads calling this at the same time wait for a single computation.
      */
     public double getDeterminant() {
-        if (determinant == null) {
-            if (width == height) {
-                if (width == 2) {
-                    determinant = (get(0, 0) * get(1, 1)) - (get(1, 0) * get(0, 1));
-                } else {
-                    List<Matrix> minors = new ArrayList<>(width);
-                    for (int x = 0; x < width; x++) {
-                        minors.add(getMinor(x));
-                    }
-                    //precompute determinants of minors asynchronously
-                    minors.parallelStream().forEach(Matrix::getDeterminant);
-
-                    double result = 0;
-                    for (int x = 0; x < width; x++) {
-                        int factor = (x & 1) == 0 ? 1 : -1;
-                        double val = get(x, 0);
-                        result += (val * minors.get(x).getDeterminant()) * factor;
+        if (!determinantKnown) {
+            synchronized (this) {
+                if (!determinantKnown) {
+                    if (width != height) {
+                        setDeterminant(Double.NaN);
+                    } else if (width <= EXPANSION_LIMIT) {
+                        setDeterminant(DeterminantMethod.LAPLACE_EXPANSION.applyAsDouble(this));
+                    } else {
+                        setDeterminant(DeterminantMethod.LU_DECOMPOSITION.applyAsDouble(this));
                     }
-                    determinant = result;
                 }
-            } else {
-                determinant = Double.NaN;
             }
         }
         return determinant;
     }
 
+    /**
+     * Computes the determinant using the given algorithm, regardless of any previously computed value.
+     *
+     * @param method The algorithm to use. See {@link DeterminantMethod}
+     * @return The determinant of the given matrix or {@link Double#NaN} if the matrix is not square.
+     * @see #getDeterminant()
+     */
+    public double getDeterminant(DeterminantMethod method) {
+        return getDeterminant(method, ExecutionStrategy.getDefault());
+    }
+
+    /**
+     * Computes the determinant using the given algorithm, regardless of any previously computed value.
+     *
+     * @param method   The algorithm to use. See {@link DeterminantMethod}
+     * @param strategy Runs the parallel parts of the algorithm, instead of the
+     *                 {@link #getExecutionStrategy() default strategy}
+     * @return The determinant of the given matrix or {@link Double#NaN} if the matrix is not square.
+     * @see #getDeterminant(DeterminantMethod)
+     */
+    public double getDeterminant(DeterminantMethod method, ExecutionStrategy strategy) {
+        double value = width == height ? method.apply(this, strategy) : Double.NaN;
+        synchronized (this) {
+            setDeterminant(value);
+        }
+        return value;
+    }
+
+    /**
+     * Computes {@link #getDeterminant()} with the executor of the {@link #getExecutionStrategy() default execution strategy}.
+     *
+     * @see #determinantAsync(Executor)
+     */
+    public CompletableFuture<Double> determinantAsync() {
+        return determinantAsync(ExecutionStrategy.getDefault().executor());
+    }
+
+    /**
+     * Computes {@link #getDeterminant()} with the given executor.
+     * Cancelling the returned future stops the computation at its next step
+     * (a column of the LU decomposition or a level of the cofactor expansion).
+     *
+     * @param executor the executor to run the computation with
+     * @return a future completed with the determinant
+     */
+    public CompletableFuture<Double> determinantAsync(Executor executor) {
+        return Cancellation.supplyAsync(this::getDeterminant, executor);
+    }
+
+    /**
+     * Computes {@link #inverse()} with the executor of the {@link #getExecutionStrategy() default execution strategy}.
+     *
+     * @see #inverseAsync(Executor)
+     */
+    public CompletableFuture<Matrix> inverseAsync() {
+        return inverseAsync(ExecutionStrategy.getDefault().executor());
+    }
+
+    /**
+     * Computes {@link #inverse()} with the given executor.
+     * Cancelling the returned future stops the computation at its next step.
+     *
+     * @param executor the executor to run the computation with
+     * @return a future completed with the inverse
+     * @apiNote The future may be completed with an {@link ErrorMatrix} if the matrix does not have an inverse.
+     */
+    public CompletableFuture<Matrix> inverseAsync(Executor executor) {
+        return Cancellation.supplyAsync(this::inverse, executor);
+    }
+
+    /**
+     * Computes {@link #multiply(Matrix)} with the executor of the {@link #getExecutionStrategy() default execution strategy}.
+     *
+     * @see #multiplyAsync(Matrix, Executor)
+     */
+    public CompletableFuture<Matrix> multiplyAsync(Matrix other) {
+        return multiplyAsync(other, ExecutionStrategy.getDefault().executor());
+    }
+
+    /**
+     * Computes {@link #multiply(Matrix)} with the given executor. Products above the
+     * {@link #getParallelThreshold() threshold} still split into tasks of the
+     * {@link #getExecutionStrategy() default execution strategy}.
+     * Cancelling the returned future stops the computation at its next block of rows.
+     *
+     * @param other    Matrix to multiply with
+     * @param executor the executor to run the computation with
+     * @return a future completed with the product
+     * @apiNote The future may be completed with an {@link ErrorMatrix} if the width and height of the matrices do not fit.
+     */
+    public CompletableFuture<Matrix> multiplyAsync(Matrix other, Executor executor) {
+        return Cancellation.supplyAsync(() -> multiply(other), executor);
+    }
 }
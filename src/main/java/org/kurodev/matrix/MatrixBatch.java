@@ -0,0 +1,368 @@
+package org.kurodev.matrix;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A fixed number of matrices of the same dimension, stored in one contiguous array.
+ * <p>
+ * Meant for large amounts of small matrices like 3x3 or 4x4 transforms. The values are stored as structure of
+ * arrays: value {@code (x, y)} of every matrix is stored next to each other, so each operation processes the whole
+ * batch in tight loops over contiguous memory instead of allocating a {@link Matrix} per element.
+ * 2x2, 3x3 and 4x4 determinants and inverses are computed in closed form, bigger matrices fall back to
+ * {@link Matrix#getDeterminant()} and {@link Matrix#inverse()} per element.
+ * <p>
+ * Like {@link Matrix}, a batch is immutable and every operation returns a new batch.
+ * Dimensions are checked once per batch: mismatching batches result in an {@link IllegalArgumentException}
+ * instead of an {@link ErrorMatrix}.
+ */
+public final class MatrixBatch {
+    private final int width;
+    private final int height;
+    private final int size;
+    /**
+     * value {@code (x, y)} of matrix {@code i} is stored at {@code (y * width + x) * size + i}.
+     */
+    private final double[] values;
+
+    private MatrixBatch(int width, int height, int size, double[] values) {
+        this.width = width;
+        this.height = height;
+        this.size = size;
+        this.values = values;
+    }
+
+    /**
+     * @param matrices the matrices to copy into the batch
+     * @throws IllegalArgumentException if the batch is empty or the dimensions of the matrices differ
+     */
+    public static MatrixBatch of(Matrix... matrices) {
+        return of(Arrays.asList(matrices));
+    }
+
+    /**
+     * @param matrices the matrices to copy into the batch
+     * @throws IllegalArgumentException if the batch is empty or the dimensions of the matrices differ
+     */
+    public static MatrixBatch of(List<? extends Matrix> matrices) {
+        if (matrices.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one matrix.");
+        }
+        Matrix first = matrices.get(0);
+        int width = first.getWidth();
+        int height = first.getHeight();
+        int size = matrices.size();
+        double[] values = new double[width * height * size];
+        for (int i = 0; i < size; i++) {
+            Matrix matrix = matrices.get(i);
+            if (!first.dimensionMatches(matrix)) {
+                throw new IllegalArgumentException("Dimensions of the matrices are different."
+                        + first.getDimension() + " != " + matrix.getDimension());
+            }
+            double[] source = matrix.values();
+            for (int k = 0; k < source.length; k++) {
+                values[k * size + i] = source[k];
+            }
+        }
+        return new MatrixBatch(width, height, size, values);
+    }
+
+    /**
+     * @param values the values of all matrices, one matrix after another, each in row-major order.
+     *               The array is copied.
+     * @return a batch of {@code values.length / (width * height)} matrices
+     * @throws IllegalArgumentException if the batch is empty or the length is not a multiple of the matrix size
+     */
+    public static MatrixBatch of(int width, int height, double[] values) {
+        int length = width * height;
+        if (length <= 0 || values.length == 0 || values.length % length != 0) {
+            throw new IllegalArgumentException(values.length + " values can not be split into "
+                    + width + "x" + height + " matrices");
+        }
+        int size = values.length / length;
+        double[] out = new double[values.length];
+        for (int i = 0; i < size; i++) {
+            for (int k = 0; k < length; k++) {
+                out[k * size + i] = values[i * length + k];
+            }
+        }
+        return new MatrixBatch(width, height, size, out);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of matrices in this batch
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the matrix
+     * @param x     row indicator
+     * @param y     column indicator
+     * @throws IndexOutOfBoundsException if the given integers are out of bounds
+     */
+    public double get(int index, int x, int y) {
+        Objects.checkIndex(index, size);
+        Objects.checkIndex(x, width);
+        Objects.checkIndex(y, height);
+        return values[(y * width + x) * size + index];
+    }
+
+    /**
+     * @return a copy of the matrix at the given index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public Matrix getMatrix(int index) {
+        Objects.checkIndex(index, size);
+        double[] out = new double[width * height];
+        for (int k = 0; k < out.length; k++) {
+            out[k] = values[k * size + index];
+        }
+        return new Matrix(width, height, out);
+    }
+
+    /**
+     * @return the values of all matrices, one matrix after another, each in row-major order.
+     * @see #of(int, int, double[])
+     */
+    public double[] toArray() {
+        int length = width * height;
+        double[] out = new double[values.length];
+        for (int k = 0; k < length; k++) {
+            for (int i = 0; i < size; i++) {
+                out[i * length + k] = values[k * size + i];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Adds the matrices of both batches pairwise.
+     *
+     * @throws IllegalArgumentException if the dimensions or sizes of the batches differ
+     */
+    public MatrixBatch add(MatrixBatch other) {
+        if (width != other.width || height != other.height || size != other.size) {
+            throw new IllegalArgumentException("Batches are different." + describe() + " != " + other.describe());
+        }
+        double[] out = new double[values.length];
+        ArithmeticKernel.INSTANCE.add(values, other.values, out);
+        return new MatrixBatch(width, height, size, out);
+    }
+
+    /**
+     * Multiplies the matrices of both batches pairwise, {@code this[i] * other[i]}.
+     *
+     * @throws IllegalArgumentException if {@code this.width != other.height} or the sizes of the batches differ
+     */
+    public MatrixBatch multiply(MatrixBatch other) {
+        if (width != other.height || size != other.size) {
+            throw new IllegalArgumentException("Batches do not fit." + describe() + " * " + other.describe());
+        }
+        final int n = size;
+        final int columns = other.width;
+        final double[] a = values;
+        final double[] b = other.values;
+        double[] out = new double[height * columns * n];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < columns; x++) {
+                int c = (y * columns + x) * n;
+                for (int k = 0; k < width; k++) {
+                    int left = (y * width + k) * n;
+                    int right = (k * columns + x) * n;
+                    for (int i = 0; i < n; i++) {
+                        out[c + i] += a[left + i] * b[right + i];
+                    }
+                }
+            }
+        }
+        return new MatrixBatch(columns, height, n, out);
+    }
+
+    /**
+     * @return the determinant of every matrix, {@link Double#NaN} if the matrices are not square.
+     * @see Matrix#getDeterminant()
+     */
+    public double[] getDeterminant() {
+        double[] out = new double[size];
+        if (width != height) {
+            Arrays.fill(out, Double.NaN);
+            return out;
+        }
+        final double[] v = values;
+        final int n = size;
+        switch (width) {
+            case 1:
+                System.arraycopy(v, 0, out, 0, n);
+                break;
+            case 2:
+                for (int i = 0; i < n; i++) {
+                    out[i] = v[i] * v[3 * n + i] - v[n + i] * v[2 * n + i];
+                }
+                break;
+            case 3:
+                for (int i = 0; i < n; i++) {
+                    out[i] = determinant3(v, n, i);
+                }
+                break;
+            case 4:
+                for (int i = 0; i < n; i++) {
+                    double m00 = v[i], m01 = v[n + i], m02 = v[2 * n + i], m03 = v[3 * n + i];
+                    double m10 = v[4 * n + i], m11 = v[5 * n + i], m12 = v[6 * n + i], m13 = v[7 * n + i];
+                    double m20 = v[8 * n + i], m21 = v[9 * n + i], m22 = v[10 * n + i], m23 = v[11 * n + i];
+                    double m30 = v[12 * n + i], m31 = v[13 * n + i], m32 = v[14 * n + i], m33 = v[15 * n + i];
+                    out[i] = (m00 * m11 - m10 * m01) * (m22 * m33 - m32 * m23)
+                            - (m00 * m12 - m10 * m02) * (m21 * m33 - m31 * m23)
+                            + (m00 * m13 - m10 * m03) * (m21 * m32 - m31 * m22)
+                            + (m01 * m12 - m11 * m02) * (m20 * m33 - m30 * m23)
+                            - (m01 * m13 - m11 * m03) * (m20 * m32 - m30 * m22)
+                            + (m02 * m13 - m12 * m03) * (m20 * m31 - m30 * m21);
+                }
+                break;
+            default:
+                for (int i = 0; i < n; i++) {
+                    out[i] = getMatrix(i).getDeterminant();
+                }
+        }
+        return out;
+    }
+
+    /**
+     * @return the inverse of every matrix. Matrices which do not have an inverse,
+     * including all non-square matrices, result in a matrix of {@link Double#NaN} values.
+     * @see Matrix#inverse()
+     */
+    public MatrixBatch inverse() {
+        double[] out = new double[values.length];
+        if (width != height) {
+            Arrays.fill(out, Double.NaN);
+            return new MatrixBatch(width, height, size, out);
+        }
+        final double[] v = values;
+        final int n = size;
+        switch (width) {
+            case 1:
+                for (int i = 0; i < n; i++) {
+                    out[i] = v[i] == 0 ? Double.NaN : 1 / v[i];
+                }
+                break;
+            case 2:
+                for (int i = 0; i < n; i++) {
+                    double a = v[i], b = v[n + i], c = v[2 * n + i], d = v[3 * n + i];
+                    double det = a * d - b * c;
+                    double f = det == 0 ? Double.NaN : 1 / det;
+                    out[i] = d * f;
+                    out[n + i] = -b * f;
+                    out[2 * n + i] = -c * f;
+                    out[3 * n + i] = a * f;
+                }
+                break;
+            case 3:
+                inverse3(v, out, n);
+                break;
+            case 4:
+                inverse4(v, out, n);
+                break;
+            default:
+                double[] singular = new double[width * height];
+                Arrays.fill(singular, Double.NaN);
+                for (int i = 0; i < n; i++) {
+                    Matrix inverse = getMatrix(i).inverse();
+                    double[] inverted = inverse.isError() ? singular : inverse.values();
+                    for (int k = 0; k < inverted.length; k++) {
+                        out[k * n + i] = inverted[k];
+                    }
+                }
+        }
+        return new MatrixBatch(width, height, n, out);
+    }
+
+    private static double determinant3(double[] v, int n, int i) {
+        double a = v[i], b = v[n + i], c = v[2 * n + i];
+        double d = v[3 * n + i], e = v[4 * n + i], f = v[5 * n + i];
+        double g = v[6 * n + i], h = v[7 * n + i], k = v[8 * n + i];
+        return a * (e * k - f * h) - b * (d * k - f * g) + c * (d * h - e * g);
+    }
+
+    /**
+     * Adjugate divided by the determinant.
+     */
+    private static void inverse3(double[] v, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+            double a = v[i], b = v[n + i], c = v[2 * n + i];
+            double d = v[3 * n + i], e = v[4 * n + i], f = v[5 * n + i];
+            double g = v[6 * n + i], h = v[7 * n + i], k = v[8 * n + i];
+            double c00 = e * k - f * h, c01 = f * g - d * k, c02 = d * h - e * g;
+            double det = a * c00 + b * c01 + c * c02;
+            double s = det == 0 ? Double.NaN : 1 / det;
+            out[i] = c00 * s;
+            out[n + i] = (c * h - b * k) * s;
+            out[2 * n + i] = (b * f - c * e) * s;
+            out[3 * n + i] = c01 * s;
+            out[4 * n + i] = (a * k - c * g) * s;
+            out[5 * n + i] = (c * d - a * f) * s;
+            out[6 * n + i] = c02 * s;
+            out[7 * n + i] = (b * g - a * h) * s;
+            out[8 * n + i] = (a * e - b * d) * s;
+        }
+    }
+
+    /**
+     * Expands along the 2x2 minors of the upper and lower 2 rows, which share most of the products
+     * between the determinant and the adjugate.
+     */
+    private static void inverse4(double[] v, double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+            double m00 = v[i], m01 = v[n + i], m02 = v[2 * n + i], m03 = v[3 * n + i];
+            double m10 = v[4 * n + i], m11 = v[5 * n + i], m12 = v[6 * n + i], m13 = v[7 * n + i];
+            double m20 = v[8 * n + i], m21 = v[9 * n + i], m22 = v[10 * n + i], m23 = v[11 * n + i];
+            double m30 = v[12 * n + i], m31 = v[13 * n + i], m32 = v[14 * n + i], m33 = v[15 * n + i];
+
+            double s0 = m00 * m11 - m10 * m01;
+            double s1 = m00 * m12 - m10 * m02;
+            double s2 = m00 * m13 - m10 * m03;
+            double s3 = m01 * m12 - m11 * m02;
+            double s4 = m01 * m13 - m11 * m03;
+            double s5 = m02 * m13 - m12 * m03;
+            double c5 = m22 * m33 - m32 * m23;
+            double c4 = m21 * m33 - m31 * m23;
+            double c3 = m21 * m32 - m31 * m22;
+            double c2 = m20 * m33 - m30 * m23;
+            double c1 = m20 * m32 - m30 * m22;
+            double c0 = m20 * m31 - m30 * m21;
+            double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+            double s = det == 0 ? Double.NaN : 1 / det;
+
+            out[i] = (m11 * c5 - m12 * c4 + m13 * c3) * s;
+            out[n + i] = (-m01 * c5 + m02 * c4 - m03 * c3) * s;
+            out[2 * n + i] = (m31 * s5 - m32 * s4 + m33 * s3) * s;
+            out[3 * n + i] = (-m21 * s5 + m22 * s4 - m23 * s3) * s;
+            out[4 * n + i] = (-m10 * c5 + m12 * c2 - m13 * c1) * s;
+            out[5 * n + i] = (m00 * c5 - m02 * c2 + m03 * c1) * s;
+            out[6 * n + i] = (-m30 * s5 + m32 * s2 - m33 * s1) * s;
+            out[7 * n + i] = (m20 * s5 - m22 * s2 + m23 * s1) * s;
+            out[8 * n + i] = (m10 * c4 - m11 * c2 + m13 * c0) * s;
+            out[9 * n + i] = (-m00 * c4 + m01 * c2 - m03 * c0) * s;
+            out[10 * n + i] = (m30 * s4 - m31 * s2 + m33 * s0) * s;
+            out[11 * n + i] = (-m20 * s4 + m21 * s2 - m23 * s0) * s;
+            out[12 * n + i] = (-m10 * c3 + m11 * c1 - m12 * c0) * s;
+            out[13 * n + i] = (m00 * c3 - m01 * c1 + m02 * c0) * s;
+            out[14 * n + i] = (-m30 * s3 + m31 * s1 - m32 * s0) * s;
+            out[15 * n + i] = (m20 * s3 - m21 * s1 + m22 * s0) * s;
+        }
+    }
+
+    private String describe() {
+        return size + " matrices of " + width + "x" + height;
+    }
+}
@@ -0,0 +1,242 @@
+package org.kurodev.matrix;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32;
+
+/**
+ * A versioned binary format for all matrix types, with optional compression and a checksum.
+ * <p>
+ * Unlike the bare format of {@link Matrix#toByteArray()}, every container starts with a 20 byte header:
+ * <ul>
+ *     <li>the magic number {@code "KMAT"}</li>
+ *     <li>the format {@link #VERSION version}</li>
+ *     <li>the byte order of the values, 0 for big-endian and 1 for little-endian</li>
+ *     <li>the type of the values, 1 for {@code double}, 2 for {@code float}, 3 for {@code int} and 4 for {@code long}</li>
+ *     <li>the layout, 0 for dense and 1 for sparse</li>
+ *     <li>the {@link Compression compression}</li>
+ *     <li>3 reserved bytes</li>
+ *     <li>the width and height</li>
+ * </ul>
+ * Dense matrices continue with all values in row-major order. Sparse matrices continue with the number of stored
+ * values, the row pointers, the columns and the stored values of their compressed sparse row layout.
+ * These values are written in blocks of at most 64KB, each of them compressed unless that does not make it smaller.
+ * The container ends with the CRC32 of the header and the uncompressed values.
+ * Everything except the values is big-endian.
+ * <p>
+ * {@link Matrix} is stored as {@code double}, {@link SparseMatrix} as sparse {@code double},
+ * and {@link FloatMatrix}, {@link IntMatrix} and {@link LongMatrix} with their own type.
+ * Other matrices are converted with {@link NumericMatrix#toMatrix()} first.
+ * Reading returns a matrix of the stored type and layout.
+ *
+ * @see #encode(NumericMatrix, Compression)
+ * @see #decode(byte[])
+ */
+public final class MatrixContainer {
+    /**
+     * The version written by this class. Containers of other versions are rejected when reading.
+     */
+    public static final int VERSION = 1;
+    private static final int MAGIC = 0x4B4D4154;
+    private static final int HEADER_BYTES = 20;
+    private static final long MAX_VALUES = Integer.MAX_VALUE - 8;
+
+    private static final byte BIG_ENDIAN = 0;
+    private static final byte LITTLE_ENDIAN = 1;
+    private static final byte DOUBLE = 1;
+    private static final byte FLOAT = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DENSE = 0;
+    private static final byte SPARSE = 1;
+
+    private MatrixContainer() {
+    }
+
+    /**
+     * @return the matrix in an uncompressed, big-endian container
+     * @see #encode(NumericMatrix, Compression)
+     */
+    public static byte[] encode(NumericMatrix<?> matrix) {
+        return encode(matrix, Compression.NONE);
+    }
+
+    /**
+     * @return the matrix in a big-endian container
+     * @throws UnsupportedOperationException if the matrix is an {@link ErrorMatrix}
+     */
+    public static byte[] encode(NumericMatrix<?> matrix, Compression compression) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(matrix, out, compression, ByteOrder.BIG_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the matrix as a container into the stream, without copying its values.
+     *
+     * @param out   the stream to write into, which is not closed by this method
+     * @param order the byte order of the values, for example {@link ByteOrder#nativeOrder()}
+     *              if the reader runs on the same platform
+     * @throws IOException                   if writing fails
+     * @throws UnsupportedOperationException if the matrix is an {@link ErrorMatrix}
+     */
+    public static void write(NumericMatrix<?> matrix, OutputStream out, Compression compression, ByteOrder order)
+            throws IOException {
+        if (matrix instanceof Matrix && ((Matrix) matrix).isError()) {
+            throw new UnsupportedOperationException("An error matrix can not be written");
+        }
+        if (!(matrix instanceof Matrix || matrix instanceof FloatMatrix
+                || matrix instanceof IntMatrix || matrix instanceof LongMatrix)) {
+            matrix = matrix.toMatrix();
+        }
+        byte type = matrix instanceof FloatMatrix ? FLOAT
+                : matrix instanceof IntMatrix ? INT
+                : matrix instanceof LongMatrix ? LONG
+                : DOUBLE;
+        byte layout = matrix instanceof SparseMatrix ? SPARSE : DENSE;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .put((byte) VERSION)
+                .put(order == ByteOrder.LITTLE_ENDIAN ? LITTLE_ENDIAN : BIG_ENDIAN)
+                .put(type)
+                .put(layout)
+                .put(compression.id)
+                .put(new byte[3])
+                .putInt(matrix.getWidth())
+                .putInt(matrix.getHeight());
+        CRC32 checksum = new CRC32();
+        checksum.update(header.array());
+        out.write(header.array());
+        try (BlockOutput blocks = new BlockOutput(out, order, checksum, compression != Compression.NONE)) {
+            if (layout == SPARSE) {
+                ((SparseMatrix) matrix).writeEntries(blocks);
+            } else if (type == FLOAT) {
+                float[] values = ((FloatMatrix) matrix).values();
+                blocks.putFloats(values, 0, values.length);
+            } else if (type == INT) {
+                int[] values = ((IntMatrix) matrix).values();
+                blocks.putInts(values, 0, values.length);
+            } else if (type == LONG) {
+                long[] values = ((LongMatrix) matrix).values();
+                blocks.putLongs(values, 0, values.length);
+            } else {
+                double[] values = ((Matrix) matrix).values();
+                blocks.putDoubles(values, 0, values.length);
+            }
+            blocks.finish();
+        }
+    }
+
+    /**
+     * @param data a container written by this class
+     * @return a matrix of the stored type and layout
+     * @throws IllegalArgumentException if the data is not a valid container, too short or corrupted
+     * @see #read(InputStream)
+     */
+    public static NumericMatrix<?> decode(byte[] data) {
+        try {
+            return read(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads one container from the stream. The stream is left right behind the container and is not closed.
+     *
+     * @return a matrix of the stored type and layout
+     * @throws IOException if reading fails, or the data is not a valid container or corrupted
+     */
+    public static NumericMatrix<?> read(InputStream in) throws IOException {
+        byte[] bytes = new byte[HEADER_BYTES];
+        new DataInputStream(in).readFully(bytes);
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a matrix container");
+        }
+        int version = header.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported container version " + version);
+        }
+        byte byteOrder = header.get();
+        byte type = header.get();
+        byte layout = header.get();
+        Compression compression = Compression.of(header.get());
+        header.position(header.position() + 3);
+        int width = header.getInt();
+        int height = header.getInt();
+        if (byteOrder != BIG_ENDIAN && byteOrder != LITTLE_ENDIAN) {
+            throw new IOException("Invalid byte order " + byteOrder);
+        }
+        if (type < DOUBLE || type > LONG) {
+            throw new IOException("Invalid value type " + type);
+        }
+        if (layout != DENSE && !(layout == SPARSE && type == DOUBLE)) {
+            throw new IOException("Invalid layout " + layout + " for value type " + type);
+        }
+        if (width < 0 || height < 0 || (long) width * height > MAX_VALUES) {
+            throw new IOException("Invalid dimensions " + width + "x" + height);
+        }
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes);
+        ByteOrder order = byteOrder == LITTLE_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        try (BlockInput blocks = new BlockInput(in, order, checksum, compression != Compression.NONE)) {
+            NumericMatrix<?> out;
+            int count = width * height;
+            if (layout == SPARSE) {
+                out = SparseMatrix.readEntries(width, height, blocks);
+            } else if (type == FLOAT) {
+                out = new FloatMatrix(width, height, blocks.getFloats(count));
+            } else if (type == INT) {
+                out = new IntMatrix(width, height, blocks.getInts(count));
+            } else if (type == LONG) {
+                out = new LongMatrix(width, height, blocks.getLongs(count));
+            } else {
+                out = new Matrix(width, height, blocks.getDoubles(count));
+            }
+            blocks.finish();
+            return out;
+        }
+    }
+
+    /**
+     * How the values of a container are compressed.
+     */
+    public enum Compression {
+        /**
+         * Values are stored as they are.
+         */
+        NONE(0),
+        /**
+         * Every block of values is compressed with {@link java.util.zip.Deflater}. Works best for sparse matrices
+         * and matrices with many repeated values, blocks of random values are stored uncompressed.
+         */
+        DEFLATE(1);
+
+        private final byte id;
+
+        Compression(int id) {
+            this.id = (byte) id;
+        }
+
+        private static Compression of(byte id) throws IOException {
+            for (Compression compression : values()) {
+                if (compression.id == id) {
+                    return compression;
+                }
+            }
+            throw new IOException("Unsupported compression " + id);
+        }
+    }
+}
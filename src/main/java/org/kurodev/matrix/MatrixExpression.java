@@ -0,0 +1,187 @@
+package org.kurodev.matrix;
+
+import java.util.Arrays;
+
+/**
+ * A lazily evaluated chain of matrix operations, created by {@link Matrix#lazy()}.
+ * <p>
+ * Additions, subtractions and scalar multiplications are not computed right away, they are collected as
+ * a weighted sum {@code c1 * m1 + c2 * m2 + ...} of the operands. {@link #evaluate()} computes that sum in
+ * a single pass over memory, block by block, without materializing any intermediate matrix.
+ * Operations that are not elementwise, like {@link #multiply(Matrix)}, evaluate the expression first.
+ * <p>
+ * Expressions are immutable, every operation returns a new expression.
+ * The values of the operands are read when the expression is evaluated,
+ * changes to a {@link MutableMatrix} operand before that are part of the result.
+ * <pre>{@code
+ * Matrix normalized = a.lazy().add(b).subtract(c).scale(2).evaluate();
+ * }</pre>
+ *
+ * @implNote Scalars are folded into the weights of the operands, so {@code (a + b) * 2} is computed as
+ * {@code 2a + 2b}. The result may differ from the eager operations in the last bits.
+ */
+public final class MatrixExpression {
+    /**
+     * number of values summed up per operand before moving on to the next one.
+     * 16KB, the output block stays in the L1 cache until all operands have been added to it.
+     */
+    private static final int BLOCK = 2048;
+
+    private final int width;
+    private final int height;
+    private final Matrix[] operands;
+    private final double[] weights;
+    private final String error;
+
+    private MatrixExpression(int width, int height, Matrix[] operands, double[] weights, String error) {
+        this.width = width;
+        this.height = height;
+        this.operands = operands;
+        this.weights = weights;
+        this.error = error;
+    }
+
+    static MatrixExpression of(Matrix matrix) {
+        return new MatrixExpression(matrix.getWidth(), matrix.getHeight(), new Matrix[]{matrix}, new double[]{1}, null);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return true if one of the operations was invalid, {@link #evaluate()} will return an {@link ErrorMatrix}.
+     */
+    public boolean isError() {
+        return error != null;
+    }
+
+    /**
+     * @return this + other
+     */
+    public MatrixExpression add(Matrix other) {
+        return combine(other, 1);
+    }
+
+    /**
+     * @return this - other
+     */
+    public MatrixExpression subtract(Matrix other) {
+        return combine(other, -1);
+    }
+
+    /**
+     * @return this + other
+     */
+    public MatrixExpression add(MatrixExpression other) {
+        return combine(other, 1);
+    }
+
+    /**
+     * @return this - other
+     */
+    public MatrixExpression subtract(MatrixExpression other) {
+        return combine(other, -1);
+    }
+
+    /**
+     * @return this * scalar
+     */
+    public MatrixExpression scale(double scalar) {
+        if (isError()) {
+            return this;
+        }
+        double[] scaled = new double[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            scaled[i] = weights[i] * scalar;
+        }
+        return new MatrixExpression(width, height, operands, scaled, null);
+    }
+
+    /**
+     * Evaluates this expression and multiplies the result with the given matrix.
+     *
+     * @return a new expression starting at the product
+     * @see Matrix#multiply(Matrix)
+     */
+    public MatrixExpression multiply(Matrix other) {
+        if (isError()) {
+            return this;
+        }
+        Matrix product = evaluate().multiply(other);
+        if (product.isError()) {
+            return new MatrixExpression(width, height, operands, weights, product.toString());
+        }
+        return of(product);
+    }
+
+    /**
+     * Computes the value of this expression.
+     *
+     * @return a new matrix with the result
+     * @apiNote May return an {@link ErrorMatrix} if the dimensions of the operands did not match.
+     * @see Matrix#isError()
+     */
+    public Matrix evaluate() {
+        if (isError()) {
+            return operands[0].error(error);
+        }
+        if (operands.length == 1 && weights[0] == 1) {
+            //nothing to compute, but the result must not share the buffer of a mutable operand
+            return new Matrix(width, height, operands[0].toArray());
+        }
+        double[][] values = new double[operands.length][];
+        for (int i = 0; i < operands.length; i++) {
+            values[i] = operands[i].values();
+        }
+        int length = width * height;
+        double[] out = new double[length];
+        ArithmeticKernel kernel = ArithmeticKernel.INSTANCE;
+        for (int from = 0; from < length; from += BLOCK) {
+            int size = Math.min(BLOCK, length - from);
+            for (int i = 0; i < values.length; i++) {
+                kernel.axpy(weights[i], values[i], from, out, from, size);
+            }
+        }
+        return new Matrix(width, height, out);
+    }
+
+    private MatrixExpression combine(Matrix other, double weight) {
+        return combine(of(other), weight);
+    }
+
+    private MatrixExpression combine(MatrixExpression other, double weight) {
+        if (isError()) {
+            return this;
+        }
+        if (other.isError()) {
+            return new MatrixExpression(width, height, operands, weights, other.error);
+        }
+        if (width != other.width || height != other.height) {
+            return new MatrixExpression(width, height, operands, weights, "Dimensions of the 2 matrices are different."
+                    + width + "x" + height + " != " + other.width + "x" + other.height);
+        }
+        Matrix[] combinedOperands = Arrays.copyOf(operands, operands.length + other.operands.length);
+        double[] combinedWeights = Arrays.copyOf(weights, weights.length + other.weights.length);
+        int count = operands.length;
+        outer:
+        for (int i = 0; i < other.operands.length; i++) {
+            //the same matrix twice only needs to be read once
+            for (int j = 0; j < count; j++) {
+                if (combinedOperands[j] == other.operands[i]) {
+                    combinedWeights[j] += other.weights[i] * weight;
+                    continue outer;
+                }
+            }
+            combinedOperands[count] = other.operands[i];
+            combinedWeights[count] = other.weights[i] * weight;
+            count++;
+        }
+        return new MatrixExpression(width, height, Arrays.copyOf(combinedOperands, count),
+                Arrays.copyOf(combinedWeights, count), null);
+    }
+}
@@ -0,0 +1,241 @@
+package org.kurodev.matrix;
+
+/**
+ * Cache blocked kernel for the classical matrix product {@code C = A * B}.
+ * <p>
+ * All arrays are row-major. {@code B} is packed once into contiguous panels of
+ * {@link #BLOCK_INNER} x {@link #BLOCK_COLUMNS} values, so the innermost loop streams through
+ * one panel and one row segment of {@code C} without any strided access or per-cell allocation.
+ */
+final class MatrixMultiplication {
+    /**
+     * Rows of {@code A} and {@code C} processed per tile.
+     */
+    static final int BLOCK_ROWS = 64;
+    /**
+     * Length of the shared dimension processed per tile. 128 x 128 doubles make up a 128KB panel, which fits into L2.
+     */
+    static final int BLOCK_INNER = 128;
+    /**
+     * Columns of {@code B} and {@code C} processed per tile. One row segment of {@code C} takes 1KB of L1.
+     */
+    static final int BLOCK_COLUMNS = 128;
+
+    /**
+     * Number of multiply-add operations above which a product is split up into tasks of the {@link ExecutionStrategy}.
+     * Also the amount of work each of those tasks processes at most.
+     * The cofactor expansion and the Strassen-Winograd recursion compare their work against it as well.
+     */
+    private static volatile long parallelThreshold = 1L << 21;
+
+    private MatrixMultiplication() {
+    }
+
+    static long getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    static void setParallelThreshold(long threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive but was " + threshold);
+        }
+        parallelThreshold = threshold;
+    }
+
+    /**
+     * @param a       left operand with {@code rows * inner} values
+     * @param b       right operand with {@code inner * columns} values
+     * @param rows    height of {@code a}
+     * @param inner   width of {@code a} and height of {@code b}
+     * @param columns width of {@code b}
+     * @return the product with {@code rows * columns} values
+     */
+    static double[] multiply(double[] a, double[] b, int rows, int inner, int columns) {
+        return multiply(a, b, rows, inner, columns, ExecutionStrategy.sequential());
+    }
+
+    /**
+     * @param strategy runs the blocks of the product, if it exceeds the {@link #getParallelThreshold() threshold}
+     * @see #multiply(double[], double[], int, int, int)
+     */
+    static double[] multiply(double[] a, double[] b, int rows, int inner, int columns, ExecutionStrategy strategy) {
+        double[] c = new double[rows * columns];
+        multiply(a, b, c, rows, inner, columns, strategy);
+        return c;
+    }
+
+    /**
+     * Accumulates {@code a * b} into the zero-filled array {@code c}.
+     *
+     * @see #multiply(double[], double[], int, int, int, ExecutionStrategy)
+     */
+    static void multiply(double[] a, double[] b, double[] c, int rows, int inner, int columns,
+                         ExecutionStrategy strategy) {
+        multiplyPacked(a, pack(b, inner, columns), c, rows, inner, columns, strategy);
+    }
+
+    /**
+     * Accumulates {@code a * b} into the zero-filled array {@code c}.
+     *
+     * @param packed the right operand as returned by one of the {@code pack} methods
+     * @see #multiply(double[], double[], double[], int, int, int, ExecutionStrategy)
+     */
+    static void multiplyPacked(double[] a, double[] packed, double[] c, int rows, int inner, int columns,
+                               ExecutionStrategy strategy) {
+        long threshold = parallelThreshold;
+        if (!strategy.isParallel() || (long) rows * inner * columns <= threshold) {
+            multiply(a, packed, c, inner, columns, 0, rows, 0, columns);
+        } else {
+            split(a, packed, c, inner, columns, 0, rows, 0, columns, threshold, strategy);
+        }
+    }
+
+    /**
+     * Runs {@code range} over the rows {@code 0} to {@code rows}, split into blocks of the
+     * {@link ExecutionStrategy#getDefault() default strategy} once the work exceeds the threshold.
+     * Used by the products of the primitive specializations, see {@link PrimitiveMatrix}.
+     *
+     * @param operationsPerRow multiply-add operations needed for a single row
+     */
+    static void forRows(int rows, long operationsPerRow, RowRange range) {
+        forRows(rows, operationsPerRow, ExecutionStrategy.getDefault(), range);
+    }
+
+    /**
+     * @param strategy runs the blocks of rows, if the work exceeds the threshold
+     * @see #forRows(int, long, RowRange)
+     */
+    static void forRows(int rows, long operationsPerRow, ExecutionStrategy strategy, RowRange range) {
+        long threshold = parallelThreshold;
+        if (!strategy.isParallel() || rows * operationsPerRow <= threshold) {
+            range.run(0, rows);
+        } else {
+            splitRows(0, rows, operationsPerRow, threshold, strategy, range);
+        }
+    }
+
+    private static void splitRows(int fromRow, int toRow, long operationsPerRow, long threshold,
+                                  ExecutionStrategy strategy, RowRange range) {
+        if (toRow - fromRow < 2 || (toRow - fromRow) * operationsPerRow <= threshold) {
+            Cancellation.check();
+            range.run(fromRow, toRow);
+        } else {
+            int middle = (fromRow + toRow) >>> 1;
+            strategy.invokeAll(() -> splitRows(fromRow, middle, operationsPerRow, threshold, strategy, range),
+                    () -> splitRows(middle, toRow, operationsPerRow, threshold, strategy, range));
+        }
+    }
+
+    /**
+     * Rows {@code fromRow} (inclusive) to {@code toRow} (exclusive) of a product.
+     */
+    @FunctionalInterface
+    interface RowRange {
+        void run(int fromRow, int toRow);
+    }
+
+    /**
+     * Copies {@code b} into panels of {@link #BLOCK_INNER} rows and {@link #BLOCK_COLUMNS} columns.
+     * The panel starting at {@code (k, j)} begins at {@code k * columns + panelHeight * j}.
+     */
+    static double[] pack(double[] b, int inner, int columns) {
+        double[] packed = new double[inner * columns];
+        int pos = 0;
+        for (int kk = 0; kk < inner; kk += BLOCK_INNER) {
+            int kEnd = Math.min(kk + BLOCK_INNER, inner);
+            for (int jj = 0; jj < columns; jj += BLOCK_COLUMNS) {
+                int width = Math.min(jj + BLOCK_COLUMNS, columns) - jj;
+                for (int k = kk; k < kEnd; k++) {
+                    System.arraycopy(b, k * columns + jj, packed, pos, width);
+                    pos += width;
+                }
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Packs the values of a {@link MatrixView} into the same layout as {@link #pack(double[], int, int)},
+     * reading the value at {@code (j, k)} from {@code storage[rowOffsets[k] + columnOffsets[j]]}.
+     */
+    static double[] pack(double[] storage, int[] rowOffsets, int[] columnOffsets) {
+        int inner = rowOffsets.length;
+        int columns = columnOffsets.length;
+        double[] packed = new double[inner * columns];
+        int pos = 0;
+        for (int kk = 0; kk < inner; kk += BLOCK_INNER) {
+            int kEnd = Math.min(kk + BLOCK_INNER, inner);
+            for (int jj = 0; jj < columns; jj += BLOCK_COLUMNS) {
+                int jEnd = Math.min(jj + BLOCK_COLUMNS, columns);
+                for (int k = kk; k < kEnd; k++) {
+                    int row = rowOffsets[k];
+                    for (int j = jj; j < jEnd; j++) {
+                        packed[pos++] = storage[row + columnOffsets[j]];
+                    }
+                }
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Accumulates the rows {@code fromRow} (inclusive) to {@code toRow} (exclusive)
+     * and columns {@code fromColumn} to {@code toColumn} of {@code a * b} into {@code c}.
+     *
+     * @param packed     the right operand as returned by {@link #pack(double[], int, int)}
+     * @param fromColumn must be a multiple of {@link #BLOCK_COLUMNS}
+     * @param toColumn   must be a multiple of {@link #BLOCK_COLUMNS} or equal {@code columns}
+     */
+    static void multiply(double[] a, double[] packed, double[] c, int inner, int columns,
+                         int fromRow, int toRow, int fromColumn, int toColumn) {
+        final ArithmeticKernel kernel = ArithmeticKernel.INSTANCE;
+        for (int ii = fromRow; ii < toRow; ii += BLOCK_ROWS) {
+            Cancellation.check();
+            int iEnd = Math.min(ii + BLOCK_ROWS, toRow);
+            for (int jj = fromColumn; jj < toColumn; jj += BLOCK_COLUMNS) {
+                int width = Math.min(jj + BLOCK_COLUMNS, toColumn) - jj;
+                for (int kk = 0; kk < inner; kk += BLOCK_INNER) {
+                    int kEnd = Math.min(kk + BLOCK_INNER, inner);
+                    int panel = kk * columns + (kEnd - kk) * jj;
+                    for (int i = ii; i < iEnd; i++) {
+                        int aRow = i * inner;
+                        int cRow = i * columns + jj;
+                        int p = panel;
+                        for (int k = kk; k < kEnd; k++) {
+                            kernel.axpy(a[aRow + k], packed, p, c, cRow, width);
+                            p += width;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Recursively halves the larger side of the block of the result until the work fits the threshold.
+     * Every task writes a disjoint block of {@code c}, so no synchronization is needed.
+     */
+    private static void split(double[] a, double[] packed, double[] c, int inner, int columns,
+                              int fromRow, int toRow, int fromColumn, int toColumn,
+                              long threshold, ExecutionStrategy strategy) {
+        int rowSpan = toRow - fromRow;
+        int columnSpan = toColumn - fromColumn;
+        boolean canSplitRows = rowSpan > 1;
+        boolean canSplitColumns = columnSpan > BLOCK_COLUMNS;
+        if ((long) rowSpan * inner * columnSpan <= threshold || !(canSplitRows || canSplitColumns)) {
+            multiply(a, packed, c, inner, columns, fromRow, toRow, fromColumn, toColumn);
+        } else if (canSplitRows && (rowSpan >= columnSpan || !canSplitColumns)) {
+            int middle = fromRow + rowSpan / 2;
+            strategy.invokeAll(
+                    () -> split(a, packed, c, inner, columns, fromRow, middle, fromColumn, toColumn, threshold, strategy),
+                    () -> split(a, packed, c, inner, columns, middle, toRow, fromColumn, toColumn, threshold, strategy));
+        } else {
+            //column splits have to stay aligned with the packed panels
+            int blocks = (columnSpan + BLOCK_COLUMNS - 1) / BLOCK_COLUMNS;
+            int middle = fromColumn + (blocks / 2) * BLOCK_COLUMNS;
+            strategy.invokeAll(
+                    () -> split(a, packed, c, inner, columns, fromRow, toRow, fromColumn, middle, threshold, strategy),
+                    () -> split(a, packed, c, inner, columns, fromRow, toRow, middle, toColumn, threshold, strategy));
+        }
+    }
+}
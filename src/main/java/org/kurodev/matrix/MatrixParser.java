@@ -0,0 +1,317 @@
+package org.kurodev.matrix;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Single pass parser for the text format of {@link Matrix#toString()}.
+ * <p>
+ * Every line is a row, values are separated by anything that cannot be part of a number.
+ * Numbers may have a sign, a decimal point and an exponent, e.g. {@code -1.5e-3}. A comma separates values,
+ * unless the parser was created for decimal commas, where a comma between two digits is read as a decimal point.
+ * {@code NaN}, {@code Infinity} and {@code -Infinity} are read as written by {@link Double#toString(double)}.
+ * Lines without any number are skipped.
+ * <p>
+ * Input is read in chunks and values are collected in a growing {@code double[]}, so nothing is boxed and the
+ * input never has to be held in memory as a whole. Numbers with up to 15 significant digits and a decimal exponent
+ * of at most 22 are converted exactly without creating a String, anything else goes through
+ * {@link Double#parseDouble(String)}.
+ * <p>
+ * {@link #nextRow(Reader)} parses one row at a time for {@link MatrixReader}, only holding the values of that row.
+ */
+final class MatrixParser {
+    private static final int CHUNK_SIZE = 8192;
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final boolean decimalComma;
+    private double[] values = new double[1024];
+    private int count = 0;
+    private int width = -1;
+    private int height = 0;
+    private int rowLength = 0;
+
+    //state of the number currently being read
+    private final char[] token = new char[64];
+    private StringBuilder longToken;
+    private int tokenLength = 0;
+    private boolean negative;
+    private long mantissa;
+    private int digits;
+    private int significantDigits;
+    private int decimalExponent;
+    private boolean hasPoint;
+    private boolean pendingComma;
+    private boolean inExponent;
+    private boolean exponentNegative;
+    private int exponentDigits;
+    private int exponent;
+    private int mantissaEnd;
+    //NaN or Infinity while one of them is being read, otherwise null
+    private String word;
+    private int wordLength;
+
+    //chunk of the input of nextRow, which stops in the middle of a chunk once a row is complete
+    private char[] chunk;
+    private int chunkPosition;
+    private int chunkLength;
+
+    private MatrixParser(boolean decimalComma) {
+        this.decimalComma = decimalComma;
+    }
+
+    /**
+     * @return a parser for {@link #nextRow(Reader)}
+     */
+    static MatrixParser streaming() {
+        MatrixParser parser = new MatrixParser(false);
+        parser.chunk = new char[CHUNK_SIZE];
+        return parser;
+    }
+
+    /**
+     * @param decimalComma true to read a comma between two digits as a decimal point instead of a separator
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if the rows differ in length or there is no row at all
+     */
+    static Matrix parse(Reader reader, boolean decimalComma) throws IOException {
+        MatrixParser parser = new MatrixParser(decimalComma);
+        char[] chunk = new char[CHUNK_SIZE];
+        int read;
+        while ((read = reader.read(chunk)) != -1) {
+            for (int i = 0; i < read; i++) {
+                parser.accept(chunk[i]);
+            }
+        }
+        parser.endRow();
+        return parser.toMatrix();
+    }
+
+    /**
+     * Parses the input up to the end of the next row. Only the values of that row are held in memory.
+     *
+     * @return the values of the next row, {@code null} at the end of the input
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if the row differs in length from the previous rows
+     */
+    double[] nextRow(Reader reader) throws IOException {
+        while (true) {
+            while (chunkPosition < chunkLength) {
+                if (accept(chunk[chunkPosition++])) {
+                    return takeRow();
+                }
+            }
+            chunkLength = reader.read(chunk);
+            chunkPosition = 0;
+            if (chunkLength == -1) {
+                chunkLength = 0;
+                return endRow() ? takeRow() : null;
+            }
+        }
+    }
+
+    private double[] takeRow() {
+        double[] row = Arrays.copyOf(values, count);
+        count = 0;
+        return row;
+    }
+
+    /**
+     * @return the width of the rows read so far, -1 before the first row
+     */
+    int getWidth() {
+        return width;
+    }
+
+    private Matrix toMatrix() {
+        if (height == 0) {
+            throw new IllegalArgumentException("Matrix must have at least one row.");
+        }
+        double[] data = values.length == count ? values : Arrays.copyOf(values, count);
+        return new Matrix(width, height, data);
+    }
+
+    /**
+     * @return true if the character ended a row
+     */
+    private boolean accept(char c) {
+        if (word != null) {
+            if (word.charAt(wordLength) == c) {
+                if (++wordLength == word.length()) {
+                    endWord();
+                }
+                return false;
+            }
+            //not a value after all, the letters so far were a separator
+            endNumber();
+        }
+        if (c >= '0' && c <= '9') {
+            digit(c);
+        } else if (c == '.') {
+            if (tokenLength > 0 && (hasPoint || inExponent || pendingComma)) {
+                endNumber();
+            }
+            hasPoint = true;
+            append('.');
+        } else if (c == ',' && decimalComma) {
+            if (pendingComma || hasPoint || inExponent || digits == 0) {
+                endNumber();
+            } else {
+                //only a decimal separator if a digit follows
+                pendingComma = true;
+            }
+        } else if (c == 'e' || c == 'E') {
+            if (digits > 0 && !inExponent && !pendingComma) {
+                inExponent = true;
+                mantissaEnd = tokenLength;
+                append('e');
+            } else {
+                endNumber();
+            }
+        } else if (c == '-' || c == '+') {
+            if (inExponent && exponentDigits == 0 && tokenLength == mantissaEnd + 1) {
+                exponentNegative = c == '-';
+                append(c);
+            } else {
+                endNumber();
+                negative = c == '-';
+                append(c);
+            }
+        } else if (c == '\n') {
+            return endRow();
+        } else if ((c == 'N' || c == 'I') && digits == 0 && !hasPoint) {
+            //at most a sign has been read, which belongs to the word
+            word = c == 'N' ? "NaN" : "Infinity";
+            wordLength = 1;
+        } else {
+            endNumber();
+        }
+        return false;
+    }
+
+    private void endWord() {
+        if (word.equals("NaN")) {
+            add(Double.NaN);
+        } else {
+            add(negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+        }
+        rowLength++;
+        endNumber();
+    }
+
+    private void digit(char c) {
+        int value = c - '0';
+        if (inExponent) {
+            exponentDigits++;
+            if (exponent < 100_000) {
+                exponent = exponent * 10 + value;
+            }
+            append(c);
+            return;
+        }
+        if (pendingComma) {
+            pendingComma = false;
+            hasPoint = true;
+            append('.');
+        }
+        digits++;
+        if (significantDigits > 0 || value != 0) {
+            significantDigits++;
+            if (significantDigits <= 18) {
+                mantissa = mantissa * 10 + value;
+                if (hasPoint) {
+                    decimalExponent--;
+                }
+            } else if (!hasPoint) {
+                decimalExponent++;
+            }
+        } else if (hasPoint) {
+            decimalExponent--;
+        }
+        append(c);
+    }
+
+    private void append(char c) {
+        if (tokenLength < token.length) {
+            token[tokenLength] = c;
+        } else {
+            if (longToken == null) {
+                longToken = new StringBuilder(token.length * 2);
+            }
+            if (tokenLength == token.length) {
+                longToken.setLength(0);
+                longToken.append(token);
+            }
+            longToken.append(c);
+        }
+        tokenLength++;
+    }
+
+    private void endNumber() {
+        pendingComma = false;
+        word = null;
+        if (digits > 0) {
+            if (inExponent && exponentDigits == 0) {
+                //a trailing "e" or "e-" is not part of the number
+                tokenLength = mantissaEnd;
+                inExponent = false;
+            }
+            add(toDouble());
+            rowLength++;
+        }
+        tokenLength = 0;
+        negative = false;
+        mantissa = 0;
+        digits = 0;
+        significantDigits = 0;
+        decimalExponent = 0;
+        hasPoint = false;
+        inExponent = false;
+        exponentNegative = false;
+        exponentDigits = 0;
+        exponent = 0;
+    }
+
+    private double toDouble() {
+        int scale = decimalExponent + (exponentNegative ? -exponent : exponent);
+        if (significantDigits <= MAX_FAST_DIGITS && Math.abs(scale) < POWERS_OF_TEN.length) {
+            //both the mantissa and the power of ten are exact doubles, so a single operation rounds correctly
+            double value = mantissa;
+            value = scale < 0 ? value / POWERS_OF_TEN[-scale] : value * POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        String number = tokenLength <= token.length
+                ? new String(token, 0, tokenLength)
+                : longToken.substring(0, tokenLength);
+        return Double.parseDouble(number);
+    }
+
+    private void add(double value) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[count++] = value;
+    }
+
+    /**
+     * @return false if the row did not contain any number and has been skipped
+     */
+    private boolean endRow() {
+        endNumber();
+        if (rowLength == 0) {
+            return false;
+        }
+        if (width == -1) {
+            width = rowLength;
+        } else if (width != rowLength) {
+            throw new IllegalArgumentException("Matrix has differing line lengths");
+        }
+        height++;
+        rowLength = 0;
+        return true;
+    }
+}
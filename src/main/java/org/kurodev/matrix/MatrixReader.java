@@ -0,0 +1,223 @@
+package org.kurodev.matrix;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads a matrix row by row, without ever holding more than a row and a small buffer in memory.
+ * <p>
+ * The text readers parse the format of {@link Matrix#of(String)}, the binary readers the format of
+ * {@link Matrix#toByteArray()}. Both are written by {@link MatrixWriter}.
+ * <p>
+ * Closing the reader closes the underlying stream or channel.
+ *
+ * @see MatrixWriter
+ */
+public abstract class MatrixReader implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private int rows;
+
+    private MatrixReader() {
+    }
+
+    /**
+     * @param in the source of the text, which is buffered by the reader
+     */
+    public static MatrixReader text(Reader in) {
+        return new TextReader(in);
+    }
+
+    /**
+     * Reads UTF-8 encoded text.
+     */
+    public static MatrixReader text(InputStream in) {
+        return text(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads UTF-8 encoded text.
+     */
+    public static MatrixReader text(ReadableByteChannel in) {
+        return text(Channels.newReader(in, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the width and height right away.
+     *
+     * @throws IOException if the header cannot be read or is invalid
+     */
+    public static MatrixReader binary(InputStream in) throws IOException {
+        return binary(Channels.newChannel(in));
+    }
+
+    /**
+     * Reads the width and height right away.
+     *
+     * @throws IOException if the header cannot be read or is invalid
+     */
+    public static MatrixReader binary(ReadableByteChannel in) throws IOException {
+        return new BinaryReader(in);
+    }
+
+    /**
+     * @return the number of values in every row. -1 for a text reader until the first row has been read
+     */
+    public abstract int getWidth();
+
+    /**
+     * @return the number of rows. -1 for a text reader, as the text format does not contain it
+     */
+    public abstract int getHeight();
+
+    /**
+     * @return the number of rows read so far
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * @return the values of the next row, {@code null} after the last row
+     * @throws IOException              if reading fails or a binary matrix ends early
+     * @throws IllegalArgumentException if a text row differs in length from the previous rows
+     */
+    public double[] readRow() throws IOException {
+        double[] row = nextRow();
+        if (row != null) {
+            rows++;
+        }
+        return row;
+    }
+
+    abstract double[] nextRow() throws IOException;
+
+    /**
+     * Reads all remaining rows into a matrix, which is the only time the whole matrix is held in memory.
+     *
+     * @throws IOException              if reading fails
+     * @throws IllegalArgumentException if there are no rows left or a text row differs in length
+     */
+    public Matrix readMatrix() throws IOException {
+        double[] values = new double[0];
+        int count = 0;
+        int height = 0;
+        double[] row;
+        while ((row = readRow()) != null) {
+            if (count + row.length > values.length) {
+                values = Arrays.copyOf(values, Math.max(count + row.length, values.length * 2));
+            }
+            System.arraycopy(row, 0, values, count, row.length);
+            count += row.length;
+            height++;
+        }
+        if (height == 0) {
+            throw new IllegalArgumentException("Matrix must have at least one row.");
+        }
+        return new Matrix(getWidth(), height, values.length == count ? values : Arrays.copyOf(values, count));
+    }
+
+    private static final class TextReader extends MatrixReader {
+        private final Reader in;
+        private final MatrixParser parser = MatrixParser.streaming();
+
+        TextReader(Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        public int getWidth() {
+            return parser.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return -1;
+        }
+
+        @Override
+        double[] nextRow() throws IOException {
+            return parser.nextRow(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static final class BinaryReader extends MatrixReader {
+        private final ReadableByteChannel in;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        private final int width;
+        private final int height;
+
+        BinaryReader(ReadableByteChannel in) throws IOException {
+            this.in = in;
+            buffer.limit(0);
+            fill(Integer.BYTES * 2);
+            width = buffer.getInt();
+            height = buffer.getInt();
+            if (width < 0 || height < 0) {
+                throw new IOException("Invalid dimensions " + width + "x" + height);
+            }
+        }
+
+        @Override
+        public int getWidth() {
+            return width;
+        }
+
+        @Override
+        public int getHeight() {
+            return height;
+        }
+
+        @Override
+        double[] nextRow() throws IOException {
+            if (getRowCount() == height) {
+                return null;
+            }
+            double[] row = new double[width];
+            int offset = 0;
+            while (offset < width) {
+                if (buffer.remaining() < Double.BYTES) {
+                    fill(Double.BYTES);
+                }
+                int count = Math.min(width - offset, buffer.remaining() / Double.BYTES);
+                buffer.asDoubleBuffer().get(row, offset, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                offset += count;
+            }
+            return row;
+        }
+
+        /**
+         * Reads until at least the given number of bytes is buffered.
+         */
+        private void fill(int bytes) throws IOException {
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (in.read(buffer) < 0) {
+                    throw new EOFException("Matrix data ended after " + getRowCount() + " of " + height + " rows");
+                }
+            }
+            buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.kurodev.matrix;
+
+import java.util.Objects;
+
+/**
+ * A read-only window onto the values of another matrix, without copying them.
+ * <p>
+ * The value at {@code (x, y)} is read from {@code storage[rowOffsets[y] + columnOffsets[x]]}. Transposing swaps
+ * the two offset arrays, windows and minors select a part of them, so views of views read the original
+ * storage directly instead of going through every intermediate view.
+ * <p>
+ * The storage of a {@link Matrix} never changes and is shared as is. A {@link MutableMatrix} copies its values on
+ * the next modification (copy on write), other subclasses are copied when the view is created.
+ * A view therefore never changes.
+ * Operations that need the values in row-major order work on a copy, {@link Matrix#multiply(Matrix)} with a view
+ * as right operand packs the values straight from the storage.
+ *
+ * @see Matrix#transposedView()
+ * @see Matrix#rowView(int)
+ * @see Matrix#columnView(int)
+ * @see Matrix#subMatrixView(int, int, int, int)
+ * @see Matrix#minorView(int, int)
+ */
+final class MatrixView extends Matrix {
+    private static final double[] NO_VALUES = new double[0];
+
+    private final double[] storage;
+    private final int[] rowOffsets;
+    private final int[] columnOffsets;
+
+    private MatrixView(double[] storage, int[] rowOffsets, int[] columnOffsets) {
+        super(columnOffsets.length, rowOffsets.length, NO_VALUES);
+        this.storage = storage;
+        this.rowOffsets = rowOffsets;
+        this.columnOffsets = columnOffsets;
+    }
+
+    /**
+     * @return the given view, or a view of the whole matrix
+     */
+    static MatrixView of(Matrix matrix) {
+        if (matrix instanceof MatrixView) {
+            return (MatrixView) matrix;
+        }
+        int width = matrix.getWidth();
+        int[] rowOffsets = new int[matrix.getHeight()];
+        for (int y = 0; y < rowOffsets.length; y++) {
+            rowOffsets[y] = y * width;
+        }
+        int[] columnOffsets = new int[width];
+        for (int x = 0; x < width; x++) {
+            columnOffsets[x] = x;
+        }
+        return new MatrixView(matrix.share(), rowOffsets, columnOffsets);
+    }
+
+    MatrixView transposed() {
+        //the offset arrays are never modified, so views can share them
+        return new MatrixView(storage, columnOffsets, rowOffsets);
+    }
+
+    MatrixView window(int x, int y, int width, int height) {
+        Objects.checkFromIndexSize(x, width, getWidth());
+        Objects.checkFromIndexSize(y, height, getHeight());
+        return new MatrixView(storage, slice(rowOffsets, y, height), slice(columnOffsets, x, width));
+    }
+
+    MatrixView without(int excludedX, int excludedY) {
+        return new MatrixView(storage, remove(rowOffsets, excludedY), remove(columnOffsets, excludedX));
+    }
+
+    private static int[] slice(int[] offsets, int from, int length) {
+        if (from == 0 && length == offsets.length) {
+            return offsets;
+        }
+        int[] out = new int[length];
+        System.arraycopy(offsets, from, out, 0, length);
+        return out;
+    }
+
+    private static int[] remove(int[] offsets, int index) {
+        Objects.checkIndex(index, offsets.length);
+        int[] out = new int[offsets.length - 1];
+        System.arraycopy(offsets, 0, out, 0, index);
+        System.arraycopy(offsets, index + 1, out, index, out.length - index);
+        return out;
+    }
+
+    @Override
+    public double get(int x, int y) {
+        return storage[rowOffsets[y] + columnOffsets[x]];
+    }
+
+    @Override
+    double[] values() {
+        int width = getWidth();
+        double[] out = new double[width * getHeight()];
+        for (int y = 0; y < rowOffsets.length; y++) {
+            int row = rowOffsets[y];
+            int pos = y * width;
+            for (int x = 0; x < width; x++) {
+                out[pos + x] = storage[row + columnOffsets[x]];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * @return the values in the panel layout of {@link MatrixMultiplication#pack(double[], int, int)}
+     */
+    double[] pack() {
+        return MatrixMultiplication.pack(storage, rowOffsets, columnOffsets);
+    }
+}
@@ -0,0 +1,315 @@
+package org.kurodev.matrix;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes a matrix row by row, without ever holding more than a row and a small buffer in memory.
+ * <p>
+ * The text writers produce the format of {@link Matrix#toString(int)}, which {@link Matrix#of(String)} and
+ * {@link MatrixReader#text(java.io.Reader)} parse. The binary writers produce the format of
+ * {@link Matrix#toByteArray()}, which {@link Matrix#of(byte[])} and {@link MatrixReader#binary(java.io.InputStream)}
+ * read. The binary format starts with the height, so binary writers have to be given the number of rows up front.
+ * <p>
+ * Closing the writer closes the underlying stream or channel.
+ *
+ * @see MatrixReader
+ */
+public abstract class MatrixWriter implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int width;
+    private int rows;
+
+    private MatrixWriter(int width) {
+        if (width < 0) {
+            throw new IllegalArgumentException("Invalid width " + width);
+        }
+        this.width = width;
+    }
+
+    /**
+     * Writes every value with as many digits as needed to read back the exact same double.
+     *
+     * @param out the destination of the text, which is buffered by the writer
+     */
+    public static MatrixWriter text(Writer out, int width) {
+        return new TextWriter(out, width, -1);
+    }
+
+    /**
+     * Writes every value rounded half-up to the given number of decimal places, like {@link Matrix#toString(int)}.
+     *
+     * @param out    the destination of the text, which is buffered by the writer
+     * @param digits the number of decimal places of every value
+     */
+    public static MatrixWriter text(Writer out, int width, int digits) {
+        if (digits < 0) {
+            throw new IllegalArgumentException("Invalid number of decimal places " + digits);
+        }
+        return new TextWriter(out, width, digits);
+    }
+
+    /**
+     * Writes UTF-8 encoded text with as many digits as needed to read back the exact same double.
+     */
+    public static MatrixWriter text(OutputStream out, int width) {
+        return text(new OutputStreamWriter(out, StandardCharsets.UTF_8), width);
+    }
+
+    /**
+     * Writes UTF-8 encoded text with as many digits as needed to read back the exact same double.
+     */
+    public static MatrixWriter text(WritableByteChannel out, int width) {
+        return text(Channels.newWriter(out, StandardCharsets.UTF_8), width);
+    }
+
+    /**
+     * Writes the width and height, followed by the rows as they are written.
+     *
+     * @param height the number of rows that will be written
+     */
+    public static MatrixWriter binary(OutputStream out, int width, int height) throws IOException {
+        return binary(Channels.newChannel(out), width, height);
+    }
+
+    /**
+     * Writes the width and height, followed by the rows as they are written.
+     *
+     * @param height the number of rows that will be written
+     */
+    public static MatrixWriter binary(WritableByteChannel out, int width, int height) throws IOException {
+        return new BinaryWriter(out, width, height);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the number of rows written so far
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * @param row the values of the next row
+     * @throws IllegalArgumentException if the row does not have exactly {@link #getWidth()} values
+     * @throws IllegalStateException    if a binary writer already received all of its rows
+     */
+    public void writeRow(double[] row) throws IOException {
+        if (row.length != width) {
+            throw new IllegalArgumentException("Expected " + width + " values but got " + row.length);
+        }
+        writeRow(row, 0);
+    }
+
+    /**
+     * @param values contains the next row at {@code offset}
+     * @throws IndexOutOfBoundsException if there are less than {@link #getWidth()} values behind the offset
+     * @throws IllegalStateException     if a binary writer already received all of its rows
+     */
+    public void writeRow(double[] values, int offset) throws IOException {
+        Objects.checkFromIndexSize(offset, width, values.length);
+        checkRow(rows);
+        append(values, offset);
+        rows++;
+    }
+
+    /**
+     * Writes all rows of the matrix.
+     *
+     * @throws IllegalArgumentException if the matrix is not as wide as the writer
+     * @throws IllegalStateException    if a binary writer does not have room for all of its rows
+     */
+    public void writeRows(Matrix matrix) throws IOException {
+        if (matrix.getWidth() != width) {
+            throw new IllegalArgumentException("Expected a matrix with a width of " + width + " but got "
+                    + matrix.getDimension());
+        }
+        checkRow(rows + matrix.getHeight() - 1);
+        if (matrix instanceof OffHeapMatrix) {
+            //one row at a time instead of a copy of all values on the heap
+            double[] row = new double[width];
+            for (int y = 0; y < matrix.getHeight(); y++) {
+                for (int x = 0; x < width; x++) {
+                    row[x] = matrix.get(x, y);
+                }
+                writeRow(row, 0);
+            }
+        } else {
+            double[] values = matrix.values();
+            for (int y = 0; y < matrix.getHeight(); y++) {
+                writeRow(values, y * width);
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the row with the given index can not be written
+     */
+    void checkRow(int row) {
+    }
+
+    abstract void append(double[] values, int offset) throws IOException;
+
+    /**
+     * Writes everything that is buffered to the underlying stream or channel.
+     */
+    public abstract void flush() throws IOException;
+
+    private static final class TextWriter extends MatrixWriter {
+        private final Writer out;
+        private final int digits;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int length;
+        private boolean closed;
+
+        TextWriter(Writer out, int width, int digits) {
+            super(width);
+            this.out = out;
+            this.digits = digits;
+        }
+
+        @Override
+        void append(double[] values, int offset) throws IOException {
+            for (int x = 0; x < getWidth(); x++) {
+                append(format(values[offset + x]));
+                append(' ');
+            }
+            append('\n');
+        }
+
+        private String format(double value) {
+            if (digits < 0 || !Double.isFinite(value)) {
+                return Double.toString(value);
+            }
+            //rounds the shortest representation half-up like Formatter, so this matches String.format("%.nf")
+            String number = new BigDecimal(Double.toString(Math.abs(value)))
+                    .setScale(digits, RoundingMode.HALF_UP)
+                    .toPlainString();
+            return Double.doubleToRawLongBits(value) < 0 ? "-" + number : number;
+        }
+
+        private void append(String text) throws IOException {
+            if (buffer.length - length < text.length()) {
+                flushBuffer();
+                if (text.length() > buffer.length) {
+                    out.write(text);
+                    return;
+                }
+            }
+            text.getChars(0, text.length(), buffer, length);
+            length += text.length();
+        }
+
+        private void append(char c) throws IOException {
+            if (length == buffer.length) {
+                flushBuffer();
+            }
+            buffer[length++] = c;
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try (out) {
+                flushBuffer();
+            }
+        }
+    }
+
+    private static final class BinaryWriter extends MatrixWriter {
+        private final WritableByteChannel out;
+        private final int height;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.BIG_ENDIAN);
+
+        BinaryWriter(WritableByteChannel out, int width, int height) throws IOException {
+            super(width);
+            if (height < 0) {
+                throw new IllegalArgumentException("Invalid height " + height);
+            }
+            this.out = out;
+            this.height = height;
+            buffer.putInt(width).putInt(height);
+        }
+
+        @Override
+        void checkRow(int row) {
+            if (row >= height) {
+                throw new IllegalStateException("All " + height + " rows have already been written");
+            }
+        }
+
+        @Override
+        void append(double[] values, int offset) throws IOException {
+            int length = getWidth();
+            while (length > 0) {
+                int count = Math.min(length, buffer.remaining() / Double.BYTES);
+                if (count == 0) {
+                    flushBuffer();
+                    continue;
+                }
+                buffer.asDoubleBuffer().put(values, offset, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushBuffer();
+        }
+
+        /**
+         * @throws IOException if fewer rows than announced have been written, the data would not be readable
+         */
+        @Override
+        public void close() throws IOException {
+            if (!out.isOpen()) {
+                return;
+            }
+            try (out) {
+                flushBuffer();
+            }
+            if (getRowCount() < height) {
+                throw new IOException("Only " + getRowCount() + " of " + height + " rows have been written");
+            }
+        }
+    }
+}
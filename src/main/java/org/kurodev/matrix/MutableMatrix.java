@@ -0,0 +1,180 @@
+package org.kurodev.matrix;
+
+import java.util.Objects;
+
+/**
+ * A Matrix whose values can be changed after creation.
+ * <p>
+ * Meant for iterative algorithms which would otherwise allocate a new matrix per step.
+ * Every modifying method updates the matrix itself and returns it, cached values like the determinant
+ * are dropped or updated accordingly. Methods inherited from {@link Matrix} still return new instances.
+ * Views created from a mutable matrix keep the values it had at the time, the next modification copies them.
+ * <p>
+ * Unlike {@link Matrix}, a mutable matrix is not thread-safe and has to be published safely by the caller.
+ * Views are immutable and can be shared between threads freely.
+ *
+ * @see Matrix#multiplyInto(Matrix, MutableMatrix)
+ * @see Matrix#transposeInto(TranspositionType, MutableMatrix)
+ */
+public class MutableMatrix extends Matrix {
+    private static final double[] NO_VALUES = new double[0];
+
+    /**
+     * Replaced by a copy on the first modification after a view was created.
+     */
+    private double[] values;
+    /**
+     * true while views might read {@link #values}, the next modification has to copy it first.
+     */
+    private boolean shared = false;
+
+    protected MutableMatrix(int width, int height) {
+        this(width, height, new double[width * height]);
+    }
+
+    protected MutableMatrix(int width, int height, double[] data) {
+        super(width, height, NO_VALUES);
+        this.values = data;
+    }
+
+    /**
+     * @return a zero-filled mutable matrix
+     */
+    public static MutableMatrix of(int width, int height) {
+        return new MutableMatrix(width, height);
+    }
+
+    /**
+     * @param matrix the matrix to copy the values from
+     * @return a mutable copy of the given matrix
+     */
+    public static MutableMatrix of(Matrix matrix) {
+        return new MutableMatrix(matrix.getWidth(), matrix.getHeight(), matrix.toArray());
+    }
+
+    /**
+     * @param val the new value
+     * @param x   row indicator
+     * @param y   column indicator
+     * @return this matrix
+     * @throws IndexOutOfBoundsException if the given integers are out of bounds of the matrix.
+     */
+    public MutableMatrix setValue(double val, int x, int y) {
+        set(val, x, y);
+        return this;
+    }
+
+    /**
+     * Adds the values of the other matrix to this one.
+     *
+     * @return this matrix
+     * @throws IllegalArgumentException if the dimensions of the matrices differ
+     * @see #add(Matrix)
+     */
+    public MutableMatrix addInPlace(Matrix other) {
+        checkDimension(other);
+        double[] values = writableValues();
+        ArithmeticKernel.INSTANCE.add(values, other.values(), values);
+        return this;
+    }
+
+    /**
+     * Subtracts the values of the other matrix from this one.
+     *
+     * @return this matrix
+     * @throws IllegalArgumentException if the dimensions of the matrices differ
+     * @see #subtract(Matrix)
+     */
+    public MutableMatrix subtractInPlace(Matrix other) {
+        checkDimension(other);
+        double[] values = writableValues();
+        ArithmeticKernel.INSTANCE.subtract(values, other.values(), values);
+        return this;
+    }
+
+    /**
+     * Multiplies every value of this matrix by the given factor.
+     * A previously computed determinant is kept up to date instead of being discarded.
+     *
+     * @return this matrix
+     * @see #multiply(double)
+     */
+    public MutableMatrix scaleInPlace(double scalar) {
+        scaleDeterminant(scalar);
+        detach();
+        ArithmeticKernel.INSTANCE.scale(values, scalar, values);
+        return this;
+    }
+
+    /**
+     * Overwrites all values of this matrix with the values of the other matrix.
+     *
+     * @return this matrix
+     * @throws IllegalArgumentException if the dimensions of the matrices differ
+     */
+    public MutableMatrix setAll(Matrix other) {
+        checkDimension(other);
+        double[] values = writableValues();
+        System.arraycopy(other.values(), 0, values, 0, values.length);
+        return this;
+    }
+
+    /**
+     * @return an immutable {@link Matrix} with a copy of the current values
+     */
+    public Matrix snapshot() {
+        return new Matrix(getWidth(), getHeight(), toArray());
+    }
+
+    @Override
+    public MutableMatrix copy(boolean includeValues) {
+        if (includeValues) {
+            return of(this);
+        }
+        return of(getWidth(), getHeight());
+    }
+
+    @Override
+    public double get(int x, int y) {
+        Objects.checkIndex(x, getWidth());
+        return values[y * getWidth() + x];
+    }
+
+    @Override
+    double[] values() {
+        return values;
+    }
+
+    @Override
+    double[] writableValues() {
+        invalidate();
+        detach();
+        return values;
+    }
+
+    /**
+     * @return the values for a view to read from. The array is not copied, later modifications of this matrix are.
+     */
+    @Override
+    double[] share() {
+        shared = true;
+        return values;
+    }
+
+    /**
+     * Copy on write: views keep reading the old array, this matrix continues on a copy.
+     */
+    private void detach() {
+        if (shared) {
+            values = values.clone();
+            shared = false;
+        }
+    }
+
+    private void checkDimension(Matrix other) {
+        if (!dimensionMatches(other)) {
+            throw new IllegalArgumentException("Dimensions of the 2 matrices are different."
+                    + getDimension() + " != " + other.getDimension());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.kurodev.matrix;
+
+/**
+ * Operations shared by {@link Matrix} and its primitive specializations {@link FloatMatrix}, {@link IntMatrix}
+ * and {@link LongMatrix}.
+ * <p>
+ * Every type computes with its own primitive values and only combines with matrices of the same type.
+ * Other types have to be converted first, for example with {@link FloatMatrix#of(NumericMatrix)}
+ * or {@link #toMatrix()}.
+ *
+ * @param <M> the type of the matrices taking part in the operations
+ */
+public interface NumericMatrix<M extends NumericMatrix<M>> {
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * @return the value at the given position, converted to a double
+     */
+    double getAsDouble(int x, int y);
+
+    /**
+     * @return the elementwise sum of both matrices
+     */
+    M add(M other);
+
+    /**
+     * @return the elementwise difference {@code this - other}
+     */
+    M subtract(M other);
+
+    /**
+     * @return the matrix product {@code this * other}
+     */
+    M multiply(M other);
+
+    /**
+     * @return the transposed matrix, {@code getWidth() x getHeight()}
+     */
+    M transpose();
+
+    /**
+     * @return the width and height as big-endian ints, followed by all values in row-major order
+     */
+    byte[] toByteArray();
+
+    /**
+     * @return a double matrix with the same values
+     */
+    Matrix toMatrix();
+}
@@ -0,0 +1,501 @@
+package org.kurodev.matrix;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A Matrix whose values live outside of the garbage collected heap, in direct or memory mapped buffers.
+ * <p>
+ * The values are stored as big-endian doubles in row-major order, split into buffers of at most
+ * {@code 2^27} values (1GB) each. That is the layout of {@link Matrix#toByteArray()} behind its 8 byte header,
+ * so files written by {@link Matrix#writeTo(Path)} can be {@link #map(Path) mapped} without reading them.
+ * <p>
+ * {@link #get(int, int)}, {@link #setValue(double, int, int)}, {@link #add(Matrix)}, {@link #subtract(Matrix)},
+ * {@link #multiply(double)}, {@link #multiply(Matrix)}, {@link #transpose()} and {@link #writeTo(Path)}
+ * work on the buffers directly, one tile at a time, and return off-heap matrices.
+ * Every other operation works on a copy of the values on the heap.
+ * <p>
+ * {@link #close()} releases the memory right away instead of waiting for the garbage collector. The matrix must not
+ * be used by any thread afterwards, including while it is being closed. Direct buffers count towards
+ * {@code -XX:MaxDirectMemorySize}.
+ * <p>
+ * Releasing early relies on {@code sun.misc.Unsafe.invokeCleaner}, which is looked up reflectively.
+ * On runtimes without it, or when the system property {@value #RELEASE_PROPERTY} is {@code false},
+ * {@link #close()} still flushes the matrix and makes it unusable, but the memory is only released, and a mapped file
+ * only unmapped, once the garbage collector collects the buffers.
+ *
+ * @see #allocate(int, int)
+ * @see #of(Matrix)
+ * @see #map(Path)
+ * @see #create(Path, int, int)
+ */
+public final class OffHeapMatrix extends Matrix implements AutoCloseable {
+    /**
+     * Set to {@code false} to leave releasing the memory of closed matrices to the garbage collector.
+     */
+    public static final String RELEASE_PROPERTY = "org.kurodev.matrix.offheap.release";
+    private static final double[] NO_VALUES = new double[0];
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int CHUNK_SHIFT = 27;
+    private static final int CHUNK_VALUES = 1 << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_VALUES - 1;
+    /**
+     * Side length of the square tiles copied onto the heap by the products and transpositions.
+     */
+    private static final int TILE = 256;
+    /**
+     * Number of values copied onto the heap at once by the elementwise operations.
+     */
+    private static final int BLOCK = 8192;
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //the buffers are still released once they are garbage collected
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final ByteBuffer[] buffers;
+    private volatile DoubleBuffer[] chunks;
+
+    private OffHeapMatrix(int width, int height, ByteBuffer[] buffers) {
+        super(width, height, NO_VALUES);
+        this.buffers = buffers;
+        DoubleBuffer[] chunks = new DoubleBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            chunks[i] = buffers[i].order(ByteOrder.BIG_ENDIAN).asDoubleBuffer();
+        }
+        this.chunks = chunks;
+    }
+
+    /**
+     * @return a zero-filled matrix in direct memory
+     */
+    public static OffHeapMatrix allocate(int width, int height) {
+        long count = checkSize(width, height);
+        ByteBuffer[] buffers = new ByteBuffer[chunkCount(count)];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(chunkLength(count, i) * Double.BYTES);
+        }
+        return new OffHeapMatrix(width, height, buffers);
+    }
+
+    /**
+     * @return a copy of the given matrix in direct memory
+     */
+    public static OffHeapMatrix of(Matrix matrix) {
+        OffHeapMatrix out = allocate(matrix.getWidth(), matrix.getHeight());
+        out.copyFrom(matrix);
+        return out;
+    }
+
+    /**
+     * Maps a file written by {@link Matrix#writeTo(Path)} or {@link Matrix#toByteArray()}.
+     * Values are read from the page cache on access, {@link #setValue(double, int, int)} writes through to the file.
+     *
+     * @throws IOException if the file cannot be mapped or is too short for its header
+     */
+    public static OffHeapMatrix map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("Expected at least " + HEADER_BYTES + " bytes but got " + fileSize);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            int width = header.getInt();
+            int height = header.getInt();
+            if (width < 0 || height < 0) {
+                throw new IOException("Invalid dimensions " + width + "x" + height);
+            }
+            long expectedLength = HEADER_BYTES + (long) width * height * Double.BYTES;
+            if (expectedLength > fileSize) {
+                throw new IOException("Expected " + expectedLength + " bytes but got " + fileSize);
+            }
+            return map(channel, width, height);
+        }
+    }
+
+    /**
+     * Creates a zero-filled file in the format of {@link Matrix#toByteArray()} and maps it.
+     * An existing file is overwritten.
+     *
+     * @throws IOException if the file cannot be created
+     */
+    public static OffHeapMatrix create(Path file, int width, int height) throws IOException {
+        checkSize(width, height);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(HEADER_BYTES).putInt(width).putInt(height).flip());
+            //mapping past the end grows the file, the new bytes are zero
+            return map(channel, width, height);
+        }
+    }
+
+    private static OffHeapMatrix map(FileChannel channel, int width, int height) throws IOException {
+        long count = (long) width * height;
+        ByteBuffer[] buffers = new ByteBuffer[chunkCount(count)];
+        for (int i = 0; i < buffers.length; i++) {
+            long position = HEADER_BYTES + ((long) i << CHUNK_SHIFT) * Double.BYTES;
+            buffers[i] = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                    (long) chunkLength(count, i) * Double.BYTES);
+        }
+        return new OffHeapMatrix(width, height, buffers);
+    }
+
+    private static long checkSize(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Invalid dimensions " + width + "x" + height);
+        }
+        return (long) width * height;
+    }
+
+    private static int chunkCount(long count) {
+        return (int) ((count + CHUNK_VALUES - 1) >>> CHUNK_SHIFT);
+    }
+
+    private static int chunkLength(long count, int chunk) {
+        return (int) Math.min(CHUNK_VALUES, count - ((long) chunk << CHUNK_SHIFT));
+    }
+
+    private DoubleBuffer[] chunks() {
+        DoubleBuffer[] chunks = this.chunks;
+        if (chunks == null) {
+            throw new IllegalStateException("The matrix has been closed");
+        }
+        return chunks;
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the given integers are out of bounds of the matrix.
+     * @throws IllegalStateException     if the matrix has been closed
+     */
+    @Override
+    public double get(int x, int y) {
+        long index = index(x, y);
+        return chunks()[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    /**
+     * @param val the new value
+     * @param x   row indicator
+     * @param y   column indicator
+     * @return this matrix
+     * @throws IndexOutOfBoundsException if the given integers are out of bounds of the matrix.
+     * @throws IllegalStateException     if the matrix has been closed
+     */
+    public OffHeapMatrix setValue(double val, int x, int y) {
+        long index = index(x, y);
+        DoubleBuffer[] chunks = chunks();
+        invalidate();
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), val);
+        return this;
+    }
+
+    private long index(int x, int y) {
+        Objects.checkIndex(x, getWidth());
+        Objects.checkIndex(y, getHeight());
+        return (long) y * getWidth() + x;
+    }
+
+    /**
+     * Copies {@code length} values starting at the row-major {@code index} into {@code out}.
+     */
+    private void read(long index, double[] out, int offset, int length) {
+        DoubleBuffer[] chunks = chunks();
+        while (length > 0) {
+            int position = (int) (index & CHUNK_MASK);
+            int count = Math.min(length, CHUNK_VALUES - position);
+            chunks[(int) (index >>> CHUNK_SHIFT)].get(position, out, offset, count);
+            index += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Copies {@code length} values from {@code values} to the row-major {@code index}.
+     */
+    private void write(long index, double[] values, int offset, int length) {
+        DoubleBuffer[] chunks = chunks();
+        while (length > 0) {
+            int position = (int) (index & CHUNK_MASK);
+            int count = Math.min(length, CHUNK_VALUES - position);
+            chunks[(int) (index >>> CHUNK_SHIFT)].put(position, values, offset, count);
+            index += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Copies a part of any matrix, off-heap or not, without copying the rest of it onto the heap.
+     */
+    private static void read(Matrix matrix, long index, double[] out, int offset, int length) {
+        if (matrix instanceof OffHeapMatrix) {
+            ((OffHeapMatrix) matrix).read(index, out, offset, length);
+        } else {
+            System.arraycopy(matrix.values(), (int) index, out, offset, length);
+        }
+    }
+
+    private void copyFrom(Matrix matrix) {
+        long count = (long) getWidth() * getHeight();
+        double[] block = new double[(int) Math.min(BLOCK, count)];
+        for (long index = 0; index < count; index += block.length) {
+            int length = (int) Math.min(block.length, count - index);
+            read(matrix, index, block, 0, length);
+            write(index, block, 0, length);
+        }
+    }
+
+    /**
+     * Copies all values onto the heap.
+     */
+    @Override
+    double[] values() {
+        long count = (long) getWidth() * getHeight();
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new UnsupportedOperationException("A " + getDimension() + " matrix does not fit into an array");
+        }
+        double[] out = new double[(int) count];
+        read(0, out, 0, out.length);
+        return out;
+    }
+
+    @Override
+    public double[] toArray() {
+        return values();
+    }
+
+    /**
+     * @return a new off-heap matrix with the sum
+     * @apiNote May return an {@link ErrorMatrix} if the matrices are of different dimensions.
+     */
+    @Override
+    public Matrix add(Matrix other) {
+        return combine(other, 1);
+    }
+
+    /**
+     * @return a new off-heap matrix with the difference
+     * @apiNote May return an {@link ErrorMatrix} if the matrices are of different dimensions.
+     */
+    @Override
+    public Matrix subtract(Matrix value) {
+        return combine(value, -1);
+    }
+
+    private Matrix combine(Matrix other, double sign) {
+        if (!dimensionMatches(other)) {
+            return error("Dimensions of the 2 matrices are different."
+                    + getDimension() + " != " + other.getDimension());
+        }
+        OffHeapMatrix out = allocate(getWidth(), getHeight());
+        long count = (long) getWidth() * getHeight();
+        double[] left = new double[(int) Math.min(BLOCK, count)];
+        double[] right = new double[left.length];
+        for (long index = 0; index < count; index += left.length) {
+            int length = (int) Math.min(left.length, count - index);
+            read(index, left, 0, length);
+            read(other, index, right, 0, length);
+            ArithmeticKernel.INSTANCE.axpy(sign, right, 0, left, 0, length);
+            out.write(index, left, 0, length);
+        }
+        return out;
+    }
+
+    /**
+     * @return a new off-heap matrix with the scaled values
+     */
+    @Override
+    public OffHeapMatrix multiply(double scalar) {
+        OffHeapMatrix out = allocate(getWidth(), getHeight());
+        long count = (long) getWidth() * getHeight();
+        double[] block = new double[(int) Math.min(BLOCK, count)];
+        for (long index = 0; index < count; index += block.length) {
+            int length = (int) Math.min(block.length, count - index);
+            read(index, block, 0, length);
+            for (int i = 0; i < length; i++) {
+                block[i] *= scalar;
+            }
+            out.write(index, block, 0, length);
+        }
+        return out;
+    }
+
+    /**
+     * Computes the product one tile of the result at a time, only copying the tiles of both operands it needs
+     * onto the heap. Rows of whole tiles run as tasks of the strategy once the product exceeds the
+     * {@link #getParallelThreshold() parallel threshold}, as every task copies all tiles of {@code other} again.
+     *
+     * @return a new off-heap matrix with the product
+     * @apiNote May return an {@link ErrorMatrix} if the width and height of the matrices do not fit.
+     */
+    @Override
+    public Matrix multiply(Matrix other, ExecutionStrategy strategy) {
+        if (getWidth() != other.getHeight()) {
+            if (other.getWidth() == getHeight()) {
+                return other.multiply(this, strategy);
+            }
+            return error("Width and height do not match.");
+        }
+        final int rows = getHeight();
+        final int inner = getWidth();
+        final int columns = other.getWidth();
+        OffHeapMatrix out = allocate(columns, rows);
+        int tileRows = (rows + TILE - 1) / TILE;
+        MatrixMultiplication.forRows(tileRows, (long) TILE * inner * columns, strategy, (fromTile, toTile) -> {
+            int toRow = Math.min(toTile * TILE, rows);
+            double[] a = new double[TILE * TILE];
+            double[] b = new double[TILE * TILE];
+            double[] c = new double[TILE * TILE];
+            for (int ii = fromTile * TILE; ii < toRow; ii += TILE) {
+                int height = Math.min(TILE, toRow - ii);
+                for (int jj = 0; jj < columns; jj += TILE) {
+                    int width = Math.min(TILE, columns - jj);
+                    Arrays.fill(c, 0);
+                    for (int kk = 0; kk < inner; kk += TILE) {
+                        Cancellation.check();
+                        int depth = Math.min(TILE, inner - kk);
+                        for (int i = 0; i < height; i++) {
+                            read((long) (ii + i) * inner + kk, a, i * depth, depth);
+                        }
+                        for (int k = 0; k < depth; k++) {
+                            read(other, (long) (kk + k) * columns + jj, b, k * width, width);
+                        }
+                        MatrixMultiplication.multiply(a, b, c, height, depth, width, ExecutionStrategy.sequential());
+                    }
+                    for (int i = 0; i < height; i++) {
+                        out.write((long) (ii + i) * columns + jj, c, i * width, width);
+                    }
+                }
+            }
+        });
+        return out;
+    }
+
+    /**
+     * {@link TranspositionType#MAIN_DIAGONAL} is computed one tile at a time into a new off-heap matrix,
+     * the other types work on a copy of the values on the heap.
+     */
+    @Override
+    public Matrix transpose(TranspositionType type) {
+        if (type != TranspositionType.MAIN_DIAGONAL) {
+            return type.apply(new Matrix(getWidth(), getHeight(), values()));
+        }
+        final int width = getWidth();
+        final int height = getHeight();
+        OffHeapMatrix out = allocate(height, width);
+        double[] tile = new double[TILE * TILE];
+        double[] transposed = new double[TILE * TILE];
+        for (int yy = 0; yy < height; yy += TILE) {
+            int rows = Math.min(TILE, height - yy);
+            for (int xx = 0; xx < width; xx += TILE) {
+                int columns = Math.min(TILE, width - xx);
+                for (int y = 0; y < rows; y++) {
+                    read((long) (yy + y) * width + xx, tile, y * columns, columns);
+                }
+                TranspositionType.MAIN_DIAGONAL.apply(tile, columns, rows, transposed);
+                for (int x = 0; x < columns; x++) {
+                    out.write((long) (xx + x) * height + yy, transposed, x * rows, rows);
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * @return a new off-heap matrix of the same size
+     */
+    @Override
+    public OffHeapMatrix copy(boolean includeValues) {
+        OffHeapMatrix out = allocate(getWidth(), getHeight());
+        if (includeValues) {
+            out.copyFrom(this);
+        }
+        return out;
+    }
+
+    /**
+     * Streams the buffers into the file, without copying the values onto the heap.
+     */
+    @Override
+    public void writeTo(Path file) throws IOException {
+        chunks();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(HEADER_BYTES).putInt(getWidth()).putInt(getHeight()).flip());
+            for (ByteBuffer buffer : buffers) {
+                ByteBuffer bytes = buffer.duplicate().clear();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the changes of a {@link #map(Path) mapped} matrix to its file. Does nothing for direct memory.
+     */
+    public void flush() {
+        chunks();
+        for (ByteBuffer buffer : buffers) {
+            if (buffer instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) buffer).force();
+            }
+        }
+    }
+
+    /**
+     * @return true once {@link #close()} has been called
+     */
+    public boolean isClosed() {
+        return chunks == null;
+    }
+
+    /**
+     * Releases the memory, or unmaps the file after {@link #flush() flushing} it. Closing twice does nothing.
+     * Without {@code Unsafe.invokeCleaner} the memory is released by the garbage collector instead.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (chunks == null) {
+                return;
+            }
+            flush();
+            chunks = null;
+        }
+        if (INVOKE_CLEANER == null || !Boolean.parseBoolean(System.getProperty(RELEASE_PROPERTY, "true"))) {
+            return;
+        }
+        for (ByteBuffer buffer : buffers) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException e) {
+                //left to the garbage collector
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.kurodev.matrix;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * The dimensions, index checks, serialization header and loop structure shared by {@link FloatMatrix},
+ * {@link IntMatrix} and {@link LongMatrix}. The subclasses only contain the loops over their own primitive array,
+ * so no value is ever boxed.
+ *
+ * @param <M> the matrix type
+ * @param <A> the array type holding the values in row-major order, e.g. {@code float[]}
+ */
+abstract class PrimitiveMatrix<M extends PrimitiveMatrix<M, A>, A> implements NumericMatrix<M> {
+    static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int TILE = 16;
+    private static final int BLOCK_INNER = 128;
+    private static final int BLOCK_COLUMNS = 512;
+
+    final int width;
+    final int height;
+    final A data;
+
+    PrimitiveMatrix(int width, int height, A data) {
+        this.width = width;
+        this.height = height;
+        this.data = data;
+    }
+
+    /**
+     * Copies the rows into one row-major array.
+     *
+     * @throws IllegalArgumentException if the rows differ in length
+     */
+    static <A, M> M fromRows(A[] rows, IntFunction<A> allocate, Factory<A, M> factory) {
+        int height = rows.length;
+        int width = height == 0 ? 0 : Array.getLength(rows[0]);
+        A values = allocate.apply(width * height);
+        for (int y = 0; y < height; y++) {
+            int length = Array.getLength(rows[y]);
+            if (length != width) {
+                throw new IllegalArgumentException("Row " + y + " has " + length + " values instead of " + width);
+            }
+            System.arraycopy(rows[y], 0, values, y * width, width);
+        }
+        return factory.create(width, height, values);
+    }
+
+    /**
+     * @throws IllegalArgumentException if there are not exactly {@code width * height} values
+     */
+    static void checkLength(int width, int height, int length) {
+        if (length != width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " values but got " + length);
+        }
+    }
+
+    /**
+     * Reads the header of the format of {@link #toByteArray()} and checks that all values are present.
+     *
+     * @param valueBytes the size of a single value
+     * @param reader     reads the values, the buffer is positioned behind the header
+     * @throws IllegalArgumentException if the data is too short
+     */
+    static <M> M fromBytes(byte[] data, int valueBytes, BytesReader<M> reader) {
+        ByteBuffer in = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+        if (in.remaining() < HEADER_BYTES) {
+            throw new IllegalArgumentException("Expected at least " + HEADER_BYTES + " bytes but got " + data.length);
+        }
+        int width = in.getInt();
+        int height = in.getInt();
+        long expectedLength = HEADER_BYTES + (long) width * height * valueBytes;
+        if (width < 0 || height < 0 || expectedLength > data.length) {
+            throw new IllegalArgumentException("Expected " + expectedLength + " bytes but got " + data.length);
+        }
+        return reader.read(width, height, in);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the row-major index of the position
+     * @throws IndexOutOfBoundsException if the position is outside of the matrix
+     */
+    int index(int x, int y) {
+        Objects.checkIndex(x, width);
+        Objects.checkIndex(y, height);
+        return y * width + x;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dimensions differ
+     */
+    void checkDimensions(M other) {
+        if (width != other.width || height != other.height) {
+            throw new IllegalArgumentException("Dimensions do not match: " + width + "x" + height
+                    + " and " + other.width + "x" + other.height);
+        }
+    }
+
+    /**
+     * Runs the block over the product {@code this * other}, split into blocks of {@code other} that stay in cache
+     * while every row of a range is accumulated. Products larger than the
+     * {@link Matrix#getParallelThreshold() parallel threshold} are split into ranges of rows,
+     * run by the {@link Matrix#getExecutionStrategy() execution strategy}.
+     *
+     * @throws IllegalArgumentException if {@code this.width != other.height}
+     */
+    void forProductBlocks(M other, ProductBlock block) {
+        if (width != other.height) {
+            throw new IllegalArgumentException("Width and height do not match.");
+        }
+        final int inner = width;
+        final int columns = other.width;
+        MatrixMultiplication.forRows(height, (long) inner * columns, (fromRow, toRow) -> {
+            for (int jj = 0; jj < columns; jj += BLOCK_COLUMNS) {
+                int jEnd = Math.min(jj + BLOCK_COLUMNS, columns);
+                for (int kk = 0; kk < inner; kk += BLOCK_INNER) {
+                    block.run(fromRow, toRow, kk, Math.min(kk + BLOCK_INNER, inner), jj, jEnd);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs the tile over the matrix in small squares, so a transposition writes whole cache lines at once.
+     */
+    void forTiles(Tile tile) {
+        for (int yy = 0; yy < height; yy += TILE) {
+            int yEnd = Math.min(yy + TILE, height);
+            for (int xx = 0; xx < width; xx += TILE) {
+                tile.run(xx, Math.min(xx + TILE, width), yy, yEnd);
+            }
+        }
+    }
+
+    /**
+     * @param valueBytes the size of a single value
+     * @return a buffer holding the header of {@link #toByteArray()}, with room for all values behind it
+     */
+    ByteBuffer header(int valueBytes) {
+        return ByteBuffer.allocate(HEADER_BYTES + Array.getLength(data) * valueBytes)
+                .order(ByteOrder.BIG_ENDIAN)
+                .putInt(width)
+                .putInt(height);
+    }
+
+    /**
+     * Appends the value at the row-major index to the text of {@link #toString()}.
+     */
+    abstract void appendValue(StringBuilder out, int index);
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PrimitiveMatrix<?, ?> other = (PrimitiveMatrix<?, ?>) o;
+        //deepEquals compares primitive arrays with the matching Arrays.equals overload
+        return width == other.width && height == other.height && Objects.deepEquals(data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(width, height) + Arrays.deepHashCode(new Object[]{data});
+    }
+
+    /**
+     * @implNote This string is parsable using {@link Matrix#of(String) Matrix.of(String)}
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                appendValue(out, y * width + x);
+                out.append(' ');
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    @FunctionalInterface
+    interface Factory<A, M> {
+        M create(int width, int height, A values);
+    }
+
+    @FunctionalInterface
+    interface BytesReader<M> {
+        M read(int width, int height, ByteBuffer values);
+    }
+
+    /**
+     * Accumulates the rows {@code fromRow} to {@code toRow} of the product, using only the inner indices
+     * {@code fromInner} to {@code toInner} and the columns {@code fromColumn} to {@code toColumn}.
+     * All ranges exclude their end.
+     */
+    @FunctionalInterface
+    interface ProductBlock {
+        void run(int fromRow, int toRow, int fromInner, int toInner, int fromColumn, int toColumn);
+    }
+
+    /**
+     * The columns {@code fromX} to {@code toX} of the rows {@code fromY} to {@code toY}, excluding the ends.
+     */
+    @FunctionalInterface
+    interface Tile {
+        void run(int fromX, int toX, int fromY, int toY);
+    }
+}
@@ -0,0 +1,531 @@
+package org.kurodev.matrix;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A Matrix that only stores its non-zero values, in compressed sparse row (CSR) format.
+ * <p>
+ * The non-zero values of row {@code y} are stored at the indices {@code rowPointers[y]} (inclusive)
+ * to {@code rowPointers[y + 1]} (exclusive) of {@code entries}, ordered by their column stored in {@code columns}.
+ * There is no compressed sparse column (CSC) type. Column access is only fast through the transpose:
+ * {@link #transpose()} builds the CSR layout of the transposed matrix in a single O(nnz) pass, which holds the
+ * same arrays a CSC layout of this matrix would. The result is a regular CSR matrix of the transposed dimension.
+ * <p>
+ * {@link #get(int, int)}, {@link #add(Matrix)}, {@link #subtract(Matrix)}, {@link #multiply(double)},
+ * {@link #multiply(Matrix)}, {@link #transpose()} and {@link #toByteArray()} work on the compressed data.
+ * Combining a sparse with a dense matrix results in a dense {@link Matrix}, combining 2 sparse matrices keeps
+ * the result sparse. Every other operation works on a dense copy of the values.
+ *
+ * @see #of(Matrix)
+ * @see #of(int, int, int[], int[], double[])
+ */
+public class SparseMatrix extends Matrix {
+    private static final double[] NO_VALUES = new double[0];
+
+    private final int[] rowPointers;
+    private final int[] columns;
+    private final double[] entries;
+
+    SparseMatrix(int width, int height, int[] rowPointers, int[] columns, double[] entries) {
+        super(width, height, NO_VALUES);
+        this.rowPointers = rowPointers;
+        this.columns = columns;
+        this.entries = entries;
+    }
+
+    /**
+     * @return an empty sparse matrix, all values are 0.
+     */
+    public static SparseMatrix of(int width, int height) {
+        return new SparseMatrix(width, height, new int[height + 1], new int[0], NO_VALUES);
+    }
+
+    /**
+     * @param matrix the matrix to compress
+     * @return a sparse matrix containing the non-zero values of the given matrix
+     */
+    public static SparseMatrix of(Matrix matrix) {
+        if (matrix instanceof SparseMatrix) {
+            return (SparseMatrix) matrix;
+        }
+        final int width = matrix.getWidth();
+        final int height = matrix.getHeight();
+        double[] values = matrix.values();
+        int nonZero = 0;
+        for (double value : values) {
+            if (value != 0) {
+                nonZero++;
+            }
+        }
+        int[] rowPointers = new int[height + 1];
+        int[] columns = new int[nonZero];
+        double[] entries = new double[nonZero];
+        int pos = 0;
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                double value = values[row + x];
+                if (value != 0) {
+                    columns[pos] = x;
+                    entries[pos++] = value;
+                }
+            }
+            rowPointers[y + 1] = pos;
+        }
+        return new SparseMatrix(width, height, rowPointers, columns, entries);
+    }
+
+    /**
+     * Creates a sparse matrix out of coordinate lists. Values at the same position are summed up,
+     * zeros are dropped.
+     *
+     * @param xs     the column of every value
+     * @param ys     the row of every value
+     * @param values the values
+     * @return a sparse matrix with the given values
+     * @throws IllegalArgumentException  if the arrays differ in length
+     * @throws IndexOutOfBoundsException if a coordinate is outside the matrix
+     */
+    public static SparseMatrix of(int width, int height, int[] xs, int[] ys, double[] values) {
+        if (xs.length != ys.length || xs.length != values.length) {
+            throw new IllegalArgumentException("Coordinate and value arrays must have the same length");
+        }
+        //counting sort by row
+        int[] rowPointers = new int[height + 1];
+        for (int i = 0; i < xs.length; i++) {
+            Objects.checkIndex(xs[i], width);
+            rowPointers[Objects.checkIndex(ys[i], height) + 1]++;
+        }
+        for (int y = 0; y < height; y++) {
+            rowPointers[y + 1] += rowPointers[y];
+        }
+        int[] next = Arrays.copyOf(rowPointers, height);
+        int[] columns = new int[xs.length];
+        double[] entries = new double[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            int pos = next[ys[i]]++;
+            columns[pos] = xs[i];
+            entries[pos] = values[i];
+        }
+        //sort every row by column, merge duplicates and drop zeros in place
+        int pos = 0;
+        for (int y = 0; y < height; y++) {
+            int start = rowPointers[y];
+            int end = rowPointers[y + 1];
+            sortRow(columns, entries, start, end);
+            rowPointers[y] = pos;
+            for (int i = start; i < end; i++) {
+                if (pos > rowPointers[y] && columns[pos - 1] == columns[i]) {
+                    entries[pos - 1] += entries[i];
+                } else {
+                    columns[pos] = columns[i];
+                    entries[pos++] = entries[i];
+                }
+            }
+            int kept = rowPointers[y];
+            for (int i = rowPointers[y]; i < pos; i++) {
+                if (entries[i] != 0) {
+                    columns[kept] = columns[i];
+                    entries[kept++] = entries[i];
+                }
+            }
+            pos = kept;
+        }
+        rowPointers[height] = pos;
+        return new SparseMatrix(width, height, rowPointers, Arrays.copyOf(columns, pos), Arrays.copyOf(entries, pos));
+    }
+
+    /**
+     * Insertion sort, rows are expected to be short.
+     */
+    private static void sortRow(int[] columns, double[] entries, int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            int column = columns[i];
+            double entry = entries[i];
+            int j = i - 1;
+            while (j >= start && columns[j] > column) {
+                columns[j + 1] = columns[j];
+                entries[j + 1] = entries[j];
+                j--;
+            }
+            columns[j + 1] = column;
+            entries[j + 1] = entry;
+        }
+    }
+
+    /**
+     * @return the number of stored values
+     */
+    public int getNonZeroCount() {
+        return entries.length;
+    }
+
+    /**
+     * @return a dense copy of this matrix
+     */
+    public Matrix toDense() {
+        return new Matrix(getWidth(), getHeight(), values());
+    }
+
+    @Override
+    public double get(int x, int y) {
+        Objects.checkIndex(x, getWidth());
+        Objects.checkIndex(y, getHeight());
+        int index = Arrays.binarySearch(columns, rowPointers[y], rowPointers[y + 1], x);
+        return index < 0 ? 0 : entries[index];
+    }
+
+    @Override
+    double[] values() {
+        final int width = getWidth();
+        double[] values = new double[width * getHeight()];
+        for (int y = 0; y < getHeight(); y++) {
+            for (int i = rowPointers[y]; i < rowPointers[y + 1]; i++) {
+                values[y * width + columns[i]] = entries[i];
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public double[] toArray() {
+        return values();
+    }
+
+    /**
+     * @return a sparse matrix if both matrices are sparse, otherwise a dense matrix
+     * @apiNote May return an {@link ErrorMatrix}
+     */
+    @Override
+    public Matrix add(Matrix other) {
+        if (!dimensionMatches(other)) {
+            return error("Dimensions of the 2 matrices are different."
+                    + getDimension() + " != " + other.getDimension());
+        }
+        if (other instanceof SparseMatrix) {
+            return merge((SparseMatrix) other, 1);
+        }
+        double[] out = other.toArray();
+        scatter(out, 1);
+        return new Matrix(getWidth(), getHeight(), out);
+    }
+
+    /**
+     * @return a sparse matrix if both matrices are sparse, otherwise a dense matrix
+     * @apiNote May return an {@link ErrorMatrix}
+     */
+    @Override
+    public Matrix subtract(Matrix value) {
+        if (!dimensionMatches(value)) {
+            return error("Matrices must be of same dimensions");
+        }
+        if (value instanceof SparseMatrix) {
+            return merge((SparseMatrix) value, -1);
+        }
+        double[] out = new double[getWidth() * getHeight()];
+        ArithmeticKernel.INSTANCE.scale(value.values(), -1, out);
+        scatter(out, 1);
+        return new Matrix(getWidth(), getHeight(), out);
+    }
+
+    /**
+     * Calculates {@code minuend - this} for a dense minuend of the same dimensions.
+     */
+    Matrix subtractFrom(Matrix minuend) {
+        double[] out = minuend.toArray();
+        scatter(out, -1);
+        return new Matrix(getWidth(), getHeight(), out);
+    }
+
+    /**
+     * Adds {@code factor * this} to the row-major values.
+     */
+    private void scatter(double[] out, double factor) {
+        final int width = getWidth();
+        for (int y = 0; y < getHeight(); y++) {
+            for (int i = rowPointers[y]; i < rowPointers[y + 1]; i++) {
+                out[y * width + columns[i]] += factor * entries[i];
+            }
+        }
+    }
+
+    /**
+     * Row by row two-pointer merge of {@code this + factor * other}. Cancelled out values are dropped.
+     */
+    private SparseMatrix merge(SparseMatrix other, double factor) {
+        final int height = getHeight();
+        int[] rowPointers = new int[height + 1];
+        int[] columns = new int[this.entries.length + other.entries.length];
+        double[] entries = new double[columns.length];
+        int pos = 0;
+        for (int y = 0; y < height; y++) {
+            int a = this.rowPointers[y];
+            int aEnd = this.rowPointers[y + 1];
+            int b = other.rowPointers[y];
+            int bEnd = other.rowPointers[y + 1];
+            while (a < aEnd || b < bEnd) {
+                int column;
+                double value;
+                if (b == bEnd || (a < aEnd && this.columns[a] < other.columns[b])) {
+                    column = this.columns[a];
+                    value = this.entries[a++];
+                } else if (a == aEnd || other.columns[b] < this.columns[a]) {
+                    column = other.columns[b];
+                    value = factor * other.entries[b++];
+                } else {
+                    column = this.columns[a];
+                    value = this.entries[a++] + factor * other.entries[b++];
+                }
+                if (value != 0) {
+                    columns[pos] = column;
+                    entries[pos++] = value;
+                }
+            }
+            rowPointers[y + 1] = pos;
+        }
+        return new SparseMatrix(getWidth(), height, rowPointers, Arrays.copyOf(columns, pos), Arrays.copyOf(entries, pos));
+    }
+
+    @Override
+    public SparseMatrix multiply(double scalar) {
+        if (scalar == 0) {
+            return of(getWidth(), getHeight());
+        }
+        double[] scaled = new double[entries.length];
+        ArithmeticKernel.INSTANCE.scale(entries, scalar, scaled);
+        return new SparseMatrix(getWidth(), getHeight(), rowPointers, columns, scaled);
+    }
+
+    /**
+     * Sparse products are always computed on the calling thread, the strategy is ignored.
+     *
+     * @return a sparse matrix if both matrices are sparse, otherwise a dense matrix
+     * @apiNote May return an {@link ErrorMatrix} if the width and height of the matrices do not fit.
+     */
+    @Override
+    public Matrix multiply(Matrix other, ExecutionStrategy strategy) {
+        if (getWidth() == other.getHeight()) {
+            if (other instanceof SparseMatrix) {
+                return multiplySparse((SparseMatrix) other);
+            }
+            return multiplyDense(other);
+        } else if (other.getWidth() == getHeight()) {
+            return other.multiply(this, strategy);
+        }
+        return error("Width and height do not match.");
+    }
+
+    /**
+     * {@code C = this * B}: every stored value {@code (k, y)} adds a scaled row {@code k} of {@code B} to row {@code y}.
+     */
+    private Matrix multiplyDense(Matrix other) {
+        final int columnsOut = other.getWidth();
+        double[] b = other.values();
+        double[] c = new double[getHeight() * columnsOut];
+        ArithmeticKernel kernel = ArithmeticKernel.INSTANCE;
+        for (int y = 0; y < getHeight(); y++) {
+            for (int i = rowPointers[y]; i < rowPointers[y + 1]; i++) {
+                kernel.axpy(entries[i], b, columns[i] * columnsOut, c, y * columnsOut, columnsOut);
+            }
+        }
+        return new Matrix(columnsOut, getHeight(), c);
+    }
+
+    /**
+     * {@code C = A * this} for a dense {@code A}: every non-zero {@code A(k, y)} adds
+     * the stored values of row {@code k} of this matrix to row {@code y} of the result.
+     */
+    Matrix multiplyLeft(Matrix left) {
+        final int width = getWidth();
+        final int inner = left.getWidth();
+        double[] a = left.values();
+        double[] c = new double[left.getHeight() * width];
+        for (int y = 0; y < left.getHeight(); y++) {
+            int row = y * width;
+            for (int k = 0; k < inner; k++) {
+                double factor = a[y * inner + k];
+                if (factor != 0) {
+                    for (int i = rowPointers[k]; i < rowPointers[k + 1]; i++) {
+                        c[row + columns[i]] += factor * entries[i];
+                    }
+                }
+            }
+        }
+        return new Matrix(width, left.getHeight(), c);
+    }
+
+    /**
+     * Gustavson's row-by-row product, accumulating every result row in a dense scratch row.
+     */
+    private SparseMatrix multiplySparse(SparseMatrix other) {
+        final int height = getHeight();
+        final int width = other.getWidth();
+        double[] accumulator = new double[width];
+        int[] marker = new int[width];
+        Arrays.fill(marker, -1);
+        int[] touched = new int[width];
+        int[] rowPointers = new int[height + 1];
+        int[] columns = new int[Math.max(16, this.entries.length + other.entries.length)];
+        double[] entries = new double[columns.length];
+        int pos = 0;
+        for (int y = 0; y < height; y++) {
+            int touchedCount = 0;
+            for (int i = this.rowPointers[y]; i < this.rowPointers[y + 1]; i++) {
+                int k = this.columns[i];
+                double factor = this.entries[i];
+                for (int j = other.rowPointers[k]; j < other.rowPointers[k + 1]; j++) {
+                    int column = other.columns[j];
+                    if (marker[column] != y) {
+                        marker[column] = y;
+                        accumulator[column] = 0;
+                        touched[touchedCount++] = column;
+                    }
+                    accumulator[column] += factor * other.entries[j];
+                }
+            }
+            Arrays.sort(touched, 0, touchedCount);
+            if (pos + touchedCount > columns.length) {
+                int capacity = Math.max(columns.length * 2, pos + touchedCount);
+                columns = Arrays.copyOf(columns, capacity);
+                entries = Arrays.copyOf(entries, capacity);
+            }
+            for (int t = 0; t < touchedCount; t++) {
+                double value = accumulator[touched[t]];
+                if (value != 0) {
+                    columns[pos] = touched[t];
+                    entries[pos++] = value;
+                }
+            }
+            rowPointers[y + 1] = pos;
+        }
+        return new SparseMatrix(width, height, rowPointers, Arrays.copyOf(columns, pos), Arrays.copyOf(entries, pos));
+    }
+
+    /**
+     * {@link TranspositionType#MAIN_DIAGONAL} keeps the matrix sparse, every other type results in a dense matrix.
+     */
+    @Override
+    public Matrix transpose(TranspositionType type) {
+        if (type == TranspositionType.MAIN_DIAGONAL) {
+            return transposed();
+        }
+        return super.transpose(type);
+    }
+
+    /**
+     * Builds the CSR layout of the transposed matrix, by counting and scattering the entries of every column.
+     */
+    SparseMatrix transposed() {
+        final int width = getWidth();
+        int[] rowPointers = new int[width + 1];
+        for (int column : columns) {
+            rowPointers[column + 1]++;
+        }
+        for (int x = 0; x < width; x++) {
+            rowPointers[x + 1] += rowPointers[x];
+        }
+        int[] next = Arrays.copyOf(rowPointers, width);
+        int[] columns = new int[entries.length];
+        double[] entries = new double[this.entries.length];
+        //rows are visited in order, so the columns of the transposed rows end up sorted
+        for (int y = 0; y < getHeight(); y++) {
+            for (int i = this.rowPointers[y]; i < this.rowPointers[y + 1]; i++) {
+                int pos = next[this.columns[i]]++;
+                columns[pos] = y;
+                entries[pos] = this.entries[i];
+            }
+        }
+        return new SparseMatrix(getHeight(), width, rowPointers, columns, entries);
+    }
+
+    /**
+     * Writes the dense format of {@link Matrix#toByteArray()} row by row, without materializing all values.
+     */
+    @Override
+    public void writeTo(ByteBuffer buffer) {
+        if (buffer.remaining() < getByteSize()) {
+            throw new BufferOverflowException();
+        }
+        final int width = getWidth();
+        ByteBuffer out = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        out.putInt(width).putInt(getHeight());
+        DoubleBuffer doubles = out.asDoubleBuffer();
+        double[] row = new double[width];
+        for (int y = 0; y < getHeight(); y++) {
+            Arrays.fill(row, 0);
+            for (int i = rowPointers[y]; i < rowPointers[y + 1]; i++) {
+                row[columns[i]] = entries[i];
+            }
+            doubles.put(row);
+        }
+        buffer.position(buffer.position() + (int) getByteSize());
+    }
+
+    /**
+     * Writes the compressed data for {@link MatrixContainer}: the number of stored values,
+     * the row pointers, the columns and the values.
+     */
+    void writeEntries(BlockOutput out) throws IOException {
+        out.putInt(entries.length);
+        out.putInts(rowPointers, 0, rowPointers.length);
+        out.putInts(columns, 0, columns.length);
+        out.putDoubles(entries, 0, entries.length);
+    }
+
+    /**
+     * Reads the data written by {@link #writeEntries(BlockOutput)}.
+     *
+     * @throws IOException if the data does not describe a valid sparse matrix
+     */
+    static SparseMatrix readEntries(int width, int height, BlockInput in) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || count > (long) width * height) {
+            throw new IOException("Invalid number of values " + count + " for a " + width + "x" + height + " matrix");
+        }
+        int[] rowPointers = in.getInts(height + 1);
+        int[] columns = in.getInts(count);
+        double[] entries = in.getDoubles(count);
+        if (rowPointers[0] != 0 || rowPointers[height] != count) {
+            throw new IOException("Row pointers do not cover all " + count + " values");
+        }
+        for (int y = 0; y < height; y++) {
+            if (rowPointers[y] > rowPointers[y + 1]) {
+                throw new IOException("Row pointers are not ascending at row " + y);
+            }
+            for (int i = rowPointers[y]; i < rowPointers[y + 1]; i++) {
+                if (columns[i] < 0 || columns[i] >= width || (i > rowPointers[y] && columns[i] <= columns[i - 1])) {
+                    throw new IOException("Invalid column " + columns[i] + " in row " + y);
+                }
+            }
+        }
+        return new SparseMatrix(width, height, rowPointers, columns, entries);
+    }
+
+    /**
+     * @param includeValues if {@code true} returns a sparse matrix with the same values.
+     *                      if {@code false} returns a dense, zero-filled matrix of the same dimension
+     */
+    @Override
+    public Matrix copy(boolean includeValues) {
+        if (includeValues) {
+            return new SparseMatrix(getWidth(), getHeight(), rowPointers, columns, entries);
+        }
+        return Matrix.of(getWidth(), getHeight());
+    }
+
+    @Override
+    public boolean isReal() {
+        for (double entry : entries) {
+            if (entry < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
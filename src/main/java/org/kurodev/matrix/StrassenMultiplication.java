@@ -0,0 +1,280 @@
+package org.kurodev.matrix;
+
+import java.util.Arrays;
+
+/**
+ * Strassen-Winograd product of two square matrices, using 7 instead of 8 half sized products per level
+ * and 15 additions. Halves of at most {@link #getCutoff() cutoff} rows are multiplied by the classical
+ * {@link MatrixMultiplication} kernel.
+ * <p>
+ * Operands are addressed as blocks of a larger row-major array ({@code offset} of the first value and
+ * {@code stride} between rows), so the quadrants are never copied.
+ * Sizes that cannot be halved down to the cutoff evenly are padded with zeros once, before the recursion.
+ * <p>
+ * The sequential recursion reuses 3 temporary quadrants per level. The parallel one computes the
+ * 7 products of a level as separate tasks of an {@link ExecutionStrategy}, which needs 15 temporary quadrants
+ * per level. It continues sequentially once a product falls below the
+ * {@link MatrixMultiplication#getParallelThreshold() parallel threshold}.
+ * Rounding errors grow slightly faster than with the classical product.
+ */
+final class StrassenMultiplication {
+    private static volatile int cutoff = 256;
+
+    private StrassenMultiplication() {
+    }
+
+    static int getCutoff() {
+        return cutoff;
+    }
+
+    static void setCutoff(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Cutoff must be positive but was " + size);
+        }
+        cutoff = size;
+    }
+
+    /**
+     * @return true if a {@code size x size} product is large enough for the recursion
+     */
+    static boolean appliesTo(int size) {
+        return size > cutoff;
+    }
+
+    /**
+     * @param a    left operand with {@code size * size} values
+     * @param b    right operand with {@code size * size} values
+     * @param strategy runs the 7 products of each level, as long as they exceed the
+     *                 {@link MatrixMultiplication#getParallelThreshold() parallel threshold}
+     * @return the product with {@code size * size} values
+     */
+    static double[] multiply(double[] a, double[] b, int size, ExecutionStrategy strategy) {
+        int leaf = cutoff;
+        int padded = size;
+        int levels = 0;
+        while (padded > leaf) {
+            padded = (padded + 1) / 2;
+            levels++;
+        }
+        padded <<= levels;
+        double[] c = new double[padded * padded];
+        if (padded != size) {
+            a = pad(a, size, padded);
+            b = pad(b, size, padded);
+        }
+        Product product = new Product(a, 0, padded, b, 0, padded, c, padded, leaf);
+        if (strategy.isParallel()) {
+            product.multiplyParallel(strategy);
+        } else {
+            product.multiply();
+        }
+        return padded == size ? c : unpad(c, padded, size);
+    }
+
+    private static double[] pad(double[] values, int size, int padded) {
+        double[] out = new double[padded * padded];
+        for (int y = 0; y < size; y++) {
+            System.arraycopy(values, y * size, out, y * padded, size);
+        }
+        return out;
+    }
+
+    private static double[] unpad(double[] values, int padded, int size) {
+        double[] out = new double[size * size];
+        for (int y = 0; y < size; y++) {
+            System.arraycopy(values, y * padded, out, y * size, size);
+        }
+        return out;
+    }
+
+    /**
+     * {@code out = x + sign * y} for {@code size x size} blocks. {@code out} is contiguous and may be
+     * one of the operands, as long as that operand is contiguous as well.
+     */
+    private static void combine(double[] x, int xOffset, int xStride, double sign,
+                                double[] y, int yOffset, int yStride, double[] out, int size) {
+        for (int row = 0; row < size; row++) {
+            int xRow = xOffset + row * xStride;
+            int yRow = yOffset + row * yStride;
+            int outRow = row * size;
+            for (int i = 0; i < size; i++) {
+                out[outRow + i] = x[xRow + i] + sign * y[yRow + i];
+            }
+        }
+    }
+
+    /**
+     * {@code c += sign * p} for the block of {@code c}, {@code p} is contiguous.
+     */
+    private static void accumulate(double sign, double[] p, double[] c, int cOffset, int cStride, int size) {
+        ArithmeticKernel kernel = ArithmeticKernel.INSTANCE;
+        for (int row = 0; row < size; row++) {
+            kernel.axpy(sign, p, row * size, c, cOffset + row * cStride, size);
+        }
+    }
+
+    /**
+     * Writes the product of 2 blocks into the contiguous array {@code c}.
+     */
+    private static final class Product {
+        private final double[] a;
+        private final int aOffset;
+        private final int aStride;
+        private final double[] b;
+        private final int bOffset;
+        private final int bStride;
+        private final double[] c;
+        private final int size;
+        private final int leaf;
+
+        private Product(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+                        double[] c, int size, int leaf) {
+            this.a = a;
+            this.aOffset = aOffset;
+            this.aStride = aStride;
+            this.b = b;
+            this.bOffset = bOffset;
+            this.bStride = bStride;
+            this.c = c;
+            this.size = size;
+            this.leaf = leaf;
+        }
+
+        /**
+         * Sequential recursion, each product is added to the quadrants of {@code c} it contributes to
+         * before the next one is computed.
+         */
+        void multiply() {
+            Cancellation.check();
+            if (size <= leaf) {
+                multiplyClassical();
+                return;
+            }
+            final int h = size / 2;
+            final int a11 = aOffset, a12 = aOffset + h, a21 = aOffset + h * aStride, a22 = a21 + h;
+            final int b11 = bOffset, b12 = bOffset + h, b21 = bOffset + h * bStride, b22 = b21 + h;
+            final int c11 = 0, c12 = h, c21 = h * size, c22 = c21 + h;
+            double[] s = new double[h * h];
+            double[] t = new double[h * h];
+            double[] p = new double[h * h];
+            Arrays.fill(c, 0);
+
+            //P1 = A11 * B11 is part of every quadrant
+            product(a, a11, aStride, b, b11, bStride, p).multiply();
+            accumulate(1, p, c, c11, size, h);
+            accumulate(1, p, c, c12, size, h);
+            accumulate(1, p, c, c21, size, h);
+            accumulate(1, p, c, c22, size, h);
+            //P2 = A12 * B21
+            product(a, a12, aStride, b, b21, bStride, p).multiply();
+            accumulate(1, p, c, c11, size, h);
+            //P5 = S1 * T1
+            combine(a, a21, aStride, 1, a, a22, aStride, s, h);
+            combine(b, b12, bStride, -1, b, b11, bStride, t, h);
+            product(s, 0, h, t, 0, h, p).multiply();
+            accumulate(1, p, c, c12, size, h);
+            accumulate(1, p, c, c22, size, h);
+            //P6 = S2 * T2
+            combine(s, 0, h, -1, a, a11, aStride, s, h);
+            combine(b, b22, bStride, -1, t, 0, h, t, h);
+            product(s, 0, h, t, 0, h, p).multiply();
+            accumulate(1, p, c, c12, size, h);
+            accumulate(1, p, c, c21, size, h);
+            accumulate(1, p, c, c22, size, h);
+            //P3 = S4 * B22
+            combine(a, a12, aStride, -1, s, 0, h, s, h);
+            product(s, 0, h, b, b22, bStride, p).multiply();
+            accumulate(1, p, c, c12, size, h);
+            //P4 = A22 * T4
+            combine(t, 0, h, -1, b, b21, bStride, t, h);
+            product(a, a22, aStride, t, 0, h, p).multiply();
+            accumulate(-1, p, c, c21, size, h);
+            //P7 = S3 * T3
+            combine(a, a11, aStride, -1, a, a21, aStride, s, h);
+            combine(b, b22, bStride, -1, b, b12, bStride, t, h);
+            product(s, 0, h, t, 0, h, p).multiply();
+            accumulate(1, p, c, c21, size, h);
+            accumulate(1, p, c, c22, size, h);
+        }
+
+        /**
+         * Parallel recursion, the 7 products of this level are computed at the same time.
+         */
+        void multiplyParallel(ExecutionStrategy strategy) {
+            if ((long) size * size * size <= MatrixMultiplication.getParallelThreshold()) {
+                multiply();
+                return;
+            }
+            Cancellation.check();
+            if (size <= leaf) {
+                multiplyClassical();
+                return;
+            }
+            final int h = size / 2;
+            final int a11 = aOffset, a12 = aOffset + h, a21 = aOffset + h * aStride, a22 = a21 + h;
+            final int b11 = bOffset, b12 = bOffset + h, b21 = bOffset + h * bStride, b22 = b21 + h;
+            final int c11 = 0, c12 = h, c21 = h * size, c22 = c21 + h;
+            final int n = h * h;
+            double[] s1 = new double[n], s2 = new double[n], s3 = new double[n], s4 = new double[n];
+            double[] t1 = new double[n], t2 = new double[n], t3 = new double[n], t4 = new double[n];
+            combine(a, a21, aStride, 1, a, a22, aStride, s1, h);
+            combine(s1, 0, h, -1, a, a11, aStride, s2, h);
+            combine(a, a11, aStride, -1, a, a21, aStride, s3, h);
+            combine(a, a12, aStride, -1, s2, 0, h, s4, h);
+            combine(b, b12, bStride, -1, b, b11, bStride, t1, h);
+            combine(b, b22, bStride, -1, t1, 0, h, t2, h);
+            combine(b, b22, bStride, -1, b, b12, bStride, t3, h);
+            combine(t2, 0, h, -1, b, b21, bStride, t4, h);
+            Product p1 = product(a, a11, aStride, b, b11, bStride, new double[n]);
+            Product p2 = product(a, a12, aStride, b, b21, bStride, new double[n]);
+            Product p3 = product(s4, 0, h, b, b22, bStride, new double[n]);
+            Product p4 = product(a, a22, aStride, t4, 0, h, new double[n]);
+            Product p5 = product(s1, 0, h, t1, 0, h, new double[n]);
+            Product p6 = product(s2, 0, h, t2, 0, h, new double[n]);
+            Product p7 = product(s3, 0, h, t3, 0, h, new double[n]);
+            strategy.invokeAll(() -> p1.multiplyParallel(strategy), () -> p2.multiplyParallel(strategy),
+                    () -> p3.multiplyParallel(strategy), () -> p4.multiplyParallel(strategy),
+                    () -> p5.multiplyParallel(strategy), () -> p6.multiplyParallel(strategy),
+                    () -> p7.multiplyParallel(strategy));
+
+            Arrays.fill(c, 0);
+            accumulate(1, p1.c, c, c11, size, h);
+            accumulate(1, p2.c, c, c11, size, h);
+            //U2 = P1 + P6 is shared by C12, C21 and C22
+            double[] u2 = p1.c;
+            accumulate(1, p6.c, u2, 0, h, h);
+            accumulate(1, u2, c, c12, size, h);
+            accumulate(1, p5.c, c, c12, size, h);
+            accumulate(1, p3.c, c, c12, size, h);
+            accumulate(1, u2, c, c21, size, h);
+            accumulate(1, p7.c, c, c21, size, h);
+            accumulate(-1, p4.c, c, c21, size, h);
+            accumulate(1, u2, c, c22, size, h);
+            accumulate(1, p7.c, c, c22, size, h);
+            accumulate(1, p5.c, c, c22, size, h);
+        }
+
+        private Product product(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+                                double[] c) {
+            return new Product(a, aOffset, aStride, b, bOffset, bStride, c, size / 2, leaf);
+        }
+
+        private void multiplyClassical() {
+            double[] left = contiguous(a, aOffset, aStride);
+            double[] right = contiguous(b, bOffset, bStride);
+            Arrays.fill(c, 0);
+            MatrixMultiplication.multiply(left, right, c, size, size, size, ExecutionStrategy.sequential());
+        }
+
+        private double[] contiguous(double[] values, int offset, int stride) {
+            if (offset == 0 && stride == size && values.length == size * size) {
+                return values;
+            }
+            double[] out = new double[size * size];
+            for (int row = 0; row < size; row++) {
+                System.arraycopy(values, offset + row * stride, out, row * size, size);
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package org.kurodev.matrix;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a fixed sequence of tiles on a background thread, so the next tile is already in memory
+ * while the current one is being processed.
+ * <p>
+ * At most {@code capacity} tiles wait in the buffer, the reading thread blocks until the consumer takes one.
+ * The thread is never interrupted, because interrupting a thread blocked in a {@link java.nio.channels.FileChannel}
+ * would close the channel of the matrix it reads from.
+ */
+final class TilePrefetcher implements AutoCloseable {
+    private static final double[] FAILED = new double[0];
+
+    private final long count;
+    private final TileSource source;
+    private final BlockingQueue<double[]> queue;
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    /**
+     * @param count    number of tiles to read
+     * @param capacity number of tiles read ahead of the consumer
+     * @param source   reads the tile with the given index of the sequence
+     */
+    TilePrefetcher(long count, int capacity, TileSource source) {
+        this.count = count;
+        this.source = source;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::readAll, "matrix-prefetch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void readAll() {
+        try {
+            for (long index = 0; index < count; index++) {
+                if (!put(source.read(index))) {
+                    return;
+                }
+            }
+        } catch (InterruptedException ignored) {
+            //nobody is waiting anymore
+        } catch (Throwable e) {
+            //errors too, otherwise the consumer would wait for the next tile forever
+            failure = e;
+            try {
+                put(FAILED);
+            } catch (InterruptedException ignored) {
+                //nobody is waiting anymore
+            }
+        }
+    }
+
+    /**
+     * @return false if the prefetcher has been closed while waiting for space
+     */
+    private boolean put(double[] tile) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(tile, 10, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the next tile of the sequence, waiting for it to be read if necessary
+     * @throws IOException if reading this or an earlier tile failed, runtime exceptions and errors of the reading
+     *                     thread are rethrown as they are
+     */
+    double[] next() throws IOException {
+        double[] tile;
+        try {
+            tile = queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the next tile");
+        }
+        if (tile == FAILED) {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw (RuntimeException) failure;
+        }
+        return tile;
+    }
+
+    /**
+     * Stops reading ahead and waits for the reading thread to finish its current tile.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        queue.clear();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    interface TileSource {
+        double[] read(long index) throws IOException;
+    }
+}
@@ -0,0 +1,617 @@
+package org.kurodev.matrix;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * A matrix stored as square tiles in a file, for matrices that do not fit into memory.
+ * <p>
+ * The file starts with the width and height as big-endian ints like {@link Matrix#toByteArray()}, followed by
+ * the tile size as a big-endian int. The tiles follow in row-major order, each with its values as big-endian doubles
+ * in row-major order. Tiles at the right and bottom edge are only as wide and high as the matrix,
+ * so the file is exactly 4 bytes larger than the one of {@link Matrix#writeTo(Path)}.
+ * <p>
+ * {@link #add(TiledMatrix, Path)}, {@link #subtract(TiledMatrix, Path)}, {@link #multiply(TiledMatrix, Path)}
+ * and {@link #transpose(Path)} write their result into another file. The operands are streamed through memory
+ * one tile at a time, while a background thread already reads the next tiles. At most a few tiles are held in memory
+ * at once, so {@code tileSize * tileSize * 8} bytes should be small compared to the heap. A product reads every tile
+ * of this matrix once per tile column of the other matrix and vice versa.
+ * <p>
+ * Unlike {@link Matrix}, operations on matrices of mismatching dimensions or tile sizes throw an
+ * {@link IllegalArgumentException}. The methods of {@link NumericMatrix} write their results into temporary files
+ * next to this one, which are deleted once the result is {@link #close() closed}, and wrap failing I/O into an
+ * {@link UncheckedIOException}.
+ *
+ * @see #create(Path, int, int, int)
+ * @see #of(Matrix, Path, int)
+ * @see #open(Path)
+ * @see #tile(Path, Path, int)
+ */
+public final class TiledMatrix implements NumericMatrix<TiledMatrix>, Closeable {
+    /**
+     * Largest supported tile size, a tile of it takes 512MB.
+     */
+    public static final int MAX_TILE_SIZE = 8192;
+    private static final int HEADER_BYTES = Integer.BYTES * 3;
+    private static final int MATRIX_HEADER_BYTES = Integer.BYTES * 2;
+    /**
+     * Number of tiles read ahead of the tile being processed.
+     */
+    private static final int PREFETCHED_TILES = 2;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int width;
+    private final int height;
+    private final int tileSize;
+
+    private TiledMatrix(Path file, FileChannel channel, int width, int height, int tileSize) {
+        this.file = file;
+        this.channel = channel;
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+    }
+
+    /**
+     * Creates a zero-filled matrix in the given file. An existing file is overwritten.
+     *
+     * @throws IllegalArgumentException if the dimensions are negative or the tile size is not between
+     *                                  1 and {@link #MAX_TILE_SIZE}
+     * @throws IOException              if the file cannot be created
+     */
+    public static TiledMatrix create(Path file, int width, int height, int tileSize) throws IOException {
+        return create(file, width, height, tileSize, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static TiledMatrix create(Path file, int width, int height, int tileSize,
+                                      StandardOpenOption option) throws IOException {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Invalid dimensions " + width + "x" + height);
+        }
+        if (tileSize < 1 || tileSize > MAX_TILE_SIZE) {
+            throw new IllegalArgumentException("Tile size must be between 1 and " + MAX_TILE_SIZE + " but was " + tileSize);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, option);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(width).putInt(height).putInt(tileSize).flip();
+            writeFully(channel, header, 0);
+            long size = HEADER_BYTES + (long) width * height * Double.BYTES;
+            if (size > HEADER_BYTES) {
+                //leaves a sparse file of zeros on most file systems
+                writeFully(channel, ByteBuffer.allocate(1), size - 1);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new TiledMatrix(file, channel, width, height, tileSize);
+    }
+
+    /**
+     * Creates a zero-filled temporary matrix next to this one, deleted once it is closed.
+     */
+    private TiledMatrix createTemporary(int width, int height) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, "matrix", ".tiles");
+        return create(temporary, width, height, tileSize, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * Writes the given matrix into a file of tiles. An existing file is overwritten.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public static TiledMatrix of(Matrix matrix, Path file, int tileSize) throws IOException {
+        TiledMatrix out = create(file, matrix.getWidth(), matrix.getHeight(), tileSize);
+        try {
+            double[] values = matrix.values();
+            for (int tileY = 0; tileY < out.getTileRows(); tileY++) {
+                for (int tileX = 0; tileX < out.getTileColumns(); tileX++) {
+                    int columns = out.tileWidth(tileX);
+                    int rows = out.tileHeight(tileY);
+                    double[] tile = new double[columns * rows];
+                    for (int y = 0; y < rows; y++) {
+                        int from = (tileY * tileSize + y) * out.width + tileX * tileSize;
+                        System.arraycopy(values, from, tile, y * columns, columns);
+                    }
+                    out.writeTile(tileX, tileY, tile);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+        return out;
+    }
+
+    /**
+     * Opens a file of tiles written by this class for reading and writing.
+     *
+     * @throws IOException if the file cannot be opened or is too short
+     */
+    public static TiledMatrix open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            header.flip();
+            int width = header.getInt();
+            int height = header.getInt();
+            int tileSize = header.getInt();
+            if (width < 0 || height < 0 || tileSize < 1 || tileSize > MAX_TILE_SIZE) {
+                throw new IOException("Invalid header " + width + "x" + height + " with tile size " + tileSize);
+            }
+            long expectedLength = HEADER_BYTES + (long) width * height * Double.BYTES;
+            if (expectedLength > channel.size()) {
+                throw new IOException("Expected " + expectedLength + " bytes but got " + channel.size());
+            }
+            return new TiledMatrix(file, channel, width, height, tileSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Converts a file in the format of {@link Matrix#writeTo(Path)} into a file of tiles, one tile at a time.
+     * An existing target file is overwritten.
+     *
+     * @param source the matrix in the format of {@link Matrix#toByteArray()}
+     * @param file   the file of tiles to write
+     * @throws IOException if a file cannot be read or written, or the source is too short
+     * @see #writeTo(Path)
+     */
+    public static TiledMatrix tile(Path source, Path file, int tileSize) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(MATRIX_HEADER_BYTES);
+            readFully(in, header, 0);
+            header.flip();
+            int width = header.getInt();
+            int height = header.getInt();
+            if (width < 0 || height < 0) {
+                throw new IOException("Invalid dimensions " + width + "x" + height);
+            }
+            long expectedLength = MATRIX_HEADER_BYTES + (long) width * height * Double.BYTES;
+            if (expectedLength > in.size()) {
+                throw new IOException("Expected " + expectedLength + " bytes but got " + in.size());
+            }
+            TiledMatrix out = create(file, width, height, tileSize);
+            try {
+                for (int tileY = 0; tileY < out.getTileRows(); tileY++) {
+                    for (int tileX = 0; tileX < out.getTileColumns(); tileX++) {
+                        int columns = out.tileWidth(tileX);
+                        int rows = out.tileHeight(tileY);
+                        ByteBuffer tile = ByteBuffer.allocate(columns * rows * Double.BYTES);
+                        for (int y = 0; y < rows; y++) {
+                            long index = (long) (tileY * tileSize + y) * width + (long) tileX * tileSize;
+                            readFully(in, tile.limit((y + 1) * columns * Double.BYTES),
+                                    MATRIX_HEADER_BYTES + index * Double.BYTES);
+                        }
+                        writeFully(out.channel, tile.flip(), out.offset(tileX, tileY));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                out.close();
+                throw e;
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Writes the matrix in the format of {@link Matrix#writeTo(Path)}, one tile at a time.
+     * An existing file is overwritten.
+     *
+     * @throws IOException if a file cannot be read or written
+     * @see #tile(Path, Path, int)
+     */
+    public void writeTo(Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             TilePrefetcher tiles = new TilePrefetcher(tileCount(), PREFETCHED_TILES,
+                     index -> readTile((int) (index % getTileColumns()), (int) (index / getTileColumns())))) {
+            writeFully(out, ByteBuffer.allocate(MATRIX_HEADER_BYTES).putInt(width).putInt(height).flip(), 0);
+            for (int tileY = 0; tileY < getTileRows(); tileY++) {
+                for (int tileX = 0; tileX < getTileColumns(); tileX++) {
+                    int columns = tileWidth(tileX);
+                    ByteBuffer tile = ByteBuffer.allocate(columns * tileHeight(tileY) * Double.BYTES);
+                    tile.asDoubleBuffer().put(tiles.next());
+                    for (int y = 0; y < tileHeight(tileY); y++) {
+                        long index = (long) (tileY * tileSize + y) * width + (long) tileX * tileSize;
+                        tile.limit((y + 1) * columns * Double.BYTES).position(y * columns * Double.BYTES);
+                        writeFully(out, tile, MATRIX_HEADER_BYTES + index * Double.BYTES);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * @return the number of tiles in every row of tiles
+     */
+    public int getTileColumns() {
+        return (int) (((long) width + tileSize - 1) / tileSize);
+    }
+
+    /**
+     * @return the number of tiles in every column of tiles
+     */
+    public int getTileRows() {
+        return (int) (((long) height + tileSize - 1) / tileSize);
+    }
+
+    private long tileCount() {
+        return (long) getTileColumns() * getTileRows();
+    }
+
+    private int tileWidth(int tileX) {
+        return Math.min(tileSize, width - tileX * tileSize);
+    }
+
+    private int tileHeight(int tileY) {
+        return Math.min(tileSize, height - tileY * tileSize);
+    }
+
+    /**
+     * @return the position of the first value of the tile in the file
+     */
+    private long offset(int tileX, int tileY) {
+        long before = (long) tileY * tileSize * width + (long) tileHeight(tileY) * tileX * tileSize;
+        return HEADER_BYTES + before * Double.BYTES;
+    }
+
+    /**
+     * Reads a single value from the file.
+     *
+     * @throws IndexOutOfBoundsException if the position is outside of the matrix
+     * @throws UncheckedIOException      if the file cannot be read
+     */
+    @Override
+    public double getAsDouble(int x, int y) {
+        Objects.checkIndex(x, width);
+        Objects.checkIndex(y, height);
+        int tileX = x / tileSize;
+        int tileY = y / tileSize;
+        long index = (long) (y % tileSize) * tileWidth(tileX) + x % tileSize;
+        ByteBuffer value = ByteBuffer.allocate(Double.BYTES);
+        try {
+            readFully(channel, value, offset(tileX, tileY) + index * Double.BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return value.getDouble(0);
+    }
+
+    /**
+     * @return a copy of the tile at the given tile coordinates, which is smaller than the tile size at the edges
+     * @throws IndexOutOfBoundsException if there is no such tile
+     * @throws IOException               if the file cannot be read
+     */
+    public Matrix getTile(int tileX, int tileY) throws IOException {
+        return new Matrix(tileWidth(tileX), tileHeight(tileY), readTile(tileX, tileY));
+    }
+
+    /**
+     * Overwrites the tile at the given tile coordinates.
+     *
+     * @throws IllegalArgumentException  if the dimensions of the matrix differ from the dimensions of the tile
+     * @throws IndexOutOfBoundsException if there is no such tile
+     * @throws IOException               if the file cannot be written
+     */
+    public void setTile(int tileX, int tileY, Matrix tile) throws IOException {
+        Objects.checkIndex(tileX, getTileColumns());
+        Objects.checkIndex(tileY, getTileRows());
+        if (tile.getWidth() != tileWidth(tileX) || tile.getHeight() != tileHeight(tileY)) {
+            throw new IllegalArgumentException("Expected a " + tileWidth(tileX) + "x" + tileHeight(tileY)
+                    + " tile but got " + tile.getDimension());
+        }
+        writeTile(tileX, tileY, tile.values());
+    }
+
+    private double[] readTile(int tileX, int tileY) throws IOException {
+        Objects.checkIndex(tileX, getTileColumns());
+        Objects.checkIndex(tileY, getTileRows());
+        ByteBuffer bytes = ByteBuffer.allocate(tileWidth(tileX) * tileHeight(tileY) * Double.BYTES);
+        readFully(channel, bytes, offset(tileX, tileY));
+        double[] tile = new double[bytes.capacity() / Double.BYTES];
+        bytes.flip().asDoubleBuffer().get(tile);
+        return tile;
+    }
+
+    private void writeTile(int tileX, int tileY, double[] tile) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(tile.length * Double.BYTES);
+        bytes.asDoubleBuffer().put(tile);
+        writeFully(channel, bytes, offset(tileX, tileY));
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of file at " + (start + buffer.position()));
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+    }
+
+    /**
+     * @param target the file of the sum, which is overwritten
+     * @return the elementwise sum of both matrices
+     * @throws IllegalArgumentException if the dimensions or tile sizes differ
+     * @throws IOException              if a file cannot be read or written
+     */
+    public TiledMatrix add(TiledMatrix other, Path target) throws IOException {
+        checkLayout(other);
+        return combine(other, 1, create(target, width, height, tileSize));
+    }
+
+    /**
+     * @param target the file of the difference, which is overwritten
+     * @return the elementwise difference {@code this - other}
+     * @throws IllegalArgumentException if the dimensions or tile sizes differ
+     * @throws IOException              if a file cannot be read or written
+     */
+    public TiledMatrix subtract(TiledMatrix other, Path target) throws IOException {
+        checkLayout(other);
+        return combine(other, -1, create(target, width, height, tileSize));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dimensions or tile sizes differ
+     * @throws UncheckedIOException     if a file cannot be read or written
+     */
+    @Override
+    public TiledMatrix add(TiledMatrix other) {
+        checkLayout(other);
+        try {
+            return combine(other, 1, createTemporary(width, height));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the dimensions or tile sizes differ
+     * @throws UncheckedIOException     if a file cannot be read or written
+     */
+    @Override
+    public TiledMatrix subtract(TiledMatrix other) {
+        checkLayout(other);
+        try {
+            return combine(other, -1, createTemporary(width, height));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkLayout(TiledMatrix other) {
+        if (width != other.width || height != other.height || tileSize != other.tileSize) {
+            throw new IllegalArgumentException("Dimensions do not match: " + width + "x" + height + " in tiles of "
+                    + tileSize + " and " + other.width + "x" + other.height + " in tiles of " + other.tileSize);
+        }
+    }
+
+    private TiledMatrix combine(TiledMatrix other, double sign, TiledMatrix out) throws IOException {
+        int tileColumns = getTileColumns();
+        //even indices are the tiles of this matrix, odd ones the tiles of the other matrix
+        try (TilePrefetcher tiles = new TilePrefetcher(tileCount() * 2, PREFETCHED_TILES, index -> {
+            long tile = index / 2;
+            TiledMatrix source = index % 2 == 0 ? this : other;
+            return source.readTile((int) (tile % tileColumns), (int) (tile / tileColumns));
+        })) {
+            for (int tileY = 0; tileY < getTileRows(); tileY++) {
+                for (int tileX = 0; tileX < tileColumns; tileX++) {
+                    Cancellation.check();
+                    double[] left = tiles.next();
+                    double[] right = tiles.next();
+                    ArithmeticKernel.INSTANCE.axpy(sign, right, 0, left, 0, left.length);
+                    out.writeTile(tileX, tileY, left);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+        return out;
+    }
+
+    /**
+     * Computes every tile of the product from one row of tiles of this matrix and one column of tiles of the other.
+     * Products of tiles larger than the {@link Matrix#getParallelThreshold() parallel threshold} run with the
+     * {@link Matrix#getExecutionStrategy() execution strategy}.
+     *
+     * @param target the file of the product, which is overwritten
+     * @return the matrix product {@code this * other}
+     * @throws IllegalArgumentException if {@code this.width != other.height} or the tile sizes differ
+     * @throws IOException              if a file cannot be read or written
+     */
+    public TiledMatrix multiply(TiledMatrix other, Path target) throws IOException {
+        checkProduct(other);
+        return multiply(other, create(target, other.width, height, tileSize));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code this.width != other.height} or the tile sizes differ
+     * @throws UncheckedIOException     if a file cannot be read or written
+     * @see #multiply(TiledMatrix, Path)
+     */
+    @Override
+    public TiledMatrix multiply(TiledMatrix other) {
+        checkProduct(other);
+        try {
+            return multiply(other, createTemporary(other.width, height));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkProduct(TiledMatrix other) {
+        if (width != other.height) {
+            throw new IllegalArgumentException("Width and height do not match.");
+        }
+        if (tileSize != other.tileSize) {
+            throw new IllegalArgumentException("Tile sizes do not match: " + tileSize + " and " + other.tileSize);
+        }
+    }
+
+    private TiledMatrix multiply(TiledMatrix other, TiledMatrix out) throws IOException {
+        final int rows = getTileRows();
+        final int columns = other.getTileColumns();
+        final int inner = getTileColumns();
+        //for every tile of the product: the tiles (k, i) of this and (j, k) of the other matrix, alternating
+        long count = (long) rows * columns * inner * 2;
+        try (TilePrefetcher tiles = new TilePrefetcher(count, PREFETCHED_TILES, index -> {
+            long pair = index / 2;
+            int k = (int) (pair % inner);
+            long product = pair / inner;
+            int j = (int) (product % columns);
+            int i = (int) (product / columns);
+            return index % 2 == 0 ? readTile(k, i) : other.readTile(j, k);
+        })) {
+            ExecutionStrategy strategy = ExecutionStrategy.getDefault();
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    int cRows = tileHeight(i);
+                    int cColumns = other.tileWidth(j);
+                    double[] c = new double[cRows * cColumns];
+                    for (int k = 0; k < inner; k++) {
+                        Cancellation.check();
+                        double[] a = tiles.next();
+                        double[] b = tiles.next();
+                        MatrixMultiplication.multiply(a, b, c, cRows, tileWidth(k), cColumns, strategy);
+                    }
+                    out.writeTile(j, i, c);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+        return out;
+    }
+
+    /**
+     * @param target the file of the transposed matrix, which is overwritten
+     * @return the transposed matrix, {@code getHeight() x getWidth()}
+     * @throws IOException if a file cannot be read or written
+     */
+    public TiledMatrix transpose(Path target) throws IOException {
+        return transpose(create(target, height, width, tileSize));
+    }
+
+    /**
+     * @throws UncheckedIOException if a file cannot be read or written
+     * @see #transpose(Path)
+     */
+    @Override
+    public TiledMatrix transpose() {
+        try {
+            return transpose(createTemporary(height, width));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TiledMatrix transpose(TiledMatrix out) throws IOException {
+        //the tiles of the result in file order, each one is the transposed tile at the mirrored position
+        final int columns = out.getTileColumns();
+        try (TilePrefetcher tiles = new TilePrefetcher(out.tileCount(), PREFETCHED_TILES,
+                index -> readTile((int) (index / columns), (int) (index % columns)))) {
+            for (int tileY = 0; tileY < out.getTileRows(); tileY++) {
+                for (int tileX = 0; tileX < columns; tileX++) {
+                    Cancellation.check();
+                    double[] tile = tiles.next();
+                    double[] transposed = new double[tile.length];
+                    TranspositionType.MAIN_DIAGONAL.apply(tile, tileWidth(tileY), tileHeight(tileX), transposed);
+                    out.writeTile(tileX, tileY, transposed);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+        return out;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the matrix does not fit into an array
+     * @throws UncheckedIOException          if the file cannot be read
+     */
+    @Override
+    public byte[] toByteArray() {
+        return toMatrix().toByteArray();
+    }
+
+    /**
+     * Reads the whole matrix into memory.
+     *
+     * @throws UnsupportedOperationException if the matrix does not fit into an array
+     * @throws UncheckedIOException          if the file cannot be read
+     */
+    @Override
+    public Matrix toMatrix() {
+        long count = (long) width * height;
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new UnsupportedOperationException("A " + width + "x" + height + " matrix does not fit into an array");
+        }
+        double[] values = new double[(int) count];
+        try {
+            for (int tileY = 0; tileY < getTileRows(); tileY++) {
+                for (int tileX = 0; tileX < getTileColumns(); tileX++) {
+                    double[] tile = readTile(tileX, tileY);
+                    int columns = tileWidth(tileX);
+                    for (int y = 0; y < tileHeight(tileY); y++) {
+                        int to = (tileY * tileSize + y) * width + tileX * tileSize;
+                        System.arraycopy(tile, y * columns, values, to, columns);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Matrix(width, height, values);
+    }
+
+    /**
+     * Closes the file. Temporary results of the {@link NumericMatrix} methods are deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "TiledMatrix " + width + "x" + height + " in tiles of " + tileSize + " at " + file;
+    }
+}
@@ -21,11 +21,10 @@ public enum TranspositionType implements Function<Matrix, Matrix> {
      *      {1, 2, 3, 4, 5},            {5, 5, 5, 5, 5},
      * </pre>
      */
-    MAIN_DIAGONAL {
-        @SuppressWarnings("SuspiciousNameCombination")
-            //this works as intended.
-        void setValue(Matrix out, double val, int x, int y) {
-            out.set(val, y, x);
+    MAIN_DIAGONAL(true) {
+        @Override
+        void apply(double[] source, int width, int height, double[] out) {
+            transpose(source, width, height, out, false, 0, width, 0, height);
         }
     },
 
@@ -40,9 +39,10 @@ public enum TranspositionType implements Function<Matrix, Matrix> {
      *      {1, 2, 3, 4, 5},            {1, 1, 1, 1, 1},
      * </pre>
      */
-    SIDE_DIAGONAL {
-        void setValue(Matrix out, double val, int x, int y) {
-            out.set(val, out.getWidth() - (1 + y), out.getHeight() - (1 + x));
+    SIDE_DIAGONAL(true) {
+        @Override
+        void apply(double[] source, int width, int height, double[] out) {
+            transpose(source, width, height, out, true, 0, width, 0, height);
         }
     },
     /**
@@ -56,9 +56,14 @@ public enum TranspositionType implements Function<Matrix, Matrix> {
      *      {1, 2, 3, 4, 5},            {5, 4, 3, 2, 1},
      * </pre>
      */
-    VERTICAL_LINE {
-        void setValue(Matrix out, double val, int x, int y) {
-            out.set(val, out.getWidth() - (1 + x), y);
+    VERTICAL_LINE(false) {
+        @Override
+        void apply(double[] source, int width, int height, double[] out) {
+            for (int row = 0; row < source.length; row += width) {
+                for (int x = 0; x < width; x++) {
+                    out[row + width - (1 + x)] = source[row + x];
+                }
+            }
         }
     },
     /**
@@ -72,23 +77,99 @@ public enum TranspositionType implements Function<Matrix, Matrix> {
      *      {1, 2, 3, 4, 50},           {10, 2, 3, 4, 5},
      * </pre>
      */
-    HORIZONTAL_LINE {
-        void setValue(Matrix out, double val, int x, int y) {
-            out.set(val, x, out.getHeight() - (1 + y));
+    HORIZONTAL_LINE(false) {
+        @Override
+        void apply(double[] source, int width, int height, double[] out) {
+            for (int y = 0; y < height; y++) {
+                System.arraycopy(source, y * width, out, (height - (1 + y)) * width, width);
+            }
         }
     };
 
+    /**
+     * Side length of the tiles the diagonal transpositions are split into.
+     * Small enough that the 16 cache lines of a tile do not evict each other in the L1 cache
+     * when the width of the matrix is a power of 2.
+     */
+    private static final int TILE = 16;
+
+    private final boolean swapsDimensions;
+
+    TranspositionType(boolean swapsDimensions) {
+        this.swapsDimensions = swapsDimensions;
+    }
+
+    /**
+     * @return the width of the transposition of the given matrix
+     */
+    public int getWidth(Matrix matrix) {
+        return swapsDimensions ? matrix.getHeight() : matrix.getWidth();
+    }
+
+    /**
+     * @return the height of the transposition of the given matrix
+     */
+    public int getHeight(Matrix matrix) {
+        return swapsDimensions ? matrix.getWidth() : matrix.getHeight();
+    }
+
+    /**
+     * @return the transposition, created through {@link Matrix#copy(boolean) copy(false)} so it keeps the type
+     * of the matrix. Transpositions that swap the dimensions of a non-square matrix return a plain {@link Matrix},
+     * as the copy has the wrong dimensions.
+     */
     @Override
     public Matrix apply(Matrix matrix) {
-        Matrix out = matrix.copy(false);
-        for (int x = 0; x < matrix.getWidth(); x++) {
-            for (int y = 0; y < matrix.getHeight(); y++) {
-                double val = matrix.get(x, y);
-                setValue(out, val, x, y);
-            }
-        }
+        int width = getWidth(matrix);
+        Matrix out = width == matrix.getWidth() ? matrix.copy(false) : Matrix.of(width, getHeight(matrix));
+        apply(matrix.values(), matrix.getWidth(), matrix.getHeight(), out.writableValues());
         return out;
     }
 
-    abstract void setValue(Matrix out, double val, int x, int y);
+    /**
+     * Writes the transposition of the row major {@code width x height} values into {@code out}.
+     */
+    abstract void apply(double[] source, int width, int height, double[] out);
+
+    /**
+     * Cache oblivious transposition: splits the longer side of the area in half until it fits into a tile,
+     * so reads and writes stay within a few cache lines at every level of the cache hierarchy.
+     *
+     * @param reverse {@code true} to additionally reverse the order of the output, which mirrors the
+     *                transposition on the main diagonal into the one on the side diagonal
+     */
+    private static void transpose(double[] source, int width, int height, double[] out, boolean reverse,
+                                  int fromX, int toX, int fromY, int toY) {
+        int columns = toX - fromX;
+        int rows = toY - fromY;
+        if (columns > TILE || rows > TILE) {
+            if (columns >= rows) {
+                int middle = fromX + columns / 2;
+                transpose(source, width, height, out, reverse, fromX, middle, fromY, toY);
+                transpose(source, width, height, out, reverse, middle, toX, fromY, toY);
+            } else {
+                int middle = fromY + rows / 2;
+                transpose(source, width, height, out, reverse, fromX, toX, fromY, middle);
+                transpose(source, width, height, out, reverse, fromX, toX, middle, toY);
+            }
+            return;
+        }
+        //value (x, y) moves to (y, x) of the height wide output, reversed it ends up at the mirrored index
+        if (reverse) {
+            int last = source.length - 1;
+            for (int y = fromY; y < toY; y++) {
+                int row = y * width;
+                for (int x = fromX; x < toX; x++) {
+                    out[last - (x * height + y)] = source[row + x];
+                }
+            }
+        } else {
+            for (int y = fromY; y < toY; y++) {
+                int row = y * width;
+                for (int x = fromX; x < toX; x++) {
+                    out[x * height + y] = source[row + x];
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package org.kurodev.matrix;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ArithmeticKernel} using the JDK Vector API.
+ * Only compiled by the {@code simd} maven profile and loaded reflectively by {@link ArithmeticKernel#INSTANCE}.
+ */
+final class VectorKernel extends ArithmeticKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    void add(double[] a, double[] b, double[] out) {
+        int i = 0;
+        int bound = SPECIES.loopBound(out.length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i)
+                    .add(DoubleVector.fromArray(SPECIES, b, i))
+                    .intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = a[i] + b[i];
+        }
+    }
+
+    @Override
+    void subtract(double[] a, double[] b, double[] out) {
+        int i = 0;
+        int bound = SPECIES.loopBound(out.length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i)
+                    .sub(DoubleVector.fromArray(SPECIES, b, i))
+                    .intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = a[i] - b[i];
+        }
+    }
+
+    @Override
+    void scale(double[] a, double scalar, double[] out) {
+        int i = 0;
+        int bound = SPECIES.loopBound(out.length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).mul(scalar).intoArray(out, i);
+        }
+        for (; i < out.length; i++) {
+            out[i] = a[i] * scalar;
+        }
+    }
+
+    @Override
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int length) {
+        DoubleVector factor = DoubleVector.broadcast(SPECIES, alpha);
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + i)
+                    .fma(factor, DoubleVector.fromArray(SPECIES, y, yOffset + i))
+                    .intoArray(y, yOffset + i);
+        }
+        for (; i < length; i++) {
+            y[yOffset + i] += alpha * x[xOffset + i];
+        }
+    }
+}
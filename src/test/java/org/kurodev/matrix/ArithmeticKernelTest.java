@@ -0,0 +1,76 @@
+package org.kurodev.matrix;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Lives in the library package, as the kernels are package-private.
+ * Run with {@code -Psimd} to compare the Vector API kernel with the scalar loops.
+ */
+public class ArithmeticKernelTest {
+    private static final ArithmeticKernel SCALAR = new ArithmeticKernel.ScalarKernel();
+
+    private static double[] random(Random rng, int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = rng.nextDouble() - 0.5;
+        }
+        return values;
+    }
+
+    @Test
+    public void vectorKernelShouldOnlyBeUsedWhenAvailable() {
+        boolean built;
+        try {
+            Class.forName("org.kurodev.matrix.VectorKernel");
+            built = true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            built = false;
+        }
+        boolean expected = built
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                && Boolean.parseBoolean(System.getProperty(ArithmeticKernel.SIMD_PROPERTY, "true"));
+        assertEquals(expected, ArithmeticKernel.INSTANCE.isVectorized());
+        assertFalse(SCALAR.isVectorized());
+    }
+
+    @Test
+    public void elementwiseOperationsShouldMatchTheScalarLoops() {
+        Random rng = new Random(123456789);
+        //covers lengths below, at and between multiples of every vector width
+        for (int length = 0; length <= 67; length++) {
+            double[] a = random(rng, length);
+            double[] b = random(rng, length);
+            double[] expected = new double[length];
+            double[] actual = new double[length];
+            SCALAR.add(a, b, expected);
+            ArithmeticKernel.INSTANCE.add(a, b, actual);
+            assertArrayEquals(expected, actual, 0);
+            SCALAR.subtract(a, b, expected);
+            ArithmeticKernel.INSTANCE.subtract(a, b, actual);
+            assertArrayEquals(expected, actual, 0);
+            SCALAR.scale(a, 1.7, expected);
+            ArithmeticKernel.INSTANCE.scale(a, 1.7, actual);
+            assertArrayEquals(expected, actual, 0);
+        }
+    }
+
+    @Test
+    public void axpyShouldMatchTheScalarLoop() {
+        Random rng = new Random(123456789);
+        for (int length = 0; length <= 67; length++) {
+            for (int offset = 0; offset < 3; offset++) {
+                double[] x = random(rng, length + offset);
+                double[] y = random(rng, length + 2 * offset);
+                double[] expected = y.clone();
+                SCALAR.axpy(0.3, x, offset, expected, 2 * offset, length);
+                ArithmeticKernel.INSTANCE.axpy(0.3, x, offset, y, 2 * offset, length);
+                //the vector kernel uses fused multiply-add, which rounds once instead of twice
+                assertArrayEquals(expected, y, 1e-15);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.kurodev.matrix;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Lives in the library package, as the prefetcher is package-private.
+ */
+public class TilePrefetcherTest {
+
+    private static TilePrefetcher failingAt(long failingIndex, Throwable failure) {
+        return new TilePrefetcher(4, 2, index -> {
+            if (index == failingIndex) {
+                if (failure instanceof IOException) {
+                    throw (IOException) failure;
+                }
+                if (failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                throw (RuntimeException) failure;
+            }
+            return new double[]{index};
+        });
+    }
+
+    @Test(timeout = 10_000)
+    public void tilesShouldArriveInOrder() throws IOException {
+        try (TilePrefetcher prefetcher = failingAt(-1, null)) {
+            for (int index = 0; index < 4; index++) {
+                assertArrayEquals(new double[]{index}, prefetcher.next(), 0);
+            }
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void failuresShouldBeRethrownByNext() throws IOException {
+        Throwable[] failures = {new IOException("read"), new IllegalStateException("state"), new OutOfMemoryError("oom")};
+        for (Throwable failure : failures) {
+            try (TilePrefetcher prefetcher = failingAt(1, failure)) {
+                assertArrayEquals(new double[]{0}, prefetcher.next(), 0);
+                try {
+                    prefetcher.next();
+                    fail("Expected " + failure);
+                } catch (IOException | RuntimeException | Error e) {
+                    assertSame(failure, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.Matrix;
+
+import java.util.Random;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class AsyncTest {
+    private static final double DELTA = 0.000000001d;
+
+    @Test
+    public void asyncResultsShouldMatchSynchronousResults() throws Exception {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(40, rng);
+        Matrix b = Matrix.of(40, rng);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertEquals(a.copy(true).getDeterminant(), a.determinantAsync(executor).get(), 0);
+            assertTrue(a.inverse().equals(a.inverseAsync(executor).get(), DELTA));
+            assertTrue(a.multiply(b).equals(a.multiplyAsync(b, executor).get(), 0));
+            assertTrue(a.multiply(b).equals(a.multiplyAsync(b).get(), 0));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void asyncCallsShouldCompose() throws Exception {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(10, rng);
+        Matrix b = Matrix.of(10, rng);
+        double determinant = a.multiplyAsync(b)
+                .thenCompose(Matrix::inverseAsync)
+                .thenCompose(Matrix::determinantAsync)
+                .get(10, TimeUnit.SECONDS);
+        double expected = 1 / (a.getDeterminant() * b.getDeterminant());
+        assertEquals(expected, determinant, Math.abs(expected) * DELTA);
+    }
+
+    @Test
+    public void errorMatrixShouldBeReturnedAsResult() throws Exception {
+        assertTrue(Matrix.of(3, 4).multiplyAsync(Matrix.of(5, 6)).get().isError());
+    }
+
+    @Test(timeout = 20000)
+    public void cancellingShouldStopTheComputation() throws Exception {
+        //several seconds of LU decomposition on a single core
+        Matrix big = Matrix.of(2500, new Random(123456789));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Double> determinant = big.determinantAsync(executor);
+            Thread.sleep(200);
+            assertTrue(determinant.cancel(true));
+            long start = System.nanoTime();
+            //the single thread of the executor is free again once the decomposition stopped
+            executor.submit(() -> null).get();
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("took " + millis + "ms to stop", millis < 1000);
+            assertTrue(determinant.isCancelled());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.DeterminantMethod;
+import org.kurodev.matrix.Matrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DeterminantTest {
+    private static final double DELTA = 0.000000000001d;
+
+    @Test
+    public void luDecompositionShouldMatchLaplaceExpansion() {
+        Random rng = new Random(123456789);
+        for (int n = 1; n < 8; n++) {
+            Matrix m = Matrix.of(n, rng);
+            double exact = m.getDeterminant(DeterminantMethod.LAPLACE_EXPANSION);
+            assertEquals(exact, m.getDeterminant(DeterminantMethod.LU_DECOMPOSITION), DELTA);
+        }
+    }
+
+    @Test
+    public void luDecompositionRequiresPivoting() {
+        double[][] data = {
+                {0, 2, 1, 4},
+                {1, 0, 3, 2},
+                {2, 1, 0, 1},
+                {3, 4, 1, 0},
+        };
+        Matrix m = Matrix.of(data);
+        assertEquals(m.getDeterminant(DeterminantMethod.LAPLACE_EXPANSION), m.getDeterminant(), DELTA);
+    }
+
+    @Test
+    public void singularMatrixShouldHaveZeroDeterminant() {
+        double[][] data = {
+                {1, 2, 3, 4},
+                {2, 4, 6, 8},
+                {1, 0, 1, 0},
+                {0, 1, 0, 1},
+        };
+        assertEquals(0, Matrix.of(data).getDeterminant(), DELTA);
+    }
+
+    @Test
+    public void laplaceExpansionShouldBeExactForLargeIntegerMatrices() {
+        //L * U with unit lower and integer upper triangular factors has the product of the diagonal as determinant
+        int n = 16;
+        Random rng = new Random(123456789);
+        double[][] lower = new double[n][n];
+        double[][] upper = new double[n][n];
+        double expected = 1;
+        for (int y = 0; y < n; y++) {
+            lower[y][y] = 1;
+            upper[y][y] = rng.nextInt(3) + 1;
+            expected *= upper[y][y];
+            for (int x = 0; x < y; x++) {
+                lower[y][x] = rng.nextInt(5) - 2;
+                upper[x][y] = rng.nextInt(5) - 2;
+            }
+        }
+        Matrix m = Matrix.of(lower).multiply(Matrix.of(upper));
+        assertEquals(expected, m.getDeterminant(DeterminantMethod.LAPLACE_EXPANSION), 0);
+    }
+
+    @Test
+    public void laplaceInverseShouldMatchLuInverse() {
+        Matrix m = Matrix.of(12, new Random(123456789));
+        assertTrue(m.inverse().equals(m.inverse(DeterminantMethod.LAPLACE_EXPANSION), 0.000000001));
+    }
+
+    @Test
+    public void nonSquareMatrixShouldNotHaveDeterminant() {
+        Matrix m = Matrix.of(4, 5);
+        assertTrue(Double.isNaN(m.getDeterminant()));
+        assertTrue(Double.isNaN(m.getDeterminant(DeterminantMethod.LU_DECOMPOSITION)));
+    }
+
+    @Test
+    public void concurrentCallersShouldShareOneComputation() throws Exception {
+        CountingMatrix m = new CountingMatrix(Matrix.of(120, new Random(123456789)).toArray());
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return m.getDeterminant();
+                }));
+            }
+            start.countDown();
+            for (Future<Double> result : results) {
+                assertEquals(results.get(0).get(), result.get(), 0);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        //the LU decomposition copies the values exactly once
+        assertEquals(1, m.copies.get());
+    }
+
+    private static final class CountingMatrix extends Matrix {
+        private final AtomicInteger copies = new AtomicInteger();
+
+        private CountingMatrix(double[] values) {
+            super(120, 120, toRows(values));
+        }
+
+        private static double[][] toRows(double[] values) {
+            double[][] rows = new double[120][];
+            for (int y = 0; y < rows.length; y++) {
+                rows[y] = Arrays.copyOfRange(values, y * 120, (y + 1) * 120);
+            }
+            return rows;
+        }
+
+        @Override
+        public double[] toArray() {
+            copies.incrementAndGet();
+            return super.toArray();
+        }
+    }
+}
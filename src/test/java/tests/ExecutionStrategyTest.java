@@ -0,0 +1,153 @@
+package tests;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kurodev.matrix.DeterminantMethod;
+import org.kurodev.matrix.ExecutionStrategy;
+import org.kurodev.matrix.Matrix;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ExecutionStrategyTest {
+    private long threshold;
+    private int cutoff;
+
+    @Before
+    public void setUp() {
+        threshold = Matrix.getParallelThreshold();
+        cutoff = Matrix.getStrassenCutoff();
+        Matrix.setParallelThreshold(10_000);
+    }
+
+    @After
+    public void tearDown() {
+        Matrix.setParallelThreshold(threshold);
+        Matrix.setStrassenCutoff(cutoff);
+        Matrix.setExecutionStrategy(ExecutionStrategy.commonPool());
+    }
+
+    private List<ExecutionStrategy> strategies() {
+        return Arrays.asList(ExecutionStrategy.commonPool(), ExecutionStrategy.sequential(),
+                ExecutionStrategy.dedicatedPool(2), ExecutionStrategy.threadPerTask(Thread::new));
+    }
+
+    @Test
+    public void everyStrategyShouldComputeTheSameProduct() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(150, 217, rng);
+        Matrix b = Matrix.of(181, 150, rng);
+        Matrix expected = a.multiply(b, ExecutionStrategy.sequential());
+        for (ExecutionStrategy strategy : strategies()) {
+            try (strategy) {
+                assertTrue(strategy.toString(), expected.equals(a.multiply(b, strategy), 0));
+            }
+        }
+    }
+
+    @Test
+    public void everyStrategyShouldComputeTheSameStrassenProduct() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(101, rng);
+        Matrix b = Matrix.of(101, rng);
+        Matrix.setStrassenCutoff(25);
+        Matrix expected = a.multiply(b, ExecutionStrategy.sequential());
+        for (ExecutionStrategy strategy : strategies()) {
+            try (strategy) {
+                assertTrue(strategy.toString(), expected.equals(a.multiply(b, strategy), 0.000000001));
+            }
+        }
+    }
+
+    @Test
+    public void everyStrategyShouldExpandTheSameDeterminant() {
+        Random rng = new Random(123456789);
+        double[][] values = new double[8][8];
+        for (double[] row : values) {
+            for (int x = 0; x < row.length; x++) {
+                row[x] = rng.nextInt(10) - 5;
+            }
+        }
+        Matrix.setParallelThreshold(1);
+        double expected = Matrix.of(values).getDeterminant(DeterminantMethod.LAPLACE_EXPANSION,
+                ExecutionStrategy.sequential());
+        assertEquals(Matrix.of(values).getDeterminant(DeterminantMethod.LU_DECOMPOSITION), expected, 0.0001);
+        for (ExecutionStrategy strategy : strategies()) {
+            try (strategy) {
+                assertEquals(strategy.toString(), expected,
+                        Matrix.of(values).getDeterminant(DeterminantMethod.LAPLACE_EXPANSION, strategy), 0);
+            }
+        }
+    }
+
+    @Test
+    public void defaultStrategyShouldBeUsedWithoutOwnStrategy() {
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            threads.incrementAndGet();
+            return new Thread(task);
+        };
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(100, 120, rng);
+        Matrix b = Matrix.of(120, 100, rng);
+        Matrix.setExecutionStrategy(ExecutionStrategy.threadPerTask(factory));
+        a.multiply(b);
+        assertTrue(threads.get() > 0);
+
+        //below the threshold everything stays on the calling thread
+        threads.set(0);
+        Matrix.setParallelThreshold(Long.MAX_VALUE);
+        a.multiply(b);
+        assertEquals(0, threads.get());
+    }
+
+    @Test
+    public void sequentialExecutorShouldRunOnTheCallingThread() throws Exception {
+        Thread caller = Thread.currentThread();
+        Matrix.setExecutionStrategy(ExecutionStrategy.sequential());
+        Matrix matrix = Matrix.of(new double[][]{{1, 2}, {3, 4}});
+        assertTrue(matrix.determinantAsync().isDone());
+        assertEquals(-2, matrix.determinantAsync().get(), 0);
+        Thread[] thread = new Thread[1];
+        ExecutionStrategy.sequential().executor().execute(() -> thread[0] = Thread.currentThread());
+        assertSame(caller, thread[0]);
+    }
+
+    @Test
+    public void dedicatedPoolShouldRunOnItsOwnThreads() throws Exception {
+        try (ExecutionStrategy strategy = ExecutionStrategy.dedicatedPool(1)) {
+            String name = CompletableFuture.supplyAsync(() -> Thread.currentThread().getName(),
+                    strategy.executor()).get();
+            assertTrue(name, name.startsWith("matrix-worker-"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void dedicatedPoolShouldRequireThreads() {
+        ExecutionStrategy.dedicatedPool(0);
+    }
+
+    @Test
+    public void virtualThreadsShouldOnlyBeAvailableIfSupported() {
+        if (!ExecutionStrategy.isVirtualThreadsSupported()) {
+            try {
+                ExecutionStrategy.virtualThreads();
+                fail("Virtual threads are not supported by this runtime");
+            } catch (UnsupportedOperationException expected) {
+                return;
+            }
+        }
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(100, rng);
+        Matrix b = Matrix.of(100, rng);
+        assertTrue(a.multiply(b, ExecutionStrategy.sequential())
+                .equals(a.multiply(b, ExecutionStrategy.virtualThreads()), 0));
+    }
+}
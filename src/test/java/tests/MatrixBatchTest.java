@@ -0,0 +1,93 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.MatrixBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MatrixBatchTest {
+    private static final double DELTA = 0.000000001d;
+
+    private static List<Matrix> randomMatrices(int width, int height, int count, Random rng) {
+        List<Matrix> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(Matrix.of(width, height, rng));
+        }
+        return out;
+    }
+
+    @Test
+    public void batchShouldKeepMatrices() {
+        List<Matrix> matrices = randomMatrices(3, 2, 5, new Random(123456789));
+        MatrixBatch batch = MatrixBatch.of(matrices);
+        assertEquals(5, batch.size());
+        for (int i = 0; i < matrices.size(); i++) {
+            assertEquals(matrices.get(i), batch.getMatrix(i));
+            assertEquals(matrices.get(i).get(2, 1), batch.get(i, 2, 1), 0);
+        }
+        MatrixBatch copy = MatrixBatch.of(3, 2, batch.toArray());
+        assertArrayEquals(batch.toArray(), copy.toArray(), 0);
+    }
+
+    @Test
+    public void batchedOperationsShouldMatchSingleOperations() {
+        Random rng = new Random(123456789);
+        for (int size = 1; size <= 6; size++) {
+            List<Matrix> a = randomMatrices(size, size, 7, rng);
+            List<Matrix> b = randomMatrices(size, size, 7, rng);
+            MatrixBatch batchA = MatrixBatch.of(a);
+            MatrixBatch batchB = MatrixBatch.of(b);
+            MatrixBatch sum = batchA.add(batchB);
+            MatrixBatch product = batchA.multiply(batchB);
+            MatrixBatch inverse = batchA.inverse();
+            double[] determinants = batchA.getDeterminant();
+            for (int i = 0; i < a.size(); i++) {
+                String message = size + "x" + size + " #" + i;
+                assertTrue(message, a.get(i).add(b.get(i)).equals(sum.getMatrix(i), DELTA));
+                assertTrue(message, a.get(i).multiply(b.get(i)).equals(product.getMatrix(i), DELTA));
+                assertTrue(message, a.get(i).inverse().equals(inverse.getMatrix(i), DELTA));
+                assertEquals(message, a.get(i).getDeterminant(), determinants[i], DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void nonSquareProductShouldMatchSingleProducts() {
+        Random rng = new Random(123456789);
+        List<Matrix> a = randomMatrices(3, 2, 4, rng);
+        List<Matrix> b = randomMatrices(4, 3, 4, rng);
+        MatrixBatch product = MatrixBatch.of(a).multiply(MatrixBatch.of(b));
+        assertEquals(4, product.getWidth());
+        assertEquals(2, product.getHeight());
+        for (int i = 0; i < a.size(); i++) {
+            assertTrue(a.get(i).multiply(b.get(i)).equals(product.getMatrix(i), DELTA));
+        }
+    }
+
+    @Test
+    public void singularMatrixShouldResultInNaN() {
+        Matrix singular = Matrix.of(new double[][]{
+                {1, 2, 3},
+                {2, 4, 6},
+                {0, 1, 0}});
+        MatrixBatch inverse = MatrixBatch.of(singular, Matrix.identityMatrix(3)).inverse();
+        assertTrue(Double.isNaN(inverse.get(0, 1, 1)));
+        assertEquals(Matrix.identityMatrix(3), inverse.getMatrix(1));
+        assertTrue(Double.isNaN(MatrixBatch.of(Matrix.of(3, 2)).getDeterminant()[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentDimensionsShouldThrow() {
+        MatrixBatch.of(Matrix.of(3, 3), Matrix.of(3, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentBatchSizesShouldThrow() {
+        MatrixBatch.of(Matrix.of(3, 3)).add(MatrixBatch.of(Matrix.of(3, 3), Matrix.of(3, 3)));
+    }
+}
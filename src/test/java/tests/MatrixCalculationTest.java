@@ -1,9 +1,15 @@
 package tests;
 
 import org.junit.Test;
+import org.kurodev.matrix.DeterminantMethod;
+import org.kurodev.matrix.ExecutionStrategy;
 import org.kurodev.matrix.Matrix;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class MatrixCalculationTest {
@@ -156,4 +162,93 @@ public class MatrixCalculationTest {
         Matrix mResult = m1.add(m2);
         assertTrue(mResult.isError());
     }
+
+    @Test
+    public void inverseOfBigMatrixMultipliedWithItselfShouldBeIdentity() {
+        Matrix m = Matrix.of(200, new Random(123456789));
+        Matrix inverse = m.inverse();
+        assertFalse(inverse.isError());
+        assertTrue(Matrix.identityMatrix(200).equals(m.multiply(inverse), 0.000001));
+        assertEquals(1 / m.getDeterminant(), inverse.getDeterminant(), 0);
+    }
+
+    @Test
+    public void inverseMethodsShouldMatch() {
+        double[][] input = {
+                {2, 0, 1, 3},
+                {1, 4, 0, 2},
+                {0, 1, 5, 1},
+                {3, 2, 1, 0}
+        };
+        Matrix m = Matrix.of(input);
+        assertEquals(m.inverse(DeterminantMethod.LAPLACE_EXPANSION), m.inverse());
+    }
+
+    @Test
+    public void singularMatrixShouldNotHaveInverse() {
+        double[][] input = {
+                {1, 2, 3, 4},
+                {2, 4, 6, 8},
+                {1, 0, 1, 0},
+                {0, 1, 0, 1}
+        };
+        assertTrue(Matrix.of(input).inverse().isError());
+    }
+
+    @Test
+    public void blockedMultiplicationShouldMatchNaiveProduct() {
+        Random rng = new Random(123456789);
+        //sizes which are not multiples of the block sizes to cover the partial tiles
+        Matrix a = Matrix.of(301, 157, rng);
+        Matrix b = Matrix.of(139, 301, rng);
+        double[][] expected = new double[a.getHeight()][b.getWidth()];
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < b.getWidth(); x++) {
+                for (int i = 0; i < a.getWidth(); i++) {
+                    expected[y][x] += a.get(i, y) * b.get(x, i);
+                }
+            }
+        }
+        assertTrue(Matrix.of(expected).equals(a.multiply(b), 0.000000001));
+    }
+
+    @Test
+    public void parallelMultiplicationShouldMatchSequentialProduct() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(300, 517, rng);
+        Matrix b = Matrix.of(411, 300, rng);
+        long threshold = Matrix.getParallelThreshold();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Matrix.setParallelThreshold(10_000);
+            Matrix expected = a.multiply(b, ExecutionStrategy.sequential());
+            assertTrue(expected.equals(a.multiply(b, ExecutionStrategy.forkJoin(pool)), 0));
+        } finally {
+            Matrix.setParallelThreshold(threshold);
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void strassenMultiplicationShouldMatchClassicalProduct() {
+        Random rng = new Random(123456789);
+        //odd size, padded to 208 and split 4 times with the small cutoff
+        Matrix a = Matrix.of(203, rng);
+        Matrix b = Matrix.of(203, rng);
+        int cutoff = Matrix.getStrassenCutoff();
+        long threshold = Matrix.getParallelThreshold();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Matrix.setStrassenCutoff(Integer.MAX_VALUE);
+            Matrix expected = a.multiply(b, ExecutionStrategy.sequential());
+            Matrix.setStrassenCutoff(25);
+            Matrix.setParallelThreshold(10_000);
+            assertTrue(expected.equals(a.multiply(b, ExecutionStrategy.sequential()), 0.000000001));
+            assertTrue(expected.equals(a.multiply(b, ExecutionStrategy.forkJoin(pool)), 0.000000001));
+        } finally {
+            Matrix.setStrassenCutoff(cutoff);
+            Matrix.setParallelThreshold(threshold);
+            pool.shutdown();
+        }
+    }
 }
@@ -0,0 +1,139 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.FloatMatrix;
+import org.kurodev.matrix.IntMatrix;
+import org.kurodev.matrix.LongMatrix;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.MatrixContainer;
+import org.kurodev.matrix.MatrixContainer.Compression;
+import org.kurodev.matrix.NumericMatrix;
+import org.kurodev.matrix.SparseMatrix;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MatrixContainerTest {
+
+    @Test
+    public void everyTypeShouldRoundTrip() {
+        Random rng = new Random(123456789);
+        Matrix dense = Matrix.of(150, 130, rng);
+        NumericMatrix<?>[] matrices = {
+                dense,
+                FloatMatrix.of(dense),
+                IntMatrix.of(Matrix.of(new double[][]{{1, -2, 3}, {Integer.MAX_VALUE, Integer.MIN_VALUE, 0}})),
+                LongMatrix.of(new long[][]{{Long.MAX_VALUE, Long.MIN_VALUE}, {0, -1}}),
+                Matrix.of(0, 0),
+        };
+        for (Compression compression : Compression.values()) {
+            for (NumericMatrix<?> matrix : matrices) {
+                NumericMatrix<?> decoded = MatrixContainer.decode(MatrixContainer.encode(matrix, compression));
+                assertEquals(matrix.getClass(), decoded.getClass());
+                assertTrue(matrix.toMatrix().equals(decoded.toMatrix(), 0));
+            }
+        }
+    }
+
+    @Test
+    public void sparseMatricesShouldStaySparseAndCompress() {
+        int size = 500;
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = i;
+            ys[i] = i;
+            values[i] = i + 1;
+        }
+        SparseMatrix sparse = SparseMatrix.of(size, size, xs, ys, values);
+        byte[] bytes = MatrixContainer.encode(sparse, Compression.DEFLATE);
+        NumericMatrix<?> decoded = MatrixContainer.decode(bytes);
+        assertTrue(decoded instanceof SparseMatrix);
+        assertEquals(size, ((SparseMatrix) decoded).getNonZeroCount());
+        assertTrue(sparse.equals(decoded.toMatrix(), 0));
+        assertTrue(bytes.length < size * (Integer.BYTES * 2 + Double.BYTES));
+
+        Matrix dense = sparse.toDense();
+        byte[] compressed = MatrixContainer.encode(dense, Compression.DEFLATE);
+        assertTrue(compressed.length * 50 < dense.toByteArray().length);
+        assertTrue(dense.equals(MatrixContainer.decode(compressed).toMatrix(), 0));
+    }
+
+    @Test
+    public void randomValuesShouldNotGrowWhenCompressed() {
+        Matrix matrix = Matrix.of(200, 200, new Random(123456789));
+        int uncompressed = MatrixContainer.encode(matrix, Compression.NONE).length;
+        assertTrue(MatrixContainer.encode(matrix, Compression.DEFLATE).length <= uncompressed);
+    }
+
+    @Test
+    public void containersShouldBeReadableFromStreams() throws IOException {
+        Random rng = new Random(123456789);
+        Matrix first = Matrix.of(40, 30, rng);
+        FloatMatrix second = FloatMatrix.of(Matrix.of(20, 10, rng));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatrixContainer.write(first, out, Compression.DEFLATE, ByteOrder.LITTLE_ENDIAN);
+        MatrixContainer.write(second, out, Compression.NONE, ByteOrder.BIG_ENDIAN);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        assertTrue(first.equals(MatrixContainer.read(in).toMatrix(), 0));
+        assertEquals(second, MatrixContainer.read(in));
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void corruptedValuesShouldBeDetected() {
+        byte[] bytes = MatrixContainer.encode(Matrix.of(10, 10, new Random(123456789)));
+        bytes[100] ^= 1;
+        try {
+            MatrixContainer.decode(bytes);
+            fail("Expected a checksum mismatch");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("Checksum"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bareByteArraysShouldBeRejected() {
+        MatrixContainer.decode(Matrix.of(3, 3).toByteArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedContainersShouldBeRejected() {
+        byte[] bytes = MatrixContainer.encode(Matrix.of(3, 3), Compression.DEFLATE);
+        MatrixContainer.decode(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test
+    public void hugeDimensionsShouldNotBeAllocatedBeforeTheValuesArrive() {
+        Matrix single = Matrix.of(new double[][]{{1}});
+        List<NumericMatrix<?>> matrices = List.of(single, FloatMatrix.of(single), IntMatrix.of(single),
+                LongMatrix.of(single), SparseMatrix.of(single));
+        for (NumericMatrix<?> matrix : matrices) {
+            byte[] bytes = MatrixContainer.encode(matrix);
+            //a header claiming 46340x46340 values, about 17GB of doubles, followed by a single value
+            ByteBuffer.wrap(bytes).putInt(12, 46340).putInt(16, 46340);
+            try {
+                MatrixContainer.decode(bytes);
+                fail("Decoded " + matrix.getClass().getSimpleName() + " with missing values");
+            } catch (IllegalArgumentException expected) {
+                //the values ended long before the claimed dimensions
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void newerVersionsShouldBeRejected() {
+        byte[] bytes = MatrixContainer.encode(Matrix.of(3, 3));
+        bytes[4] = MatrixContainer.VERSION + 1;
+        MatrixContainer.decode(bytes);
+    }
+}
@@ -0,0 +1,74 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.MatrixExpression;
+import org.kurodev.matrix.SparseMatrix;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MatrixExpressionTest {
+    private static final double DELTA = 0.000000001d;
+
+    @Test
+    public void lazyChainShouldMatchEagerChain() {
+        Random rng = new Random(123456789);
+        //bigger than one block of the fused loop
+        Matrix a = Matrix.of(70, 50, rng);
+        Matrix b = Matrix.of(70, 50, rng);
+        Matrix c = Matrix.of(70, 50, rng);
+        Matrix expected = a.add(b).subtract(c).multiply(2);
+        Matrix result = a.lazy().add(b).subtract(c).scale(2).evaluate();
+        assertTrue(expected.equals(result, DELTA));
+    }
+
+    @Test
+    public void sameOperandShouldBeCombined() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(5, rng);
+        Matrix b = Matrix.of(5, rng);
+        Matrix expected = a.multiply(3).subtract(b);
+        Matrix result = a.lazy().add(a).subtract(b).add(a.lazy().subtract(b.lazy().scale(-1)).subtract(b)).evaluate();
+        assertTrue(expected.equals(result, DELTA));
+    }
+
+    @Test
+    public void multiplyShouldEvaluateFirst() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(4, 3, rng);
+        Matrix b = Matrix.of(4, 3, rng);
+        Matrix c = Matrix.of(3, 4, rng);
+        Matrix expected = a.add(b).multiply(c).multiply(0.5);
+        MatrixExpression product = a.lazy().add(b).multiply(c).scale(0.5);
+        assertEquals(3, product.getWidth());
+        assertEquals(3, product.getHeight());
+        assertTrue(expected.equals(product.evaluate(), DELTA));
+    }
+
+    @Test
+    public void sparseOperandsShouldBeSupported() {
+        Matrix a = Matrix.of(4, new Random(123456789));
+        Matrix sparse = SparseMatrix.of(4, 4, new int[]{0, 3}, new int[]{1, 2}, new double[]{5, -2});
+        assertTrue(a.add(sparse).equals(a.lazy().add(sparse).evaluate(), DELTA));
+    }
+
+    @Test
+    public void evaluateShouldNotReturnOperand() {
+        Matrix a = Matrix.of(3, new Random(123456789));
+        Matrix result = a.lazy().evaluate();
+        assertNotSame(a, result);
+        assertEquals(a, result);
+    }
+
+    @Test
+    public void invalidDimensionsShouldResultInErrorMatrix() {
+        Matrix a = Matrix.of(3, 4);
+        Matrix b = Matrix.of(4, 3);
+        MatrixExpression expression = a.lazy().add(a).subtract(b).scale(2);
+        assertTrue(expression.isError());
+        assertTrue(expression.evaluate().isError());
+        assertTrue(a.lazy().multiply(a).evaluate().isError());
+    }
+}
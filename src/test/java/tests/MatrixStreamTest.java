@@ -0,0 +1,139 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.MatrixReader;
+import org.kurodev.matrix.MatrixWriter;
+import org.kurodev.matrix.OffHeapMatrix;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MatrixStreamTest {
+
+    @Test
+    public void textShouldRoundTripExactly() throws IOException {
+        Matrix matrix = Matrix.of(17, 11, new Random(123456789)).multiply(1e-7);
+        StringWriter text = new StringWriter();
+        try (MatrixWriter writer = MatrixWriter.text(text, 17)) {
+            writer.writeRows(matrix);
+        }
+        assertTrue(matrix.equals(Matrix.of(text.toString()), 0));
+        try (MatrixReader reader = MatrixReader.text(new StringReader(text.toString()))) {
+            assertEquals(-1, reader.getWidth());
+            for (int y = 0; y < 11; y++) {
+                double[] row = reader.readRow();
+                assertEquals(17, reader.getWidth());
+                assertEquals(matrix.get(16, y), row[16], 0);
+            }
+            assertNull(reader.readRow());
+            assertEquals(11, reader.getRowCount());
+        }
+    }
+
+    @Test
+    public void nonFiniteValuesShouldRoundTrip() throws IOException {
+        Matrix matrix = Matrix.of(new double[][]{{1, Double.NaN}, {2, Double.POSITIVE_INFINITY},
+                {Double.NEGATIVE_INFINITY, -2}});
+        for (int digits = -1; digits < 3; digits++) {
+            StringWriter text = new StringWriter();
+            //-1 writes the shortest exact representation
+            try (MatrixWriter writer = digits < 0 ? MatrixWriter.text(text, 2) : MatrixWriter.text(text, 2, digits)) {
+                writer.writeRows(matrix);
+            }
+            Matrix read = Matrix.of(text.toString());
+            assertEquals(2, read.getWidth());
+            assertEquals(3, read.getHeight());
+            assertArrayEquals(matrix.toArray(), read.toArray(), 0);
+        }
+        assertArrayEquals(matrix.toArray(), Matrix.of(matrix.toString()).toArray(), 0);
+    }
+
+    @Test
+    public void roundedTextShouldMatchToString() throws IOException {
+        Matrix matrix = Matrix.of(new double[][]{{1.005, -0.0000001, 2.5}, {-1234.5678, 1e20, 0}});
+        for (int digits = 0; digits < 8; digits++) {
+            StringWriter text = new StringWriter();
+            try (MatrixWriter writer = MatrixWriter.text(text, 3, digits)) {
+                writer.writeRows(matrix);
+            }
+            assertEquals(matrix.toString(digits), text.toString());
+        }
+        assertEquals("1.005000 -0.000000 2.500000 \n-1234.567800 100000000000000000000.000000 0.000000 \n",
+                matrix.toString());
+    }
+
+    @Test
+    public void binaryShouldMatchToByteArray() throws IOException {
+        Matrix matrix = Matrix.of(300, 20, new Random(123456789));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OffHeapMatrix offHeap = OffHeapMatrix.of(matrix);
+             MatrixWriter writer = MatrixWriter.binary(Channels.newChannel(out), 300, 20)) {
+            writer.writeRows(offHeap);
+        }
+        assertArrayEquals(matrix.toByteArray(), out.toByteArray());
+        try (MatrixReader reader = MatrixReader.binary(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(300, reader.getWidth());
+            assertEquals(20, reader.getHeight());
+            assertTrue(matrix.equals(reader.readMatrix(), 0));
+            assertNull(reader.readRow());
+        }
+    }
+
+    @Test
+    public void rowsShouldBeStreamedFromLargeInputs() throws IOException {
+        int width = 100;
+        int height = 20_000;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        double[] row = new double[width];
+        try (MatrixWriter writer = MatrixWriter.text(out, width)) {
+            for (int y = 0; y < height; y++) {
+                row[y % width] = y;
+                writer.writeRow(row);
+            }
+        }
+        try (MatrixReader reader = MatrixReader.text(new ByteArrayInputStream(out.toByteArray()))) {
+            double[] next;
+            while ((next = reader.readRow()) != null) {
+                int y = reader.getRowCount() - 1;
+                assertEquals(y, next[y % width], 0);
+            }
+            assertEquals(height, reader.getRowCount());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void binaryWritersShouldRejectExtraRows() throws IOException {
+        MatrixWriter writer = MatrixWriter.binary(new ByteArrayOutputStream(), 2, 1);
+        writer.writeRow(new double[]{1, 2});
+        writer.writeRow(new double[]{3, 4});
+    }
+
+    @Test(expected = IOException.class)
+    public void binaryWritersShouldRejectMissingRows() throws IOException {
+        try (MatrixWriter writer = MatrixWriter.binary(new ByteArrayOutputStream(), 2, 2)) {
+            writer.writeRow(new double[]{1, 2});
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedBinaryInputShouldThrow() throws IOException {
+        byte[] bytes = Matrix.of(4, 4).toByteArray();
+        MatrixReader reader = MatrixReader.binary(new ByteArrayInputStream(bytes, 0, bytes.length - 8));
+        reader.readMatrix();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void textRowsOfDifferentLengthsShouldThrow() throws IOException {
+        MatrixReader reader = MatrixReader.text(new StringReader("1 2\n3 4 5\n"));
+        reader.readRow();
+        reader.readRow();
+    }
+}
@@ -0,0 +1,135 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.DeterminantMethod;
+import org.kurodev.matrix.ExecutionStrategy;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.MutableMatrix;
+import org.kurodev.matrix.SparseMatrix;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MatrixViewTest {
+    private static final double DELTA = 0.000000001d;
+
+    private final double[][] data = {
+            {1, 2, 3, 4},
+            {5, 6, 7, 8},
+            {9, 10, 11, 12},
+    };
+
+    @Test
+    public void transposedViewShouldMatchTransposition() {
+        Matrix m = Matrix.of(data);
+        Matrix view = m.transposedView();
+        assertEquals(3, view.getWidth());
+        assertEquals(4, view.getHeight());
+        assertTrue(m.transpose().equals(view, 0));
+        assertTrue(m.equals(view.transposedView(), 0));
+        assertEquals(m.transpose(), view);
+        assertEquals(view, m.transpose());
+        assertEquals(m.transpose().hashCode(), view.hashCode());
+        assertNotEquals(m, view);
+    }
+
+    @Test
+    public void rowAndColumnViewsShouldMatchValues() {
+        Matrix m = Matrix.of(data);
+        assertArrayEquals(new double[]{5, 6, 7, 8}, m.rowView(1).toArray(), 0);
+        assertArrayEquals(new double[]{3, 7, 11}, m.columnView(2).toArray(), 0);
+        assertArrayEquals(new double[]{7, 11}, m.columnView(2).subMatrixView(0, 1, 1, 2).toArray(), 0);
+    }
+
+    @Test
+    public void nestedViewsShouldMatchCopies() {
+        Matrix m = Matrix.of(data);
+        Matrix window = m.subMatrixView(1, 0, 3, 3);
+        assertTrue(Matrix.of(new double[][]{
+                {2, 3, 4},
+                {6, 7, 8},
+                {10, 11, 12}}).equals(window, 0));
+        Matrix minor = window.transposedView().minorView(0, 1);
+        assertTrue(Matrix.of(new double[][]{
+                {6, 10},
+                {8, 12}}).equals(minor, 0));
+        assertEquals(6 * 12 - 10 * 8, minor.getDeterminant(), 0);
+    }
+
+    @Test
+    public void minorViewShouldHaveSameDeterminantAsMinor() {
+        Matrix m = Matrix.of(6, new Random(123456789));
+        for (int x = 0; x < 6; x++) {
+            assertEquals(m.getMinor(x, 2).getDeterminant(), m.minorView(x, 2).getDeterminant(), DELTA);
+        }
+        assertEquals(m.getDeterminant(DeterminantMethod.LAPLACE_EXPANSION), m.getDeterminant(), DELTA);
+    }
+
+    @Test
+    public void multiplyWithViewShouldMatchCopy() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(150, 140, rng);
+        Matrix b = Matrix.of(150, 140, rng);
+        Matrix expected = a.multiply(b.transpose());
+        assertTrue(expected.equals(a.multiply(b.transposedView()), DELTA));
+        assertTrue(expected.equals(a.multiply(b.transposedView(), ExecutionStrategy.sequential()), DELTA));
+        Matrix window = b.subMatrixView(3, 5, 100, 130);
+        assertTrue(a.subMatrixView(0, 0, 130, 140).multiply(window.copy(true))
+                .equals(a.subMatrixView(0, 0, 130, 140).multiply(window), DELTA));
+    }
+
+    @Test
+    public void modifyingTheSourceShouldNotChangeTheView() {
+        MutableMatrix m = MutableMatrix.of(Matrix.of(data));
+        Matrix view = m.transposedView();
+        Matrix row = view.rowView(0);
+        m.setValue(100, 0, 0);
+        m.scaleInPlace(2);
+        assertEquals(1, view.get(0, 0), 0);
+        assertEquals(1, row.get(0, 0), 0);
+        assertEquals(200, m.get(0, 0), 0);
+        assertEquals(200, m.transposedView().get(0, 0), 0);
+    }
+
+    @Test
+    public void modifyingASubclassShouldNotChangeTheView() {
+        class SettableMatrix extends Matrix {
+            SettableMatrix() {
+                super(2, 2);
+            }
+
+            void setValue(double val, int x, int y) {
+                set(val, x, y);
+            }
+        }
+        SettableMatrix m = new SettableMatrix();
+        m.setValue(1, 0, 0);
+        Matrix view = m.transposedView();
+        m.setValue(2, 0, 0);
+        assertEquals(1, view.get(0, 0), 0);
+        assertEquals(2, m.get(0, 0), 0);
+    }
+
+    @Test
+    public void viewAsDestinationOperandShouldReadOldValues() {
+        MutableMatrix m = MutableMatrix.of(Matrix.of(4, new Random(123456789)));
+        Matrix before = m.snapshot();
+        m.multiplyInto(Matrix.identityMatrix(4), m.copy(false));
+        m.addInPlace(m.transposedView());
+        assertTrue(before.add(before.transpose()).equals(m, DELTA));
+    }
+
+    @Test
+    public void viewOfSparseMatrixShouldMatchDense() {
+        Matrix sparse = SparseMatrix.of(4, 3, new int[]{0, 3, 2}, new int[]{0, 1, 2}, new double[]{1, 2, 3});
+        Matrix dense = sparse.copy(false).add(sparse);
+        assertTrue(dense.transpose().equals(sparse.transposedView(), 0));
+        assertTrue(dense.rowView(1).equals(sparse.rowView(1), 0));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void windowOutsideOfMatrixShouldThrow() {
+        Matrix.of(data).subMatrixView(2, 0, 3, 1);
+    }
+}
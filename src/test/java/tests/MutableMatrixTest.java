@@ -0,0 +1,113 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.MutableMatrix;
+import org.kurodev.matrix.TranspositionType;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MutableMatrixTest {
+    private static final double DELTA = 0.000000001d;
+
+    @Test
+    public void inPlaceOperationsShouldMatchCopyingOperations() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(7, 5, rng);
+        Matrix b = Matrix.of(7, 5, rng);
+        Matrix expected = a.add(b).subtract(b.multiply(3)).multiply(0.5);
+
+        MutableMatrix result = MutableMatrix.of(a)
+                .addInPlace(b)
+                .subtractInPlace(b.multiply(3))
+                .scaleInPlace(0.5);
+        assertTrue(expected.equals(result, DELTA));
+        assertEquals(expected, result.snapshot());
+    }
+
+    @Test
+    public void inPlaceOperationShouldNotChangeSource() {
+        Matrix a = Matrix.of(3, new Random(123456789));
+        MutableMatrix copy = MutableMatrix.of(a);
+        copy.scaleInPlace(2);
+        assertFalse(a.equals(copy, DELTA));
+    }
+
+    @Test
+    public void modificationShouldInvalidateDeterminant() {
+        double[][] data = {
+                {1, 2, 3, 4},
+                {2, 4, 6, 8},
+                {1, 0, 1, 0},
+                {0, 1, 0, 1},
+        };
+        MutableMatrix m = MutableMatrix.of(Matrix.of(data));
+        assertEquals(0, m.getDeterminant(), DELTA);
+        m.setValue(5, 0, 1);
+        assertEquals(m.snapshot().getDeterminant(), m.getDeterminant(), DELTA);
+        assertNotEquals(0, m.getDeterminant(), DELTA);
+    }
+
+    @Test
+    public void scalingShouldKeepDeterminant() {
+        Matrix a = Matrix.of(5, new Random(123456789));
+        MutableMatrix m = MutableMatrix.of(a);
+        double det = m.getDeterminant();
+        m.scaleInPlace(2);
+        assertEquals(Math.pow(2, 5) * det, m.getDeterminant(), DELTA);
+        assertEquals(a.multiply(2).getDeterminant(), m.getDeterminant(), DELTA);
+    }
+
+    @Test
+    public void multiplyIntoShouldReuseDestination() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(6, 4, rng);
+        Matrix b = Matrix.of(3, 6, rng);
+        MutableMatrix dest = MutableMatrix.of(3, 4);
+        dest.setValue(100, 0, 0);
+        assertSame(dest, a.multiplyInto(b, dest));
+        assertTrue(a.multiply(b).equals(dest, DELTA));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiplyIntoWrongDestinationShouldThrow() {
+        Matrix a = Matrix.of(6, 4);
+        a.multiplyInto(Matrix.of(3, 6), MutableMatrix.of(4, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiplyIntoOperandShouldThrow() {
+        MutableMatrix a = MutableMatrix.of(3, 3);
+        a.multiplyInto(Matrix.of(3, 3), a);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addInPlaceWithDifferentDimensionsShouldThrow() {
+        MutableMatrix.of(3, 3).addInPlace(Matrix.of(3, 4));
+    }
+
+    @Test
+    public void transposeIntoShouldMatchTranspose() {
+        Matrix a = Matrix.of(4, new Random(123456789));
+        MutableMatrix dest = MutableMatrix.of(4, 4);
+        for (TranspositionType type : TranspositionType.values()) {
+            a.transposeInto(type, dest);
+            assertTrue(a.transpose(type).equals(dest, 0));
+        }
+    }
+
+    @Test
+    public void transposeIntoShouldAcceptNonSquareMatrices() {
+        Matrix a = Matrix.of(5, 3, new Random(123456789));
+        MutableMatrix dest = MutableMatrix.of(3, 5);
+        a.transposeInto(TranspositionType.MAIN_DIAGONAL, dest);
+        assertTrue(a.transpose().equals(dest, 0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void transposeIntoWithWrongDimensionsShouldThrow() {
+        Matrix.of(5, 3).transposeInto(TranspositionType.MAIN_DIAGONAL, MutableMatrix.of(5, 3));
+    }
+}
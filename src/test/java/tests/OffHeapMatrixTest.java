@@ -0,0 +1,157 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.OffHeapMatrix;
+import org.kurodev.matrix.TranspositionType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OffHeapMatrixTest {
+
+    @Test
+    public void valuesShouldMatchTheHeapMatrix() {
+        Matrix heap = Matrix.of(9, 4, new Random(123456789));
+        try (OffHeapMatrix matrix = OffHeapMatrix.of(heap)) {
+            assertEquals(9, matrix.getWidth());
+            assertEquals(4, matrix.getHeight());
+            assertEquals(heap.get(7, 3), matrix.get(7, 3), 0);
+            assertTrue(heap.equals(matrix, 0));
+            matrix.setValue(42, 7, 3);
+            assertEquals(42, matrix.get(7, 3), 0);
+            assertNotEquals(42, heap.get(7, 3), 0);
+        }
+    }
+
+    @Test
+    public void offHeapMatricesShouldEqualHeapMatrices() {
+        Matrix heap = Matrix.of(9, 4, new Random(123456789));
+        try (OffHeapMatrix matrix = OffHeapMatrix.of(heap)) {
+            assertEquals(heap, matrix);
+            assertEquals(matrix, heap);
+            assertEquals(heap.hashCode(), matrix.hashCode());
+            assertNotEquals(heap.transpose(), matrix);
+        }
+    }
+
+    @Test
+    public void operationsShouldMatchTheHeapMatrix() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(300, 270, rng);
+        Matrix b = Matrix.of(310, 300, rng);
+        Matrix c = Matrix.of(300, 270, rng);
+        try (OffHeapMatrix offA = OffHeapMatrix.of(a); OffHeapMatrix offB = OffHeapMatrix.of(b)) {
+            Matrix product = offA.multiply(offB);
+            assertTrue(product instanceof OffHeapMatrix);
+            assertTrue(a.multiply(b).equals(product, 1e-9));
+            assertTrue(a.multiply(b).equals(offA.multiply(b), 1e-9));
+            assertTrue(a.add(c).equals(offA.add(c), 0));
+            assertTrue(a.subtract(c).equals(offA.subtract(c), 0));
+            assertTrue(a.multiply(3).equals(offA.multiply(3), 0));
+            assertTrue(a.transpose().equals(offA.transpose(), 0));
+            assertTrue(a.transpose(TranspositionType.SIDE_DIAGONAL).equals(offA.transpose(TranspositionType.SIDE_DIAGONAL), 0));
+            assertTrue(offA.add(offB).isError());
+        }
+    }
+
+    @Test
+    public void parallelProductShouldMatchSequentialProduct() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(280, 300, rng);
+        Matrix b = Matrix.of(290, 280, rng);
+        long threshold = Matrix.getParallelThreshold();
+        try (OffHeapMatrix offA = OffHeapMatrix.of(a)) {
+            Matrix.setParallelThreshold(10_000);
+            assertTrue(a.multiply(b).equals(offA.multiply(b), 1e-9));
+        } finally {
+            Matrix.setParallelThreshold(threshold);
+        }
+    }
+
+    @Test
+    public void mappedFilesShouldWriteThrough() throws IOException {
+        Matrix heap = Matrix.of(6, 5, new Random(123456789));
+        Path file = Files.createTempFile("matrix", ".bin");
+        Path copy = Files.createTempFile("matrix", ".bin");
+        try {
+            heap.writeTo(file);
+            try (OffHeapMatrix mapped = OffHeapMatrix.map(file)) {
+                assertTrue(heap.equals(mapped, 0));
+                mapped.setValue(-1, 2, 4);
+            }
+            Matrix changed = Matrix.map(file);
+            assertEquals(-1, changed.get(2, 4), 0);
+            try (OffHeapMatrix created = OffHeapMatrix.create(copy, 6, 5)) {
+                assertTrue(Matrix.of(6, 5).equals(created, 0));
+                for (int y = 0; y < 5; y++) {
+                    for (int x = 0; x < 6; x++) {
+                        created.setValue(changed.get(x, y), x, y);
+                    }
+                }
+            }
+            assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(copy));
+            try (OffHeapMatrix direct = OffHeapMatrix.of(changed)) {
+                direct.writeTo(copy);
+            }
+            assertArrayEquals(Files.readAllBytes(file), Files.readAllBytes(copy));
+        } finally {
+            Files.delete(file);
+            Files.delete(copy);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFilesShouldNotMap() throws IOException {
+        Path file = Files.createTempFile("matrix", ".bin");
+        try {
+            byte[] bytes = Matrix.of(3, 3).toByteArray();
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+            OffHeapMatrix.map(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void closingShouldWorkWithoutReleasingEarly() throws IOException {
+        Path file = Files.createTempFile("matrix", ".bin");
+        System.setProperty(OffHeapMatrix.RELEASE_PROPERTY, "false");
+        try {
+            OffHeapMatrix direct = OffHeapMatrix.allocate(3, 3);
+            OffHeapMatrix mapped = OffHeapMatrix.create(file, 3, 3);
+            mapped.setValue(5, 1, 2);
+            direct.close();
+            mapped.close();
+            assertTrue(direct.isClosed());
+            assertTrue(mapped.isClosed());
+            try {
+                mapped.get(1, 2);
+                fail("Expected an IllegalStateException");
+            } catch (IllegalStateException expected) {
+            }
+            assertEquals(5, Matrix.of(Files.readAllBytes(file)).get(1, 2), 0);
+        } finally {
+            System.clearProperty(OffHeapMatrix.RELEASE_PROPERTY);
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void closedMatricesShouldThrow() {
+        OffHeapMatrix matrix = OffHeapMatrix.allocate(3, 3);
+        matrix.close();
+        matrix.close();
+        assertTrue(matrix.isClosed());
+        try {
+            matrix.get(0, 0);
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.Matrix;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParserTest {
+
+    @Test
+    public void negativeNumbersAndExponentsShouldBeParsed() {
+        double[][] expected = {
+                {-1, 2.5, -0.25},
+                {1e10, -3.5E-3, 4e+2}
+        };
+        var data = """
+                -1 2.5 -.25
+                1e10 -3.5E-3 4e+2
+                """;
+        assertTrue(Matrix.of(expected).equals(Matrix.of(data), 0));
+    }
+
+    @Test
+    public void commasShouldSeparateValues() {
+        double[][] expected = {
+                {1, 2, 3, 4},
+                {5, 6, 7, 8}
+        };
+        assertTrue(Matrix.of(expected).equals(Matrix.of("1,2,3,4\n5,6,7,8"), 0));
+        assertTrue(Matrix.of(expected).equals(Matrix.of("1.0,2,3.,4\r\n5, 6,7e0,8\n"), 0));
+    }
+
+    @Test
+    public void nonFiniteValuesShouldBeParsed() {
+        //misspelled words are separators like any other letters
+        Matrix m = Matrix.of("NaN -Infinity +Infinity 0\n1 Nan Inf Infinity2 INFINITY -NaN\n");
+        assertEquals(4, m.getWidth());
+        assertEquals(2, m.getHeight());
+        assertArrayEquals(new double[]{Double.NaN, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 0,
+                1, Double.POSITIVE_INFINITY, 2, Double.NaN}, m.toArray(), 0);
+    }
+
+    @Test
+    public void decimalCommaAndSeparatorsShouldBeSupported() throws IOException {
+        double[][] expected = {
+                {1.5, 2, 3},
+                {4, 5.25, 6}
+        };
+        var data = "1,5;2;3\r\n4, 5,25\t6\n\n";
+        assertTrue(Matrix.of(expected).equals(Matrix.of(new StringReader(data), true), 0));
+    }
+
+    @Test
+    public void exactValuesShouldSurviveRoundTrip() {
+        Random rng = new Random(123456789);
+        StringBuilder text = new StringBuilder();
+        double[][] expected = new double[20][20];
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 20; x++) {
+                expected[y][x] = (rng.nextDouble() - 0.5) * Math.pow(10, rng.nextInt(40) - 20);
+                text.append(expected[y][x]).append(' ');
+            }
+            text.append('\n');
+        }
+        assertTrue(Matrix.of(expected).equals(Matrix.of(text.toString()), 0));
+    }
+
+    @Test
+    public void negativeMatrixShouldWorkFromString() {
+        Matrix m1 = Matrix.of(5, 5, new Random(123456789)).multiply(-1);
+        assertEquals(m1, Matrix.of(m1.toString()));
+    }
+
+    @Test
+    public void matrixShouldWorkFromStream() throws IOException {
+        Matrix m1 = Matrix.of(300, 200, new Random(123456789));
+        byte[] text = m1.toString().getBytes(StandardCharsets.UTF_8);
+        assertEquals(m1, Matrix.of(new ByteArrayInputStream(text)));
+        assertEquals(m1, Matrix.of(new StringReader(m1.toString())));
+    }
+
+    @Test
+    public void veryLongNumbersShouldBeParsed() {
+        String digits = "1".repeat(100);
+        Matrix m = Matrix.of(digits + " 0." + digits + "e-5");
+        assertEquals(Double.parseDouble(digits), m.get(0, 0), 0);
+        assertEquals(Double.parseDouble("0." + digits + "e-5"), m.get(1, 0), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyStringShouldThrowIllArgEx() {
+        Matrix.of(" \n ");
+    }
+}
@@ -2,15 +2,23 @@ package tests;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.kurodev.matrix.DeterminantMethod;
 import org.kurodev.matrix.Matrix;
 
-import java.lang.reflect.Field;
 import java.util.Random;
 
 import static org.junit.Assert.*;
 
+/**
+ * Checks the results of the larger calculations.
+ * Timings are measured by the JMH benchmarks in the {@code benchmarks} module.
+ */
 public class PerformanceTest {
     private static final double DELTA = 0.000000000000000001d;
+    /**
+     * LU decomposition rounds differently than the cofactor expansion the reference values were taken from.
+     */
+    private static final double LU_DELTA = 0.000000000000001d;
     private static Random RNG;
 
     @Before
@@ -20,16 +28,29 @@ public class PerformanceTest {
 
     /**
      * <pre>
-     * 10x10 matrix takes ~  200-400ms to calculate determinant
-     * 11x11 matrix takes ~ 4500ms to calculate determinant
-     * 12x12 matrix takes ~50600ms to calculate determinant
+     * 10x10 matrix takes ~  0.1ms to calculate determinant
+     * 16x16 matrix takes ~    2ms to calculate determinant
+     * 20x20 matrix takes ~   25ms to calculate determinant
      * </pre>
      */
-    @Test(timeout = 1000)
+    @Test
+    public void calculateBigMatrixDeterminantExact() {
+        Matrix rand = Matrix.of(10, 10, RNG);
+        assertEquals(-0.008249788786467056d, rand.getDeterminant(DeterminantMethod.LAPLACE_EXPANSION), DELTA);
+        assertEquals(-8.447783717342265d, rand.multiply(2).getDeterminant(), DELTA);
+    }
+
+    @Test
     public void calculateBigMatrixDeterminant() {
         Matrix rand = Matrix.of(10, 10, RNG);
-        assertEquals(-0.00824978878646706d, rand.getDeterminant(), DELTA);
-        assertEquals(-8.44778371734227d, rand.multiply(2).getDeterminant(), DELTA);
+        assertEquals(-0.00824978878646706d, rand.getDeterminant(), LU_DELTA);
+        assertEquals(-8.44778371734227d, rand.multiply(2).getDeterminant(), LU_DELTA * 1024);
+    }
+
+    @Test
+    public void calculateHugeMatrixDeterminant() {
+        Matrix rand = Matrix.of(500, 500, RNG);
+        assertFalse(Double.isNaN(rand.getDeterminant()));
     }
 
     @Test
@@ -66,13 +87,13 @@ public class PerformanceTest {
     }
 
     @Test
-    public void calculateDeterminantInMatrixCalculation() throws NoSuchFieldException, IllegalAccessException {
+    public void calculateDeterminantInMatrixCalculation() {
         Matrix a = Matrix.of(4, 4, RNG);
         Matrix b = Matrix.of(4, 4, RNG);
         assertFalse(Double.isNaN(a.getDeterminant()));
         assertFalse(Double.isNaN(b.getDeterminant()));
-        assertEquals(0.006853144421231382, a.getDeterminant(), DELTA);
-        assertEquals(-0.01965642725934563, b.getDeterminant(), DELTA);
+        assertEquals(0.006853144421231382, a.getDeterminant(), LU_DELTA);
+        assertEquals(-0.01965642725934563, b.getDeterminant(), LU_DELTA);
         double assumedDeterminant = a.getDeterminant() * b.getDeterminant();
         double precisionTrue = 1.0E-16;
         double precisionFalse = 1.0E-17;
@@ -81,12 +102,8 @@ public class PerformanceTest {
 
         assertEquals(assumedDeterminant, result.getDeterminant(), 0);
 
-        //remove precomputed determinant from object
-        Field f = a.getClass().getDeclaredField("determinant");
-        f.setAccessible(true);
-        f.set(result, null);
-        f.setAccessible(false);
-        double calculatedDeterminant = result.getDeterminant();
+        //a copy does not carry over the precomputed determinant
+        double calculatedDeterminant = result.copy(true).getDeterminant();
 
         //small rounding issue, due to double bit limitations and rounding.
         assertEquals(assumedDeterminant, calculatedDeterminant, precisionTrue);
@@ -124,10 +141,7 @@ public class PerformanceTest {
         }
     }
 
-    /**
-     * avg time: 2ms
-     */
-    @Test(timeout = 100)
+    @Test
     public void performanceOfAddition() {
         Matrix rand = Matrix.of(15, RNG);
         Matrix rand2 = Matrix.of(15, RNG);
@@ -135,10 +149,7 @@ public class PerformanceTest {
         assertFalse(res.toString(), res.isError());
     }
 
-    /**
-     * avg time: 2ms
-     */
-    @Test(timeout = 100)
+    @Test
     public void performanceOfSubtraction() {
         Matrix rand = Matrix.of(15, RNG);
         Matrix rand2 = Matrix.of(15, RNG);
@@ -146,10 +157,7 @@ public class PerformanceTest {
         assertFalse(res.toString(), res.isError());
     }
 
-    /**
-     * avg time: 3ms
-     */
-    @Test(timeout = 50)
+    @Test
     public void performanceOfMultiplication() {
         Matrix rand = Matrix.of(15, 20, RNG);
         Matrix rand2 = Matrix.of(20, 15, RNG);
@@ -157,50 +165,35 @@ public class PerformanceTest {
         assertFalse(res.toString(), res.isError());
     }
 
-    /**
-     * avg time: 1-2ms
-     */
-    @Test(timeout = 50)
+    @Test
     public void performanceOfMinorCalculation() {
         Matrix rand = Matrix.of(20, RNG);
         var res = rand.getMinor(10, 12);
         assertFalse(res.toString(), res.isError());
     }
 
-    /**
-     * avg time: 1ms
-     */
-    @Test(timeout = 50)
+    @Test
     public void performanceOfTransposition() {
         Matrix rand = Matrix.of(20, RNG);
         var res = rand.transpose();
         assertFalse(res.toString(), res.isError());
     }
 
-    /**
-     * avg time: 2000ms
-     */
-    @Test(timeout = 3000)
+    @Test
     public void performanceOfInversion() {
         Matrix rand = Matrix.of(10, RNG);
         var res = rand.inverse();
         assertFalse(res.toString(), res.isError());
     }
 
-    /**
-     * avg time: 6ms
-     */
-    @Test(timeout = 30)
+    @Test
     public void performanceOfByteSerialization() {
         Matrix rand = Matrix.of(30, RNG);
         var res = rand.toByteArray();
         assertEquals(rand, Matrix.of(res));
     }
 
-    /**
-     * avg time: 50ms
-     */
-    @Test(timeout = 100)
+    @Test
     public void performanceOfStringSerialization() {
         Matrix rand = Matrix.of(30, RNG);
         var res = rand.toString();
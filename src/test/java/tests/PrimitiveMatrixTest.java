@@ -0,0 +1,171 @@
+package tests;
+
+import org.junit.Test;
+import org.kurodev.matrix.FloatMatrix;
+import org.kurodev.matrix.IntMatrix;
+import org.kurodev.matrix.LongMatrix;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.NumericMatrix;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveMatrixTest {
+
+    private static IntMatrix randomInts(int width, int height, Random rng) {
+        int[] values = new int[width * height];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rng.nextInt(21) - 10;
+        }
+        return IntMatrix.of(width, height, values);
+    }
+
+    @Test
+    public void floatOperationsShouldMatchDoubleOperations() {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(70, 90, rng);
+        Matrix b = Matrix.of(130, 70, rng);
+        Matrix c = Matrix.of(70, 90, rng);
+        FloatMatrix fa = FloatMatrix.of(a);
+        FloatMatrix fb = FloatMatrix.of(b);
+        FloatMatrix fc = FloatMatrix.of(c);
+        assertTrue(a.multiply(b).equals(fa.multiply(fb).toMatrix(), 0.0001));
+        assertTrue(a.add(c).equals(fa.add(fc).toMatrix(), 0.0001));
+        assertTrue(a.subtract(c).equals(fa.subtract(fc).toMatrix(), 0.0001));
+        assertTrue(a.transpose().equals(fa.transpose().toMatrix(), 0.0001));
+        assertTrue(a.multiply(3).equals(fa.multiply(3f).toMatrix(), 0.0001));
+        assertEquals((float) a.get(5, 7), fa.get(5, 7), 0);
+    }
+
+    @Test
+    public void integerProductsShouldBeExact() {
+        Random rng = new Random(123456789);
+        IntMatrix a = randomInts(60, 45, rng);
+        IntMatrix b = randomInts(33, 60, rng);
+        IntMatrix product = a.multiply(b);
+        Matrix expected = a.toMatrix().multiply(b.toMatrix());
+        assertEquals(33, product.getWidth());
+        assertEquals(45, product.getHeight());
+        assertEquals(IntMatrix.of(expected), product);
+        assertEquals(LongMatrix.of(expected), LongMatrix.of(a).multiply(LongMatrix.of(b)));
+        assertEquals(a, a.transpose().transpose());
+        assertEquals(a.multiply(2), a.add(a));
+        assertEquals(IntMatrix.of(a.getWidth(), a.getHeight()), a.subtract(a));
+    }
+
+    @Test
+    public void parallelProductsShouldMatchSequentialProducts() {
+        Random rng = new Random(123456789);
+        IntMatrix a = randomInts(150, 200, rng);
+        IntMatrix b = randomInts(170, 150, rng);
+        FloatMatrix fa = FloatMatrix.of(a);
+        FloatMatrix fb = FloatMatrix.of(b);
+        IntMatrix expected = a.multiply(b);
+        FloatMatrix expectedFloats = fa.multiply(fb);
+        long threshold = Matrix.getParallelThreshold();
+        try {
+            Matrix.setParallelThreshold(10_000);
+            assertEquals(expected, a.multiply(b));
+            assertEquals(expectedFloats, fa.multiply(fb));
+        } finally {
+            Matrix.setParallelThreshold(threshold);
+        }
+    }
+
+    @Test
+    public void intArithmeticShouldWrapAround() {
+        IntMatrix max = IntMatrix.of(new int[][]{{Integer.MAX_VALUE}});
+        assertEquals(Integer.MIN_VALUE, max.add(IntMatrix.of(new int[][]{{1}})).get(0, 0));
+        LongMatrix wide = LongMatrix.of(max);
+        assertEquals(Integer.MAX_VALUE + 1L, wide.add(LongMatrix.of(new long[][]{{1}})).get(0, 0));
+    }
+
+    @Test
+    public void serializationShouldRoundTrip() {
+        Random rng = new Random(123456789);
+        IntMatrix ints = randomInts(7, 5, rng);
+        LongMatrix longs = LongMatrix.of(new long[][]{{Long.MAX_VALUE, Long.MIN_VALUE}, {0, -1}});
+        FloatMatrix floats = FloatMatrix.of(Matrix.of(6, 4, rng));
+        assertEquals(ints, IntMatrix.of(ints.toByteArray()));
+        assertEquals(longs, LongMatrix.of(longs.toByteArray()));
+        assertEquals(floats, FloatMatrix.of(floats.toByteArray()));
+        assertEquals(8 + 7 * 5 * Integer.BYTES, ints.toByteArray().length);
+        assertEquals(8 + 6 * 4 * Float.BYTES, floats.toByteArray().length);
+    }
+
+    @Test
+    public void textShouldBeParsableAsMatrix() {
+        IntMatrix ints = IntMatrix.of(new int[][]{{1, -2, 3}, {4, 5, -6}});
+        assertEquals(ints, IntMatrix.of(Matrix.of(ints.toString())));
+        FloatMatrix floats = FloatMatrix.of(new float[][]{{1.5f, -2e-7f}, {3e12f, 0}});
+        assertEquals(floats, FloatMatrix.of(Matrix.of(floats.toString())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fractionsShouldNotConvertToInts() {
+        IntMatrix.of(Matrix.of(new double[][]{{1, 2.5}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void largeLongsShouldNotConvertToInts() {
+        IntMatrix.of(LongMatrix.of(new long[][]{{1L << 40}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchingDimensionsShouldThrow() {
+        FloatMatrix.of(2, 3).multiply(FloatMatrix.of(2, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedBytesShouldThrow() {
+        byte[] bytes = IntMatrix.of(3, 3).toByteArray();
+        IntMatrix.of(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+    @Test
+    public void everyTypeShouldCheckIndicesAndDimensions() {
+        Runnable[] invalid = {
+                () -> FloatMatrix.of(2, 3).get(0, 3),
+                () -> IntMatrix.of(2, 3).get(-1, 0),
+                () -> LongMatrix.of(2, 3).get(1, 3),
+        };
+        for (Runnable call : invalid) {
+            try {
+                call.run();
+                fail("Expected an IndexOutOfBoundsException");
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+        invalid = new Runnable[]{
+                () -> FloatMatrix.of(new float[][]{{1, 2}, {3}}),
+                () -> IntMatrix.of(2, 2, new int[3]),
+                () -> LongMatrix.of(2, 3).add(LongMatrix.of(3, 2)),
+                () -> IntMatrix.of(2, 3).multiply(IntMatrix.of(2, 3)),
+                () -> LongMatrix.of(new byte[7]),
+        };
+        for (Runnable call : invalid) {
+            try {
+                call.run();
+                fail("Expected an IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void everyTypeShouldShareTheInterface() {
+        NumericMatrix<?>[] matrices = {
+                Matrix.of(new double[][]{{1, 2}, {3, 4}}),
+                FloatMatrix.of(new float[][]{{1, 2}, {3, 4}}),
+                IntMatrix.of(new int[][]{{1, 2}, {3, 4}}),
+                LongMatrix.of(new long[][]{{1, 2}, {3, 4}}),
+        };
+        for (NumericMatrix<?> matrix : matrices) {
+            assertEquals(2, matrix.getWidth());
+            assertEquals(3, matrix.getAsDouble(0, 1), 0);
+            assertTrue(matrices[0].toMatrix().equals(matrix.toMatrix(), 0));
+        }
+    }
+}
@@ -3,6 +3,13 @@ package tests;
 import org.junit.Test;
 import org.kurodev.matrix.Matrix;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Random;
 
 import static org.junit.Assert.*;
@@ -73,6 +80,20 @@ public class SerialisationTests {
         assertArrayEquals(expected, m1.toArray(), 0.000001);
     }
 
+    @Test
+    public void matrixShouldNotShareGivenArrays() {
+        double[][] data = {
+                {1, 2},
+                {3, 4}
+        };
+        var m1 = Matrix.of(data);
+        data[0][0] = 5;
+        double[] array = m1.toArray();
+        array[1] = 5;
+        assertEquals(1d, m1.get(0, 0), 0);
+        assertEquals(2d, m1.get(1, 0), 0);
+    }
+
     @Test
     public void anyMatrixShouldWorkFromByteArray() {
         for (int i = 0; i < 1000; i++) {
@@ -133,4 +154,47 @@ public class SerialisationTests {
                 """;
         Matrix m = Matrix.of(data);
         assertEquals(m, Matrix.of(m.toByteArray()));
-    }}
+    }
+
+    @Test
+    public void matrixShouldWorkFromByteBuffer() {
+        Matrix m1 = Matrix.of(7, 3, RANDOM);
+        Matrix m2 = Matrix.of(2, 5, RANDOM);
+        ByteBuffer buffer = ByteBuffer.allocate(3 + (int) (m1.getByteSize() + m2.getByteSize()))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(3);
+        m1.writeTo(buffer);
+        m2.writeTo(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.position(3);
+        assertArrayEquals(m1.toByteArray(), Arrays.copyOfRange(buffer.array(), 3, 3 + (int) m1.getByteSize()));
+        assertEquals(m1, Matrix.readFrom(buffer));
+        assertEquals(m2, Matrix.readFrom(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void writingIntoTooSmallBufferShouldThrow() {
+        Matrix.of(3, 3).writeTo(ByteBuffer.allocate(20));
+    }
+
+    @Test
+    public void readingFromTooSmallBufferResultsInErrorMatrix() {
+        ByteBuffer buffer = ByteBuffer.wrap(Matrix.of(3, 3).toByteArray(), 0, 20);
+        assertTrue(Matrix.readFrom(buffer).isError());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void matrixShouldWorkFromMappedFile() throws IOException {
+        Path file = Files.createTempFile("matrix", ".bin");
+        try {
+            Matrix m1 = Matrix.of(40, 30, RANDOM);
+            m1.writeTo(file);
+            assertArrayEquals(m1.toByteArray(), Files.readAllBytes(file));
+            assertEquals(m1, Matrix.map(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
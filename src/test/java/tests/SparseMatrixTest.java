@@ -0,0 +1,146 @@
+package tests;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.SparseMatrix;
+import org.kurodev.matrix.TranspositionType;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SparseMatrixTest {
+    private static final double DELTA = 0.000000001d;
+    private Random rng;
+
+    @Before
+    public void createNewRng() {
+        rng = new Random(123456789);
+    }
+
+    private Matrix randomSparse(int width, int height, double density) {
+        double[][] data = new double[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (rng.nextDouble() < density) {
+                    data[y][x] = rng.nextDouble() - 0.5;
+                }
+            }
+        }
+        return Matrix.of(data);
+    }
+
+    @Test
+    public void compressionShouldKeepValues() {
+        Matrix dense = randomSparse(30, 20, 0.1);
+        SparseMatrix sparse = SparseMatrix.of(dense);
+        assertTrue(dense.equals(sparse, 0));
+        for (int y = 0; y < dense.getHeight(); y++) {
+            for (int x = 0; x < dense.getWidth(); x++) {
+                assertEquals(dense.get(x, y), sparse.get(x, y), 0);
+            }
+        }
+        assertEquals(dense, sparse.toDense());
+    }
+
+    @Test
+    public void sparseMatricesShouldEqualDenseMatrices() {
+        Matrix dense = randomSparse(30, 20, 0.1);
+        SparseMatrix sparse = SparseMatrix.of(dense);
+        assertEquals(dense, sparse);
+        assertEquals(sparse, dense);
+        assertEquals(dense.hashCode(), sparse.hashCode());
+        assertNotEquals(dense.multiply(2), sparse);
+    }
+
+    @Test
+    public void coordinateListsShouldBeSortedAndMerged() {
+        int[] xs = {2, 0, 2, 1, 1};
+        int[] ys = {1, 0, 1, 1, 0};
+        double[] values = {1, 2, 3, 4, 0};
+        SparseMatrix sparse = SparseMatrix.of(3, 2, xs, ys, values);
+        double[][] expected = {
+                {2, 0, 0},
+                {0, 4, 4}
+        };
+        assertTrue(Matrix.of(expected).equals(sparse, 0));
+        assertEquals(3, sparse.getNonZeroCount());
+    }
+
+    @Test
+    public void sparseArithmeticShouldMatchDense() {
+        Matrix a = randomSparse(40, 30, 0.05);
+        Matrix b = randomSparse(40, 30, 0.05);
+        SparseMatrix sa = SparseMatrix.of(a);
+        SparseMatrix sb = SparseMatrix.of(b);
+
+        assertTrue(sa.add(sb) instanceof SparseMatrix);
+        assertTrue(a.add(b).equals(sa.add(sb), DELTA));
+        assertTrue(a.add(b).equals(sa.add(b), DELTA));
+        assertTrue(a.add(b).equals(a.add(sb), DELTA));
+
+        assertTrue(sa.subtract(sb) instanceof SparseMatrix);
+        assertTrue(a.subtract(b).equals(sa.subtract(sb), DELTA));
+        assertTrue(a.subtract(b).equals(sa.subtract(b), DELTA));
+        assertTrue(a.subtract(b).equals(a.subtract(sb), DELTA));
+
+        assertTrue(a.multiply(-2.5).equals(sa.multiply(-2.5), DELTA));
+        assertEquals(0, ((SparseMatrix) sa.subtract(sa)).getNonZeroCount());
+    }
+
+    @Test
+    public void sparseProductsShouldMatchDense() {
+        Matrix a = randomSparse(50, 30, 0.05);
+        Matrix b = randomSparse(20, 50, 0.05);
+        SparseMatrix sa = SparseMatrix.of(a);
+        SparseMatrix sb = SparseMatrix.of(b);
+        Matrix expected = a.multiply(b);
+
+        Matrix sparseProduct = sa.multiply(sb);
+        assertTrue(sparseProduct instanceof SparseMatrix);
+        assertTrue(expected.equals(sparseProduct, DELTA));
+        assertTrue(expected.equals(sa.multiply(b), DELTA));
+        assertTrue(expected.equals(a.multiply(sb), DELTA));
+    }
+
+    @Test
+    public void transpositionShouldStaySparse() {
+        Matrix a = randomSparse(25, 25, 0.1);
+        Matrix transposed = SparseMatrix.of(a).transpose();
+        assertTrue(transposed instanceof SparseMatrix);
+        assertTrue(a.transpose().equals(transposed, 0));
+    }
+
+    @Test
+    public void nonSquareTranspositionShouldMatchDense() {
+        Matrix a = randomSparse(31, 17, 0.1);
+        for (TranspositionType type : TranspositionType.values()) {
+            assertTrue(a.transpose(type).equals(SparseMatrix.of(a).transpose(type), 0));
+        }
+    }
+
+    @Test
+    public void sparseMatrixShouldSerializeToDenseFormat() {
+        Matrix a = randomSparse(12, 7, 0.2);
+        SparseMatrix sparse = SparseMatrix.of(a);
+        assertArrayEquals(a.toByteArray(), sparse.toByteArray());
+        assertEquals(a, Matrix.of(sparse.toByteArray()));
+    }
+
+    @Test
+    public void denseOperationsShouldWorkOnSparseMatrix() {
+        Matrix a = randomSparse(6, 6, 0.5).add(Matrix.identityMatrix(6));
+        SparseMatrix sparse = SparseMatrix.of(a);
+        assertEquals(a.getDeterminant(), sparse.getDeterminant(), DELTA);
+        assertEquals(a.inverse(), sparse.inverse());
+        assertEquals(a.toString(), sparse.toString());
+    }
+
+    @Test
+    public void mismatchingDimensionsShouldResultInError() {
+        SparseMatrix a = SparseMatrix.of(3, 4);
+        assertTrue(a.add(SparseMatrix.of(4, 3)).isError());
+        assertTrue(a.multiply(SparseMatrix.of(5, 5)).isError());
+    }
+}
@@ -0,0 +1,122 @@
+package tests;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.TiledMatrix;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TiledMatrixTest {
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("tiles");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void operationsShouldMatchTheHeapMatrix() throws IOException {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(50, 37, rng);
+        Matrix b = Matrix.of(23, 50, rng);
+        Matrix c = Matrix.of(50, 37, rng);
+        try (TiledMatrix tiledA = TiledMatrix.of(a, directory.resolve("a"), 16);
+             TiledMatrix tiledB = TiledMatrix.of(b, directory.resolve("b"), 16);
+             TiledMatrix tiledC = TiledMatrix.of(c, directory.resolve("c"), 16);
+             TiledMatrix product = tiledA.multiply(tiledB, directory.resolve("product"));
+             TiledMatrix sum = tiledA.add(tiledC, directory.resolve("sum"));
+             TiledMatrix difference = tiledA.subtract(tiledC, directory.resolve("difference"));
+             TiledMatrix transposed = tiledA.transpose(directory.resolve("transposed"))) {
+            assertTrue(a.equals(tiledA.toMatrix(), 0));
+            assertEquals(4, tiledA.getTileColumns());
+            assertEquals(3, tiledA.getTileRows());
+            assertEquals(a.get(49, 36), tiledA.getAsDouble(49, 36), 0);
+            assertTrue(a.multiply(b).equals(product.toMatrix(), 1e-9));
+            assertTrue(a.add(c).equals(sum.toMatrix(), 0));
+            assertTrue(a.subtract(c).equals(difference.toMatrix(), 0));
+            assertTrue(a.transpose().equals(transposed.toMatrix(), 0));
+            assertEquals(37, transposed.getWidth());
+            assertEquals(50, transposed.getHeight());
+        }
+    }
+
+    @Test
+    public void temporaryResultsShouldBeDeletedOnClose() throws IOException {
+        Random rng = new Random(123456789);
+        Matrix a = Matrix.of(20, 20, rng);
+        try (TiledMatrix tiled = TiledMatrix.of(a, directory.resolve("a"), 8)) {
+            try (TiledMatrix square = tiled.multiply(tiled); TiledMatrix transposed = tiled.transpose()) {
+                assertTrue(a.multiply(a).equals(square.toMatrix(), 1e-9));
+                assertTrue(a.transpose().equals(transposed.toMatrix(), 0));
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(1, files.count());
+            }
+        }
+    }
+
+    @Test
+    public void filesShouldConvertBetweenBothFormats() throws IOException {
+        Matrix matrix = Matrix.of(13, 9, new Random(123456789));
+        Path plain = directory.resolve("plain");
+        Path copy = directory.resolve("copy");
+        matrix.writeTo(plain);
+        try (TiledMatrix tiled = TiledMatrix.tile(plain, directory.resolve("tiles"), 4)) {
+            assertTrue(matrix.equals(tiled.toMatrix(), 0));
+            assertEquals(Files.size(plain) + Integer.BYTES, Files.size(directory.resolve("tiles")));
+            tiled.writeTo(copy);
+        }
+        assertArrayEquals(Files.readAllBytes(plain), Files.readAllBytes(copy));
+        try (TiledMatrix reopened = TiledMatrix.open(directory.resolve("tiles"))) {
+            assertEquals(4, reopened.getTileSize());
+            assertTrue(matrix.equals(reopened.toMatrix(), 0));
+        }
+    }
+
+    @Test
+    public void tilesShouldBeReadableAndWritable() throws IOException {
+        try (TiledMatrix tiled = TiledMatrix.create(directory.resolve("tiles"), 5, 3, 2)) {
+            assertTrue(Matrix.of(5, 3).equals(tiled.toMatrix(), 0));
+            tiled.setTile(2, 1, Matrix.of(new double[][]{{7}}));
+            tiled.setTile(0, 0, Matrix.of(new double[][]{{1, 2}, {3, 4}}));
+            assertEquals(7, tiled.getAsDouble(4, 2), 0);
+            assertEquals(3, tiled.getAsDouble(0, 1), 0);
+            assertTrue(Matrix.of(new double[][]{{1, 2}, {3, 4}}).equals(tiled.getTile(0, 0), 0));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mismatchingTileSizesShouldThrow() throws IOException {
+        Matrix matrix = Matrix.of(4, 4);
+        try (TiledMatrix a = TiledMatrix.of(matrix, directory.resolve("a"), 2);
+             TiledMatrix b = TiledMatrix.of(matrix, directory.resolve("b"), 3)) {
+            a.add(b, directory.resolve("sum"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFilesShouldNotOpen() throws IOException {
+        Path file = directory.resolve("tiles");
+        TiledMatrix.create(file, 3, 3, 2).close();
+        Files.write(file, new byte[20]);
+        TiledMatrix.open(file);
+    }
+}
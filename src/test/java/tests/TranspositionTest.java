@@ -2,8 +2,11 @@ package tests;
 
 import org.junit.Test;
 import org.kurodev.matrix.Matrix;
+import org.kurodev.matrix.MutableMatrix;
 import org.kurodev.matrix.TranspositionType;
 
+import java.util.Random;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -97,13 +100,63 @@ public class TranspositionTest {
         assertEquals(expectedMatrix, result);
     }
 
-    public void invalidTranspositionShouldResultInErrorMatrix() {
+    @Test
+    public void nonSquareTranspositionShouldSwapDimensions() {
         double[][] input = {
                 {1, 2, 3, 4, 5},
-                {1, 2, 3, 4, 5}};
+                {6, 7, 8, 9, 10}};
         Matrix m = Matrix.of(input);
-        Matrix result = m.transpose(TranspositionType.MAIN_DIAGONAL);
-        assertTrue(result.isError());
+        assertEquals(Matrix.of(new double[][]{
+                {1, 6},
+                {2, 7},
+                {3, 8},
+                {4, 9},
+                {5, 10}}), m.transpose(TranspositionType.MAIN_DIAGONAL));
+        assertEquals(Matrix.of(new double[][]{
+                {10, 5},
+                {9, 4},
+                {8, 3},
+                {7, 2},
+                {6, 1}}), m.transpose(TranspositionType.SIDE_DIAGONAL));
+        assertEquals(Matrix.of(new double[][]{
+                {5, 4, 3, 2, 1},
+                {10, 9, 8, 7, 6}}), m.transpose(TranspositionType.VERTICAL_LINE));
+        assertEquals(Matrix.of(new double[][]{
+                {6, 7, 8, 9, 10},
+                {1, 2, 3, 4, 5}}), m.transpose(TranspositionType.HORIZONTAL_LINE));
+    }
+
+    /**
+     * Big enough to be split into several tiles, with sizes that are not a multiple of the tile size.
+     */
+    @Test
+    public void blockedTranspositionShouldMatchDefinition() {
+        Matrix m = Matrix.of(131, 77, new Random(123456789));
+        Matrix main = m.transpose(TranspositionType.MAIN_DIAGONAL);
+        Matrix side = m.transpose(TranspositionType.SIDE_DIAGONAL);
+        assertEquals(77, main.getWidth());
+        assertEquals(131, main.getHeight());
+        for (int x = 0; x < m.getWidth(); x++) {
+            for (int y = 0; y < m.getHeight(); y++) {
+                assertEquals(m.get(x, y), main.get(y, x), 0);
+                assertEquals(m.get(x, y), side.get(m.getHeight() - (1 + y), m.getWidth() - (1 + x)), 0);
+            }
+        }
+        assertEquals(m, main.transpose());
+        assertEquals(m, side.transpose(TranspositionType.SIDE_DIAGONAL));
     }
 
+    @Test
+    public void transpositionShouldKeepTheTypeOfTheMatrix() {
+        MutableMatrix square = MutableMatrix.of(Matrix.of(4, new Random(123456789)));
+        MutableMatrix wide = MutableMatrix.of(Matrix.of(5, 3, new Random(123456789)));
+        for (TranspositionType type : TranspositionType.values()) {
+            Matrix transposed = square.transpose(type);
+            assertTrue(transposed instanceof MutableMatrix);
+            assertEquals(square.snapshot().transpose(type), transposed);
+            //copies of a non-square matrix have the wrong dimensions for diagonal transpositions
+            boolean swaps = type.getWidth(wide) != wide.getWidth();
+            assertEquals(!swaps, wide.transpose(type) instanceof MutableMatrix);
+        }
+    }
 }